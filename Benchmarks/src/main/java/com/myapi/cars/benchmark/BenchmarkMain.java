@@ -0,0 +1,41 @@
+package com.myapi.cars.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Runs JMH with the given options. Unless a result format or file is given, results are written as JSON to
+ * results/resourceserver-{version}-{timestamp}.json, so runs of different releases can be compared.
+ */
+public class BenchmarkMain {
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (!arguments.contains("-rf") && !arguments.contains("-rff")) {
+            Path results = Path.of("results");
+            Files.createDirectories(results);
+            arguments.addAll(List.of("-rf", "json", "-rff", results.resolve(
+                    "resourceserver-" + getVersion() + "-" + LocalDateTime.now().format(TIMESTAMP_FORMAT) + ".json")
+                    .toString()));
+        }
+        org.openjdk.jmh.Main.main(arguments.toArray(String[]::new));
+    }
+
+    private static String getVersion() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream input = BenchmarkMain.class.getResourceAsStream("/benchmark.properties")) {
+            properties.load(input);
+        }
+        return properties.getProperty("resourceserver.version");
+    }
+}
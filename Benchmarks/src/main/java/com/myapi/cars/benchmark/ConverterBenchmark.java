@@ -0,0 +1,100 @@
+package com.myapi.cars.benchmark;
+
+import com.myapi.cars.benchmark.modelmapper.ModelMapperCarDTOToCarConverter;
+import com.myapi.cars.benchmark.modelmapper.ModelMapperCarToCarDTOConverter;
+import com.myapi.cars.converter.CarDTOToCarConverter;
+import com.myapi.cars.converter.CarToCarDTOConverter;
+import com.myapi.cars.dto.CarDTO;
+import com.myapi.cars.dto.CategoryDTO;
+import com.myapi.cars.dto.MakeDTO;
+import com.myapi.cars.model.Car;
+import com.myapi.cars.model.Category;
+import com.myapi.cars.model.Make;
+import com.myapi.cars.service.ConverterService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Car entity/DTO conversion of the hand-written converters against the ModelMapper ones they replaced, for cars with
+ * a different number of categories, and through the ConverterService lookup the services use.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConverterBenchmark {
+
+    @Param({"0", "3", "20"})
+    private int categoryCount;
+
+    private Car car;
+
+    private CarDTO carDTO;
+
+    private CarToCarDTOConverter carToCarDTOConverter;
+
+    private CarDTOToCarConverter carDTOToCarConverter;
+
+    private ConverterService converterService;
+
+    private ModelMapperCarToCarDTOConverter modelMapperCarToCarDTOConverter;
+
+    private ModelMapperCarDTOToCarConverter modelMapperCarDTOToCarConverter;
+
+    @Setup
+    public void setUp() {
+        Set<Category> categories = new LinkedHashSet<>();
+        Set<CategoryDTO> categoryDTOSet = new LinkedHashSet<>();
+        for (long id = 1; id <= categoryCount; id++) {
+            categories.add(new Category(id, "Category " + id));
+            categoryDTOSet.add(CategoryDTO.builder().id(id).name("Category " + id).build());
+        }
+        car = Car.builder().id(1L).make(new Make(1L, "Toyota")).year(2020).model("Camry").categories(categories)
+                .build();
+        carDTO = CarDTO.builder().id(1L).make(MakeDTO.builder().id(1L).name("Toyota").build()).year(2020)
+                .model("Camry").categories(categoryDTOSet).build();
+
+        carToCarDTOConverter = new CarToCarDTOConverter();
+        carDTOToCarConverter = new CarDTOToCarConverter();
+        converterService = new ConverterService();
+        converterService.addConverter(carToCarDTOConverter);
+        converterService.addConverter(carDTOToCarConverter);
+        modelMapperCarToCarDTOConverter = new ModelMapperCarToCarDTOConverter();
+        modelMapperCarDTOToCarConverter = new ModelMapperCarDTOToCarConverter();
+    }
+
+    @Benchmark
+    public CarDTO carToCarDTO() {
+        return carToCarDTOConverter.convert(car);
+    }
+
+    @Benchmark
+    public CarDTO carToCarDTO_converterService() {
+        return converterService.convert(car, CarDTO.class);
+    }
+
+    @Benchmark
+    public CarDTO carToCarDTO_modelMapper() {
+        return modelMapperCarToCarDTOConverter.convert(car);
+    }
+
+    @Benchmark
+    public Car carDTOToCar() {
+        return carDTOToCarConverter.convert(carDTO);
+    }
+
+    @Benchmark
+    public Car carDTOToCar_converterService() {
+        return converterService.convert(carDTO, Car.class);
+    }
+
+    @Benchmark
+    public Car carDTOToCar_modelMapper() {
+        return modelMapperCarDTOToCarConverter.convert(carDTO);
+    }
+}
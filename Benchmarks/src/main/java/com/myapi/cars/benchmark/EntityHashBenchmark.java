@@ -0,0 +1,100 @@
+package com.myapi.cars.benchmark;
+
+import com.myapi.cars.benchmark.idhash.IdHashedCategory;
+import com.myapi.cars.converter.CarDTOToCarConverter;
+import com.myapi.cars.dto.CarDTO;
+import com.myapi.cars.dto.CategoryDTO;
+import com.myapi.cars.dto.MakeDTO;
+import com.myapi.cars.model.Car;
+import com.myapi.cars.model.Category;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Category sets of cars with many categories, with the class based entity hashCode against an id based one: building
+ * the set, looking up each category by an equal instance, and the CarDTO to Car conversion that builds such a set.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntityHashBenchmark {
+
+    @Param({"10", "1000", "5000"})
+    private int categoryCount;
+
+    private List<Category> categories;
+
+    private List<Category> equalCategories;
+
+    private Set<Category> categorySet;
+
+    private List<IdHashedCategory> idHashedCategories;
+
+    private List<IdHashedCategory> equalIdHashedCategories;
+
+    private Set<IdHashedCategory> idHashedCategorySet;
+
+    private CarDTO carDTO;
+
+    private CarDTOToCarConverter carDTOToCarConverter;
+
+    @Setup
+    public void setUp() {
+        categories = new ArrayList<>();
+        equalCategories = new ArrayList<>();
+        idHashedCategories = new ArrayList<>();
+        equalIdHashedCategories = new ArrayList<>();
+        Set<CategoryDTO> categoryDTOSet = new LinkedHashSet<>();
+        for (long id = 1; id <= categoryCount; id++) {
+            categories.add(new Category(id, "Category " + id));
+            equalCategories.add(new Category(id, "Category " + id));
+            idHashedCategories.add(new IdHashedCategory(id, "Category " + id));
+            equalIdHashedCategories.add(new IdHashedCategory(id, "Category " + id));
+            categoryDTOSet.add(CategoryDTO.builder().id(id).name("Category " + id).build());
+        }
+        categorySet = new LinkedHashSet<>(categories);
+        idHashedCategorySet = new LinkedHashSet<>(idHashedCategories);
+
+        carDTO = CarDTO.builder().id(1L).make(MakeDTO.builder().id(1L).name("Toyota").build()).year(2020)
+                .model("Camry").categories(categoryDTOSet).build();
+        carDTOToCarConverter = new CarDTOToCarConverter();
+    }
+
+    @Benchmark
+    public Set<Category> buildSet() {
+        return new LinkedHashSet<>(categories);
+    }
+
+    @Benchmark
+    public Set<IdHashedCategory> buildSet_idHash() {
+        return new LinkedHashSet<>(idHashedCategories);
+    }
+
+    @Benchmark
+    public void contains(Blackhole blackhole) {
+        for (Category category : equalCategories) {
+            blackhole.consume(categorySet.contains(category));
+        }
+    }
+
+    @Benchmark
+    public void contains_idHash(Blackhole blackhole) {
+        for (IdHashedCategory category : equalIdHashedCategories) {
+            blackhole.consume(idHashedCategorySet.contains(category));
+        }
+    }
+
+    @Benchmark
+    public Car carDTOToCar() {
+        return carDTOToCarConverter.convert(carDTO);
+    }
+}
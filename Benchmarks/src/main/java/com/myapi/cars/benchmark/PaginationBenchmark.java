@@ -0,0 +1,40 @@
+package com.myapi.cars.benchmark;
+
+import com.myapi.cars.utility.CarSortUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Pageable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pageable construction from the paging and sort request parameters of the car search, for a single key sort and for
+ * a multi-key one, each checked against the index backed orderings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaginationBenchmark {
+
+    @Param({"year,desc", "make,year,desc"})
+    private String sortParameter;
+
+    private String[] sort;
+
+    private int limit = 100;
+
+    private int offset = 200;
+
+    @Setup
+    public void setUp() {
+        // a single sort parameter reaches the controller split on its commas
+        sort = sortParameter.split(",");
+    }
+
+    @Benchmark
+    public Pageable getPageable() {
+        return CarSortUtils.getPageable(limit, offset, sort);
+    }
+}
@@ -0,0 +1,177 @@
+package com.myapi.cars.benchmark;
+
+import com.myapi.cars.model.Car;
+import com.myapi.cars.pageable.CarFilter;
+import com.myapi.cars.pageable.OffsetBasedPageRequest;
+import com.myapi.cars.repository.CarRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.repository.Repository;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs against the Postgres database of the {@code spring.datasource.*} system properties, whose car tables are
+ * truncated and seeded unless they already hold the dataset.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchQueryBenchmark {
+
+    private static final int MAKES = 20;
+
+    private static final int CATEGORIES = 10;
+
+    private static final int PAGE_SIZE = 10;
+
+    private static final Sort SORT = Sort.by("id");
+
+    @Param({"100000"})
+    private int cars;
+
+    @Param({"make", "year", "model", "makeAndYear", "categories"})
+    private String filter;
+
+    private ConfigurableApplicationContext context;
+
+    private CarRepository carRepository;
+
+    private CatchAllCarRepository catchAllCarRepository;
+
+    private CarFilter carFilter;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(SearchConfiguration.class).web(WebApplicationType.NONE)
+                .properties(Map.of("spring.datasource.url", "jdbc:postgresql://localhost:5432/cars_benchmark",
+                        "spring.datasource.username", "postgres",
+                        "spring.datasource.password", "postgres",
+                        "spring.main.banner-mode", "off",
+                        "logging.level.root", "warn"))
+                .run();
+        carRepository = context.getBean(CarRepository.class);
+        catchAllCarRepository = context.getBean(CatchAllCarRepository.class);
+
+        seed(context.getBean(JdbcTemplate.class));
+
+        carFilter = switch (filter) {
+            case "make" -> CarFilter.builder().makeNames(List.of("Make 3")).build();
+            case "year" -> CarFilter.builder().yearFrom(2005).yearTo(2005).build();
+            case "model" -> CarFilter.builder().models(List.of("Model 42")).build();
+            case "makeAndYear" -> CarFilter.builder().makeNames(List.of("Make 3")).yearFrom(2005).yearTo(2005).build();
+            case "categories" -> CarFilter.builder().categoryIds(List.of(1L, 2L)).build();
+            default -> throw new IllegalArgumentException("Unknown filter " + filter);
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Slice<Car> findCatchAll() {
+        List<Long> categoryIds = carFilter.getCategoryIds();
+        return catchAllCarRepository.findAll(getFirst(carFilter.getMakeNames()), carFilter.getExactYear(),
+                getFirst(carFilter.getModels()), categoryIds, categoryIds == null ? null : categoryIds.size(),
+                OffsetBasedPageRequest.of(PAGE_SIZE, 0, SORT));
+    }
+
+    @Benchmark
+    public List<Car> findDynamic() {
+        return carRepository.findAllAfter(carFilter, null, SORT, 0, PAGE_SIZE + 1);
+    }
+
+    @Benchmark
+    public long countCatchAll() {
+        List<Long> categoryIds = carFilter.getCategoryIds();
+        return catchAllCarRepository.countAll(getFirst(carFilter.getMakeNames()), carFilter.getExactYear(),
+                getFirst(carFilter.getModels()), categoryIds, categoryIds == null ? null : categoryIds.size());
+    }
+
+    @Benchmark
+    public long countDynamic() {
+        return carRepository.countAll(carFilter);
+    }
+
+    private static String getFirst(List<String> values) {
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        Integer count = jdbcTemplate.queryForObject("SELECT count(*) FROM car", Integer.class);
+        if (count != null && count == cars) {
+            return;
+        }
+        jdbcTemplate.execute("TRUNCATE cars_categories, car, category, make");
+        jdbcTemplate.update("INSERT INTO make (make_id, name) SELECT i, 'Make ' || i FROM generate_series(1, ?) i",
+                MAKES);
+        jdbcTemplate.update("INSERT INTO category (category_id, name) " +
+                "SELECT i, 'Category ' || i FROM generate_series(1, ?) i", CATEGORIES);
+        jdbcTemplate.update("INSERT INTO car (car_id, make_id, year, model) " +
+                "SELECT i, i % ? + 1, 1990 + i % 35, 'Model ' || i % 500 FROM generate_series(1, ?) i", MAKES, cars);
+        // one or two categories per car
+        jdbcTemplate.update("INSERT INTO cars_categories (car_id, category_id) " +
+                "SELECT i, i % ? + 1 FROM generate_series(1, ?) i UNION ALL " +
+                "SELECT i, i / 10 % ? + 1 FROM generate_series(1, ?) i WHERE i / 10 % ? <> i % ?",
+                CATEGORIES, cars, CATEGORIES, cars, CATEGORIES, CATEGORIES);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({DataSourceAutoConfiguration.class, FlywayAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class, JdbcTemplateAutoConfiguration.class})
+    @EntityScan(basePackageClasses = Car.class)
+    @EnableJpaRepositories(basePackageClasses = {CarRepository.class, SearchQueryBenchmark.class},
+            considerNestedRepositories = true)
+    static class SearchConfiguration {
+    }
+
+    /**
+     * The search of CarRepository before it was built from the given predicates only: one statement for every filter
+     * shape, with an {@code ?n IS NULL OR} branch per filter.
+     */
+    interface CatchAllCarRepository extends Repository<Car, Long> {
+
+        @EntityGraph(attributePaths = "make")
+        @Query("SELECT c FROM Car c WHERE " +
+                "(?1 IS NULL OR c.make.name = ?1)" +
+                "AND (?2 IS NULL OR c.year = ?2) " +
+                "AND (?3 IS NULL OR c.model = ?3) " +
+                "AND (?4 IS NULL OR c.id IN (SELECT cc.id FROM Car cc JOIN cc.categories cat WHERE cat.id IN ?4 " +
+                "GROUP BY cc.id HAVING count(*) = ?5))")
+        Slice<Car> findAll(String makeName, Integer year, String model, List<Long> categoryIdList,
+                           Integer categoryIdListSize, Pageable pageable);
+
+        @Query("SELECT count(c) FROM Car c WHERE " +
+                "(?1 IS NULL OR c.make.name = ?1)" +
+                "AND (?2 IS NULL OR c.year = ?2) " +
+                "AND (?3 IS NULL OR c.model = ?3) " +
+                "AND (?4 IS NULL OR c.id IN (SELECT cc.id FROM Car cc JOIN cc.categories cat WHERE cat.id IN ?4 " +
+                "GROUP BY cc.id HAVING count(*) = ?5))")
+        long countAll(String makeName, Integer year, String model, List<Long> categoryIdList,
+                      Integer categoryIdListSize);
+    }
+}
@@ -0,0 +1,57 @@
+package com.myapi.cars.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myapi.cars.dto.CarDTO;
+import com.myapi.cars.dto.CategoryDTO;
+import com.myapi.cars.dto.DTOSearchResponse;
+import com.myapi.cars.dto.MakeDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of a car search response page, with the ObjectMapper defaults of Spring MVC.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"10", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+
+    private DTOSearchResponse response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<CarDTO> cars = new ArrayList<>();
+        for (long id = 1; id <= pageSize; id++) {
+            Set<CategoryDTO> categories = new LinkedHashSet<>();
+            for (long categoryId = 1; categoryId <= 3; categoryId++) {
+                categories.add(CategoryDTO.builder().id(categoryId).name("Category " + categoryId).build());
+            }
+            cars.add(CarDTO.builder().id(id).make(MakeDTO.builder().id(1L).name("Toyota").build()).year(2020)
+                    .model("Camry").categories(categories).build());
+        }
+        response = DTOSearchResponse.builder().offset(0L).limit(pageSize).hasNext(true).sort("id: ASC")
+                .nextCursor("eyJ2IjpbMTAwXX0").data(cars).build();
+    }
+
+    @Benchmark
+    public byte[] serializeSearchResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,82 @@
+package com.myapi.cars.benchmark;
+
+import com.myapi.cars.exception.ValidationException;
+import com.myapi.cars.model.Car;
+import com.myapi.cars.model.Category;
+import com.myapi.cars.model.Make;
+import com.myapi.cars.validation.CarEntityValidator;
+import com.myapi.cars.validation.CategoryEntityValidator;
+import com.myapi.cars.validation.MakeEntityValidator;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean Validation through the entity validators of the services.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+    private CarEntityValidator carEntityValidator;
+
+    private MakeEntityValidator makeEntityValidator;
+
+    private CategoryEntityValidator categoryEntityValidator;
+
+    private Car car;
+
+    private Car invalidCar;
+
+    private Make make;
+
+    private Category category;
+
+    @Setup
+    public void setUp() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        carEntityValidator = new CarEntityValidator(null, validator);
+        makeEntityValidator = new MakeEntityValidator(validator);
+        categoryEntityValidator = new CategoryEntityValidator(validator);
+
+        make = new Make(1L, "Toyota");
+        category = new Category(1L, "Sedan");
+        car = Car.builder().id(1L).make(make).year(2020).model("Camry").categories(Set.of(category)).build();
+        invalidCar = Car.builder().id(1L).year(-1).categories(Set.of()).build();
+    }
+
+    @Benchmark
+    public Car validateCar() {
+        carEntityValidator.validate(car);
+        return car;
+    }
+
+    @Benchmark
+    public ValidationException validateInvalidCar() {
+        try {
+            carEntityValidator.validate(invalidCar);
+            throw new IllegalStateException("Car must not be valid");
+        } catch (ValidationException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Make validateMake() {
+        makeEntityValidator.validate(make);
+        return make;
+    }
+
+    @Benchmark
+    public Category validateCategory() {
+        categoryEntityValidator.validate(category);
+        return category;
+    }
+}
@@ -0,0 +1,51 @@
+package com.myapi.cars.benchmark.idhash;
+
+import org.hibernate.proxy.HibernateProxy;
+
+import java.util.Objects;
+
+/**
+ * A category hashed by id instead of by class, compared in {@link com.myapi.cars.benchmark.EntityHashBenchmark}.
+ */
+public class IdHashedCategory {
+
+    private Long id;
+
+    private String name;
+
+    public IdHashedCategory(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null) return false;
+        Class<?> oEffectiveClass = o instanceof HibernateProxy ?
+                ((HibernateProxy) o).getHibernateLazyInitializer().getPersistentClass() :
+                o.getClass();
+        Class<?> thisEffectiveClass = this instanceof HibernateProxy ?
+                ((HibernateProxy) this).getHibernateLazyInitializer().getPersistentClass() :
+                this.getClass();
+        if (thisEffectiveClass != oEffectiveClass) return false;
+        IdHashedCategory category = (IdHashedCategory) o;
+        return getId() != null && Objects.equals(getId(), category.getId());
+    }
+
+    @Override
+    public final int hashCode() {
+        Object id = this instanceof HibernateProxy ?
+                ((HibernateProxy) this).getHibernateLazyInitializer().getIdentifier() :
+                getId();
+        return id != null ? id.hashCode() : getClass().hashCode();
+    }
+}
@@ -0,0 +1,42 @@
+package com.myapi.cars.benchmark.modelmapper;
+
+import com.myapi.cars.dto.CarDTO;
+import com.myapi.cars.dto.CategoryDTO;
+import com.myapi.cars.model.Car;
+import com.myapi.cars.model.Category;
+import org.modelmapper.Condition;
+import org.modelmapper.ModelMapper;
+import org.springframework.core.convert.converter.Converter;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The ModelMapper based CarDTO to Car converter the Resource Server used before the hand-written one, kept as the
+ * baseline of {@link com.myapi.cars.benchmark.ConverterBenchmark}.
+ */
+public class ModelMapperCarDTOToCarConverter implements Converter<CarDTO, Car> {
+
+    private final ModelMapper modelMapper;
+
+    public ModelMapperCarDTOToCarConverter() {
+        this.modelMapper = new ModelMapper();
+        ModelMapper categoryMapper = new ModelMapper();
+
+        org.modelmapper.Converter<Set<CategoryDTO>, Set<Category>> categoryListConverter =
+                categoryList -> categoryList.getSource().stream()
+                        .map(categoryDTO -> categoryMapper.map(categoryDTO, Category.class))
+                        .collect(Collectors.toSet());
+
+        Condition notNull = ctx -> ctx.getSource() != null;
+
+        modelMapper.typeMap(CarDTO.class, Car.class).addMappings(modelMapper -> {
+            modelMapper.when(notNull).using(categoryListConverter).map(CarDTO::getCategories, Car::setCategories);
+        });
+    }
+
+    @Override
+    public Car convert(CarDTO source) {
+        return modelMapper.map(source, Car.class);
+    }
+}
@@ -0,0 +1,41 @@
+package com.myapi.cars.benchmark.modelmapper;
+
+import com.myapi.cars.dto.CarDTO;
+import com.myapi.cars.dto.CategoryDTO;
+import com.myapi.cars.model.Car;
+import com.myapi.cars.model.Category;
+import org.modelmapper.Condition;
+import org.modelmapper.ModelMapper;
+import org.springframework.core.convert.converter.Converter;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The ModelMapper based Car to CarDTO converter the Resource Server used before the hand-written one, kept as the
+ * baseline of {@link com.myapi.cars.benchmark.ConverterBenchmark}.
+ */
+public class ModelMapperCarToCarDTOConverter implements Converter<Car, CarDTO> {
+
+    private final ModelMapper modelMapper;
+
+    public ModelMapperCarToCarDTOConverter() {
+        this.modelMapper = new ModelMapper();
+        ModelMapper categoryMapper = new ModelMapper();
+
+        org.modelmapper.Converter<Set<Category>, Set<CategoryDTO>> categorySetConverter =
+                categoryList -> categoryList.getSource().stream()
+                        .map(category -> categoryMapper.map(category, CategoryDTO.class)).collect(Collectors.toSet());
+
+        Condition notNull = ctx -> ctx.getSource() != null;
+
+        modelMapper.typeMap(Car.class, CarDTO.class).addMappings(modelMapper -> {
+            modelMapper.when(notNull).using(categorySetConverter).map(Car::getCategories, CarDTO::setCategories);
+        });
+    }
+
+    @Override
+    public CarDTO convert(Car source) {
+        return modelMapper.map(source, CarDTO.class);
+    }
+}
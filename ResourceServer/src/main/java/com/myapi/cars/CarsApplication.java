@@ -1,10 +1,16 @@
 package com.myapi.cars;
 
+import com.myapi.cars.config.CarReadModelProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableCaching
+@EnableConfigurationProperties(CarReadModelProperties.class)
 public class CarsApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,102 @@
+package com.myapi.cars.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Notifications are lost while the connection is down, so every cache is evicted whenever it is (re)opened.
+ */
+@Component
+@Slf4j
+public class CacheInvalidationListener implements SmartLifecycle {
+
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+
+    private final CacheInvalidator cacheInvalidator;
+
+    private final DataSourceProperties dataSourceProperties;
+
+    private final Duration reconnectInterval;
+
+    private volatile boolean running;
+
+    private Thread thread;
+
+    public CacheInvalidationListener(CacheInvalidator cacheInvalidator,
+                                       DataSourceProperties dataSourceProperties,
+                                       @Value("${cars.cache.invalidation.reconnect-interval:PT5S}")
+                                       Duration reconnectInterval) {
+        this.cacheInvalidator = cacheInvalidator;
+        this.dataSourceProperties = dataSourceProperties;
+        this.reconnectInterval = reconnectInterval;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this::listen, "cache-invalidation-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(2L * POLL_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CacheInvalidator.CHANNEL);
+                }
+                cacheInvalidator.evictAll();
+                log.info("Listening to cache invalidations");
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            cacheInvalidator.evict(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Lost the cache invalidations, reconnecting in {}", reconnectInterval, e);
+                cacheInvalidator.evictAll();
+                try {
+                    Thread.sleep(reconnectInterval.toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.myapi.cars.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * This node evicts after the commit. The other nodes are notified on {@link #CHANNEL} in the writing transaction, so
+ * they only hear of committed writes. The payload is the reference data name, or {@code CAR:<id>}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidator {
+
+    public static final String CHANNEL = "cars_cache_invalidation";
+
+    private static final String CAR_PREFIX = "CAR:";
+
+    private final ReferenceDataCache referenceDataCache;
+
+    private final CarResponseCache carResponseCache;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void invalidate(ReferenceData referenceData) {
+        invalidate(referenceData.name());
+    }
+
+    public void invalidateCar(long id) {
+        invalidate(CAR_PREFIX + id);
+    }
+
+    public void invalidateCars(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.query("SELECT pg_notify(?, ? || id) FROM unnest(string_to_array(?, ',')) AS id", rs -> {
+        }, CHANNEL, CAR_PREFIX, ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        List<String> notifications = ids.stream().map(id -> CAR_PREFIX + id).toList();
+        afterCommit(() -> notifications.forEach(this::evict));
+    }
+
+    public void evictAll() {
+        for (ReferenceData referenceData : ReferenceData.values()) {
+            evict(referenceData);
+        }
+    }
+
+    void evict(String notification) {
+        if (notification.startsWith(CAR_PREFIX)) {
+            try {
+                carResponseCache.evict(Long.parseLong(notification.substring(CAR_PREFIX.length())));
+            } catch (NumberFormatException e) {
+                log.warn("Ignored cache invalidation {}", notification);
+            }
+            return;
+        }
+        try {
+            evict(ReferenceData.valueOf(notification));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignored cache invalidation {}", notification);
+        }
+    }
+
+    private void invalidate(String notification) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> {
+        }, CHANNEL, notification);
+        afterCommit(() -> evict(notification));
+    }
+
+    private void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+
+    private void evict(ReferenceData referenceData) {
+        referenceDataCache.evict(referenceData);
+        carResponseCache.evictAll();
+        log.debug("Evicted cached {} data", referenceData);
+    }
+}
@@ -0,0 +1,15 @@
+package com.myapi.cars.cache;
+
+public final class CacheNames {
+
+    public static final String MAKES = "makes";
+
+    public static final String MAKES_BY_NAME = "makesByName";
+
+    public static final String CATEGORIES = "categories";
+
+    public static final String CATEGORIES_BY_NAME = "categoriesByName";
+
+    private CacheNames() {
+    }
+}
@@ -0,0 +1,94 @@
+package com.myapi.cars.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.myapi.cars.dto.CarDTO;
+import com.myapi.cars.utility.ETagUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * Evicting one car waits for a load of it in progress, but evicting all of them does not, so entries carry the
+ * generation they were loaded in and the ones loaded before the last full eviction are discarded on read.
+ */
+@Component
+public class CarResponseCache {
+
+    public static final String NAME = "carResponses";
+
+    private final ObjectMapper objectMapper;
+
+    private final Cache<Long, Entry> cache;
+
+    private final Counter invalidations;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public CarResponseCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                            @Value("${cars.cache.car-response.maximum-size:10000}") long maximumSize,
+                            @Value("${cars.cache.car-response.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        this.objectMapper = objectMapper;
+        this.cache = CaffeineCacheMetrics.monitor(meterRegistry,
+                Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(expireAfterWrite).recordStats()
+                        .build(), NAME);
+        this.invalidations = Counter.builder("cache.invalidations").tag("cache", NAME)
+                .description("The number of entries evicted because their data changed").register(meterRegistry);
+    }
+
+    public CachedCar get(long id, LongFunction<CarDTO> loader) {
+        while (true) {
+            long loadGeneration = generation.get();
+            Entry entry = cache.get(id, key -> new Entry(loadGeneration, load(loader.apply(key))));
+            if (entry.generation() == generation.get()) {
+                return entry.car();
+            }
+            cache.asMap().remove(id, entry);
+        }
+    }
+
+    /**
+     * Not counted as a hit or miss, so answering conditional requests leaves the metrics as they were.
+     */
+    public Optional<String> getETag(long id) {
+        Entry entry = cache.policy().getIfPresentQuietly(id);
+        return entry == null || entry.generation() != generation.get() ? Optional.empty() :
+                Optional.of(entry.car().eTag());
+    }
+
+    public void evict(long id) {
+        if (cache.asMap().remove(id) != null) {
+            invalidations.increment();
+        }
+    }
+
+    public void evictAll() {
+        generation.incrementAndGet();
+        invalidations.increment(cache.estimatedSize());
+        cache.invalidateAll();
+    }
+
+    private CachedCar load(CarDTO carDTO) {
+        try {
+            return new CachedCar(objectMapper.writeValueAsBytes(carDTO), ETagUtils.of(carDTO));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public record CachedCar(byte[] json, String eTag) {
+    }
+
+    private record Entry(long generation, CachedCar car) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.myapi.cars.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public enum ReferenceData {
+
+    MAKE(List.of(CacheNames.MAKES, CacheNames.MAKES_BY_NAME)),
+
+    CATEGORY(List.of(CacheNames.CATEGORIES, CacheNames.CATEGORIES_BY_NAME));
+
+    private final List<String> cacheNames;
+}
@@ -0,0 +1,61 @@
+package com.myapi.cars.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A lookup reading the database before a write commits may cache its value after the eviction of that write, so
+ * entries carry the generation they were loaded in and the ones loaded before the last eviction are discarded on read.
+ */
+@Component
+public class ReferenceDataCache {
+
+    private final CacheManager cacheManager;
+
+    private final Map<ReferenceData, AtomicLong> generations = new EnumMap<>(ReferenceData.class);
+
+    public ReferenceDataCache(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+        for (ReferenceData referenceData : ReferenceData.values()) {
+            generations.put(referenceData, new AtomicLong());
+        }
+    }
+
+    /**
+     * Exceptions of the loader are thrown as they are and nothing is cached.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(ReferenceData referenceData, String cacheName, Object key, Supplier<T> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return loader.get();
+        }
+        AtomicLong generation = generations.get(referenceData);
+        Cache.ValueWrapper cached = cache.get(key);
+        if (cached != null && cached.get() instanceof Entry entry && entry.generation() == generation.get()) {
+            return (T) entry.value();
+        }
+        long loadGeneration = generation.get();
+        T value = loader.get();
+        cache.put(key, new Entry(loadGeneration, value));
+        return value;
+    }
+
+    public void evict(ReferenceData referenceData) {
+        generations.get(referenceData).incrementAndGet();
+        referenceData.getCacheNames().stream().map(cacheManager::getCache).forEach(cache -> {
+            if (cache != null) {
+                cache.clear();
+            }
+        });
+    }
+
+    private record Entry(long generation, Object value) {
+    }
+}
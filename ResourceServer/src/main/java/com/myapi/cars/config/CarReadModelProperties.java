@@ -0,0 +1,16 @@
+package com.myapi.cars.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "cars.read-model")
+public record CarReadModelProperties(@DefaultValue("projection") ReadModel search,
+                                     @DefaultValue("projection") ReadModel byId) {
+
+    public enum ReadModel {
+
+        ENTITY,
+
+        PROJECTION
+    }
+}
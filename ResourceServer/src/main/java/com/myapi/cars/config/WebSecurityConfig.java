@@ -2,6 +2,8 @@ package com.myapi.cars.config;
 
 import com.myapi.cars.validation.AudienceValidator;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -23,23 +25,32 @@ public class WebSecurityConfig {
     private String issuer;
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtDecoder jwtDecoder) throws Exception {
         http.authorizeHttpRequests(
                 auth -> auth
+                        // metrics name caches, pools and JVM internals, only the health is public
+                        .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                        .requestMatchers(EndpointRequest.toAnyEndpoint()).authenticated()
                         .requestMatchers(HttpMethod.GET).permitAll()
                         .requestMatchers("/api/v1/**").authenticated()
                         .anyRequest().permitAll());
-        http.oauth2ResourceServer(rs -> rs.jwt(jwt -> jwt.decoder(jwtDecoder())));
+        http.oauth2ResourceServer(rs -> rs.jwt(jwt -> jwt.decoder(jwtDecoder)));
         return http.build();
     }
 
-    JwtDecoder jwtDecoder() {
-        OAuth2TokenValidator<Jwt> withAudience = new AudienceValidator(audience);
-        OAuth2TokenValidator<Jwt> withIssuer = JwtValidators.createDefaultWithIssuer(issuer);
-        OAuth2TokenValidator<Jwt> validator = new DelegatingOAuth2TokenValidator<>(withAudience, withIssuer);
+    /**
+     * Fetches the issuer configuration with the first token, so startup does not need the issuer.
+     */
+    @Bean
+    public JwtDecoder jwtDecoder() {
+        return new SupplierJwtDecoder(() -> {
+            OAuth2TokenValidator<Jwt> withAudience = new AudienceValidator(audience);
+            OAuth2TokenValidator<Jwt> withIssuer = JwtValidators.createDefaultWithIssuer(issuer);
+            OAuth2TokenValidator<Jwt> validator = new DelegatingOAuth2TokenValidator<>(withAudience, withIssuer);
 
-        NimbusJwtDecoder jwtDecoder = JwtDecoders.fromOidcIssuerLocation(issuer);
-        jwtDecoder.setJwtValidator(validator);
-        return jwtDecoder;
+            NimbusJwtDecoder jwtDecoder = JwtDecoders.fromOidcIssuerLocation(issuer);
+            jwtDecoder.setJwtValidator(validator);
+            return jwtDecoder;
+        });
     }
 }
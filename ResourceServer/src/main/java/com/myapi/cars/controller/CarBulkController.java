@@ -0,0 +1,92 @@
+package com.myapi.cars.controller;
+
+import com.myapi.cars.dto.CarDTO;
+import com.myapi.cars.dto.DTOBulkReport;
+import com.myapi.cars.service.CarBulkService;
+import com.myapi.cars.utility.CarFilterUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/car")
+@RequiredArgsConstructor
+public class CarBulkController {
+
+    private final CarBulkService carBulkService;
+
+    @Operation(summary = "Update Cars in bulk",
+               description = "Sets the non-null fields of the body on the Cars of the given ids, or on every Car " +
+                       "matching the filters of the search (make, year, yearFrom, yearTo, model, cars and " +
+                       "categoryMatch). The make and categories are referenced by id. Cars are updated in chunks, " +
+                       "each committed on its own, and the outcome is reported per id.",
+               security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cars updated, see the report for the outcome per id",
+                         content = {@Content(mediaType = "application/json",
+                                             schema = @Schema(implementation = DTOBulkReport.class))}),
+            @ApiResponse(responseCode = "400", description = "Neither ids nor filters, or both, are given",
+                         content = @Content),
+            @ApiResponse(responseCode = "404", description = "Make or category of the patch not found",
+                         content = @Content)})
+    @PatchMapping("/bulk")
+    public DTOBulkReport update(@RequestBody CarDTO patch, @RequestParam(required = false) List<Long> ids,
+                                @RequestParam(required = false) List<String> make,
+                                @RequestParam(required = false) Integer year,
+                                @RequestParam(required = false) Integer yearFrom,
+                                @RequestParam(required = false) Integer yearTo,
+                                @RequestParam(required = false) List<String> model,
+                                @RequestParam(required = false) List<String> cars,
+                                @RequestParam(required = false) String categoryMatch) {
+        if (ids != null) {
+            requireNoFilter(make, year, yearFrom, yearTo, model, cars, categoryMatch);
+            return carBulkService.updateAllById(ids, patch);
+        }
+        return carBulkService.updateAll(CarFilterUtils.getFilter(make, model, year, yearFrom, yearTo, categoryMatch),
+                cars == null ? new ArrayList<>() : cars, patch);
+    }
+
+    @Operation(summary = "Delete Cars in bulk",
+               description = "Deletes the Cars of the given ids, or every Car matching the filters of the search " +
+                       "(make, year, yearFrom, yearTo, model, cars and categoryMatch). Cars are deleted in chunks, " +
+                       "each committed on its own, and the outcome is reported per id.",
+               security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cars deleted, see the report for the outcome per id",
+                         content = {@Content(mediaType = "application/json",
+                                             schema = @Schema(implementation = DTOBulkReport.class))}),
+            @ApiResponse(responseCode = "400", description = "Neither ids nor filters, or both, are given",
+                         content = @Content)})
+    @DeleteMapping("/bulk")
+    public DTOBulkReport delete(@RequestParam(required = false) List<Long> ids,
+                                @RequestParam(required = false) List<String> make,
+                                @RequestParam(required = false) Integer year,
+                                @RequestParam(required = false) Integer yearFrom,
+                                @RequestParam(required = false) Integer yearTo,
+                                @RequestParam(required = false) List<String> model,
+                                @RequestParam(required = false) List<String> cars,
+                                @RequestParam(required = false) String categoryMatch) {
+        if (ids != null) {
+            requireNoFilter(make, year, yearFrom, yearTo, model, cars, categoryMatch);
+            return carBulkService.deleteAllById(ids);
+        }
+        return carBulkService.deleteAll(CarFilterUtils.getFilter(make, model, year, yearFrom, yearTo, categoryMatch),
+                cars == null ? new ArrayList<>() : cars);
+    }
+
+    private void requireNoFilter(List<String> make, Integer year, Integer yearFrom, Integer yearTo, List<String> model,
+                                 List<String> cars, String categoryMatch) {
+        if (make != null || year != null || yearFrom != null || yearTo != null || model != null || cars != null ||
+                categoryMatch != null) {
+            throw new IllegalArgumentException("Ids must not be combined with filters.");
+        }
+    }
+}
@@ -1,23 +1,43 @@
 package com.myapi.cars.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.myapi.cars.cache.CarResponseCache;
 import com.myapi.cars.dto.CarDTO;
+import com.myapi.cars.dto.DTOBatchResponse;
 import com.myapi.cars.dto.DTOSearchResponse;
+import com.myapi.cars.pageable.CarFacet;
+import com.myapi.cars.pageable.CarFilter;
+import com.myapi.cars.pageable.TotalMode;
 import com.myapi.cars.service.CarService;
-import com.myapi.cars.utility.PaginationSortingUtils;
+import com.myapi.cars.utility.CarFilterUtils;
+import com.myapi.cars.utility.CarSortUtils;
+import com.myapi.cars.utility.ETagUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/car")
@@ -25,8 +45,14 @@ import java.util.List;
 @Slf4j
 public class CarController {
 
+    private static final long NO_TIMEOUT = -1;
+
     private final CarService carService;
 
+    private final CarResponseCache carResponseCache;
+
+    private final ObjectMapper objectMapper;
+
     @Operation(summary = "Create the Car")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Car created successfully", content = {
@@ -53,25 +79,60 @@ public class CarController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Car updated successfully", content = {
                     @Content(mediaType = "application/json", schema = @Schema(implementation = CarDTO.class))}),
-            @ApiResponse(responseCode = "404", description = "Car not found", content = @Content)})
+            @ApiResponse(responseCode = "404", description = "Car not found", content = @Content),
+            @ApiResponse(responseCode = "409", description = "Car was changed concurrently", content = @Content),
+            @ApiResponse(responseCode = "412", description = "Car does not match If-Match", content = @Content)})
     @PatchMapping("/{carId}")
-    @ResponseStatus(HttpStatus.OK)
-    public CarDTO update(@RequestBody CarDTO carDTO, @PathVariable Long carId) {
-        return carService.update(carDTO, carId);
+    public ResponseEntity<CarDTO> update(@RequestBody CarDTO carDTO, @PathVariable Long carId,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                         String ifMatch) {
+        CarDTO updated = carService.update(carDTO, carId, ifMatch);
+        return ResponseEntity.ok().eTag(ETagUtils.of(updated)).body(updated);
     }
 
     @Operation(summary = "Retrieve the Car by Id", security = @SecurityRequirement(name = "bearerAuth"))
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Car retrieved successfully", content = {
                     @Content(mediaType = "application/json", schema = @Schema(implementation = CarDTO.class))}),
+            @ApiResponse(responseCode = "304", description = "Car not modified", content = @Content),
             @ApiResponse(responseCode = "404", description = "Car not found", content = @Content)})
     @GetMapping("/{carId}")
-    @ResponseStatus(HttpStatus.OK)
-    public CarDTO getById(@PathVariable Long carId) {
-        return carService.findById(carId);
+    public ResponseEntity<byte[]> getById(@PathVariable Long carId,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                          String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            // a cached car is evicted when it changes, so its tag is as current as the body served from it
+            String eTag = carResponseCache.getETag(carId).orElseGet(() -> carService.findETagById(carId));
+            if (ETagUtils.isNotModified(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+        }
+        CarResponseCache.CachedCar car = carResponseCache.get(carId, carService::findById);
+        return ResponseEntity.ok().eTag(car.eTag()).contentType(MediaType.APPLICATION_JSON).body(car.json());
+    }
+
+    @Operation(summary = "Retrieve the Cars by Ids",
+               description = "Returns up to " + CarService.MAX_BATCH_SIZE + " Cars in the order of the ids, each " +
+                       "once, and lists the ids no Car exists for as missingIds.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cars retrieved successfully", content = {
+                    @Content(mediaType = "application/json",
+                             schema = @Schema(implementation = DTOBatchResponse.class))}),
+            @ApiResponse(responseCode = "400", description = "No or too many ids", content = @Content)})
+    @GetMapping("/batch")
+    public DTOBatchResponse getAllByIds(@RequestParam List<Long> ids) {
+        return carService.findAllById(ids);
     }
 
-    @Operation(summary = "Retrieve the Cars")
+    @Operation(summary = "Retrieve the Cars",
+               description = "Pages by limit/offset, or by keyset when the nextCursor of a previous response is " +
+                       "passed as cursor with the same sort. Several makes or models match any of them, yearFrom " +
+                       "and yearTo bound the year inclusively, and the cars (category names) are matched all " +
+                       "(default) or any of them as categoryMatch says. The total is exact, estimated by the query " +
+                       "planner or omitted (default). The sort is by id, year, model, make and year or make and " +
+                       "model (make being the make id), all ascending or descending, e.g. make,year,desc, and " +
+                       "always ends with the id. The facets (make, year, category) given are counted over all " +
+                       "the matching Cars, up to facetLimit values each.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Cars retrieved successfully", content = {
                     @Content(mediaType = "application/json", schema = @Schema(implementation = CarDTO.class))})})
@@ -80,13 +141,96 @@ public class CarController {
     public DTOSearchResponse getAll(@RequestParam(defaultValue = "100") int limit,
                                             @RequestParam(defaultValue = "0") int offset,
                                             @RequestParam(defaultValue = "id,asc") String[] sort,
-                                            @RequestParam(required = false) String make,
+                                            @RequestParam(required = false) List<String> make,
                                             @RequestParam(required = false) Integer year,
-                                            @RequestParam(required = false) String model,
-                                    @RequestParam(required = false) List<String> cars) {
+                                            @RequestParam(required = false) Integer yearFrom,
+                                            @RequestParam(required = false) Integer yearTo,
+                                            @RequestParam(required = false) List<String> model,
+                                    @RequestParam(required = false) List<String> cars,
+                                    @RequestParam(defaultValue = "all") String categoryMatch,
+                                    @RequestParam(required = false) String cursor,
+                                    @RequestParam(defaultValue = "none") String total,
+                                    @RequestParam(required = false) List<String> facets,
+                                    @RequestParam(defaultValue = "10") int facetLimit) {
         if (cars == null) cars = new ArrayList<>();
-        Pageable pageable = PaginationSortingUtils.getPageable(limit, offset, sort);
-        return carService.findAll(make, year, model, cars, pageable);
+        CarFilter filter = CarFilterUtils.getFilter(make, model, year, yearFrom, yearTo, categoryMatch);
+        TotalMode totalMode = TotalMode.of(total);
+        Set<CarFacet> carFacets = facets == null ? Set.of() : facets.stream().map(CarFacet::of)
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(CarFacet.class)));
+        DTOSearchResponse response;
+        if (cursor != null) {
+            if (offset != 0) {
+                throw new IllegalArgumentException("Offset must not be combined with cursor.");
+            }
+            response = carService.findAll(filter, cars, cursor, limit, CarSortUtils.getSort(sort), totalMode);
+        } else {
+            Pageable pageable = CarSortUtils.getPageable(limit, offset, sort);
+            response = carService.findAll(filter, cars, pageable, totalMode);
+        }
+        if (!carFacets.isEmpty()) {
+            response.setFacets(carService.countFacets(filter, cars, carFacets, facetLimit));
+        }
+        return response;
     }
 
+    @Operation(summary = "Export the Cars",
+               description = "Streams every Car matching the filters as newline-delimited JSON, in id order, while " +
+                       "it is read from the database.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cars exported successfully", content = {
+                    @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = CarDTO.class))})})
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public WebAsyncTask<Void> export(@RequestParam(required = false) List<String> make,
+                                        @RequestParam(required = false) Integer year,
+                                        @RequestParam(required = false) Integer yearFrom,
+                                        @RequestParam(required = false) Integer yearTo,
+                                        @RequestParam(required = false) List<String> model,
+                                        @RequestParam(required = false) List<String> cars,
+                                        @RequestParam(defaultValue = "all") String categoryMatch,
+                                        HttpServletResponse response) throws IOException {
+        CarFilter filter = CarFilterUtils.getFilter(make, model, year, yearFrom, yearTo, categoryMatch);
+        List<String> carNameList = cars == null ? new ArrayList<>() : cars;
+        ObjectWriter writer = objectMapper.writerFor(CarDTO.class);
+        // commits the status and headers, the security ones included, on the request thread: the body is written on
+        // an async thread, which would otherwise commit the response while the filters are still adding headers
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.flushBuffer();
+        // streams for as long as reading the catalog takes instead of the default async request timeout
+        return new WebAsyncTask<>(NO_TIMEOUT, () -> {
+            OutputStream outputStream = response.getOutputStream();
+            try {
+                carService.exportAll(filter, carNameList, new CarLineWriter(writer, outputStream)::write);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            outputStream.flush();
+            return null;
+        });
+    }
+
+    /**
+     * The first line is flushed right away so the client sees the export start.
+     */
+    @RequiredArgsConstructor
+    private static class CarLineWriter {
+
+        private final ObjectWriter writer;
+
+        private final OutputStream outputStream;
+
+        private boolean flushed;
+
+        void write(CarDTO carDTO) {
+            try {
+                outputStream.write(writer.writeValueAsBytes(carDTO));
+                outputStream.write('\n');
+                if (!flushed) {
+                    outputStream.flush();
+                    flushed = true;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
 }
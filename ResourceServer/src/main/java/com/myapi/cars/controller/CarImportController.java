@@ -0,0 +1,47 @@
+package com.myapi.cars.controller;
+
+import com.myapi.cars.dto.DTOImportReport;
+import com.myapi.cars.importing.CarImportFormat;
+import com.myapi.cars.service.CarImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/api/v1/car")
+@RequiredArgsConstructor
+public class CarImportController {
+
+    private final CarImportService carImportService;
+
+    @Operation(summary = "Import Cars in bulk",
+               description = "Streams an NDJSON (one car per line) or CSV (make,year,model,categories header, " +
+                       "categories separated by |) body. Makes and categories are referenced by name. Rows are " +
+                       "committed in chunks; rows that fail are reported by line and do not stop the import.",
+               security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Body imported, see the report for failed rows",
+                         content = {@Content(mediaType = "application/json",
+                                             schema = @Schema(implementation = DTOImportReport.class))}),
+            @ApiResponse(responseCode = "400", description = "Body can not be read as the given format",
+                         content = @Content)})
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    @ResponseStatus(HttpStatus.OK)
+    public DTOImportReport importCars(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                      InputStream body) {
+        Charset charset = contentType.getCharset() == null ? StandardCharsets.UTF_8 : contentType.getCharset();
+        return carImportService.importCars(body, CarImportFormat.of(contentType), charset);
+    }
+}
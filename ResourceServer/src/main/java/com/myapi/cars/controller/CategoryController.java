@@ -5,7 +5,9 @@ import com.myapi.cars.dto.DTOSearchResponse;
 import com.myapi.cars.dto.CategoryDTO;
 import com.myapi.cars.model.Category;
 import com.myapi.cars.service.CategoryService;
+import com.myapi.cars.utility.ETagUtils;
 import com.myapi.cars.service.CategoryService;
+import com.myapi.cars.utility.ETagUtils;
 import com.myapi.cars.utility.PaginationSortingUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,8 +18,10 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -56,23 +60,27 @@ public class CategoryController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Category updated successfully", content = {
                     @Content(mediaType = "application/json", schema = @Schema(implementation = CategoryDTO.class))}),
-            @ApiResponse(responseCode = "404", description = "Category not found", content = @Content)})
+            @ApiResponse(responseCode = "404", description = "Category not found", content = @Content),
+            @ApiResponse(responseCode = "409", description = "Category was changed concurrently", content = @Content),
+            @ApiResponse(responseCode = "412", description = "Category does not match If-Match", content = @Content)})
     @PatchMapping("/{categoryId}")
-    @ResponseStatus(HttpStatus.OK)
-    public CategoryDTO update(@RequestBody CategoryDTO categoryDTO, @PathVariable Long categoryId) {
-        return categoryService.update(categoryDTO, categoryId);
+    public ResponseEntity<CategoryDTO> update(@RequestBody CategoryDTO categoryDTO, @PathVariable Long categoryId,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                             String ifMatch) {
+        CategoryDTO updated = categoryService.update(categoryDTO, categoryId, ifMatch);
+        return ResponseEntity.ok().eTag(ETagUtils.of(updated)).body(updated);
     }
 
     @Operation(summary = "Retrieve the Category by Id", security = @SecurityRequirement(name = "bearerAuth"))
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Category retrieved successfully", content = {
                     @Content(mediaType = "application/json", schema = @Schema(implementation = CategoryDTO.class))}),
+            @ApiResponse(responseCode = "304", description = "Category not modified", content = @Content),
             @ApiResponse(responseCode = "404", description = "Category not found", content = @Content)})
-
     @GetMapping("/{categoryId}")
-    @ResponseStatus(HttpStatus.OK)
-    public CategoryDTO getById(@PathVariable Long categoryId) {
-        return categoryService.findById(categoryId);
+    public ResponseEntity<CategoryDTO> getById(@PathVariable Long categoryId) {
+        CategoryDTO categoryDTO = categoryService.findById(categoryId);
+        return ResponseEntity.ok().eTag(ETagUtils.of(categoryDTO)).body(categoryDTO);
     }
 
     @Operation(summary = "Retrieve the Categories")
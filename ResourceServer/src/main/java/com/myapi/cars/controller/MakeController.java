@@ -4,6 +4,7 @@ import com.myapi.cars.dto.CarDTO;
 import com.myapi.cars.dto.DTOSearchResponse;
 import com.myapi.cars.dto.MakeDTO;
 import com.myapi.cars.service.MakeService;
+import com.myapi.cars.utility.ETagUtils;
 import com.myapi.cars.utility.PaginationSortingUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,7 +15,9 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -51,22 +54,27 @@ public class MakeController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Make updated successfully", content = {
                     @Content(mediaType = "application/json", schema = @Schema(implementation = MakeDTO.class))}),
-            @ApiResponse(responseCode = "404", description = "Make not found", content = @Content)})
+            @ApiResponse(responseCode = "404", description = "Make not found", content = @Content),
+            @ApiResponse(responseCode = "409", description = "Make was changed concurrently", content = @Content),
+            @ApiResponse(responseCode = "412", description = "Make does not match If-Match", content = @Content)})
     @PatchMapping("/{makeId}")
-    @ResponseStatus(HttpStatus.OK)
-    public MakeDTO update(@RequestBody MakeDTO makeDTO, @PathVariable Long makeId) {
-        return makeService.update(makeDTO, makeId);
+    public ResponseEntity<MakeDTO> update(@RequestBody MakeDTO makeDTO, @PathVariable Long makeId,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                         String ifMatch) {
+        MakeDTO updated = makeService.update(makeDTO, makeId, ifMatch);
+        return ResponseEntity.ok().eTag(ETagUtils.of(updated)).body(updated);
     }
 
     @Operation(summary = "Retrieve the Make by Id", security = @SecurityRequirement(name = "bearerAuth"))
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Make retrieved successfully", content = {
                     @Content(mediaType = "application/json", schema = @Schema(implementation = MakeDTO.class))}),
+            @ApiResponse(responseCode = "304", description = "Make not modified", content = @Content),
             @ApiResponse(responseCode = "404", description = "Make not found", content = @Content)})
     @GetMapping("/{makeId}")
-    @ResponseStatus(HttpStatus.OK)
-    public MakeDTO getById(@PathVariable Long makeId) {
-        return makeService.findById(makeId);
+    public ResponseEntity<MakeDTO> getById(@PathVariable Long makeId) {
+        MakeDTO makeDTO = makeService.findById(makeId);
+        return ResponseEntity.ok().eTag(ETagUtils.of(makeDTO)).body(makeDTO);
     }
 
     @Operation(summary = "Retrieve the Makes")
@@ -0,0 +1,49 @@
+package com.myapi.cars.controller;
+
+import com.myapi.cars.dto.DTOSuggestion;
+import com.myapi.cars.index.SuggestionType;
+import com.myapi.cars.service.SuggestionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/v1/suggestion")
+@RequiredArgsConstructor
+public class SuggestionController {
+
+    private final SuggestionService suggestionService;
+
+    @Operation(summary = "Suggest names by prefix",
+               description = "Returns up to limit car models, make names and category names (or the given types " +
+                       "of them) starting with the prefix, ignoring case, with the number of Cars having each, " +
+                       "ranked by that number among the first " + SuggestionService.CANDIDATES +
+                       " names of each type in alphabetical order.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Names suggested successfully", content = {
+                    @Content(mediaType = "application/json",
+                             array = @ArraySchema(schema = @Schema(implementation = DTOSuggestion.class)))}),
+            @ApiResponse(responseCode = "400", description = "Blank prefix, unknown type or limit out of range",
+                         content = @Content)})
+    @GetMapping
+    public List<DTOSuggestion> suggest(@RequestParam String prefix,
+                                       @RequestParam(required = false) List<String> types,
+                                       @RequestParam(defaultValue = "10") int limit) {
+        Set<SuggestionType> suggestionTypes = types == null ? Set.of() : types.stream().map(SuggestionType::of)
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(SuggestionType.class)));
+        return suggestionService.suggest(prefix, suggestionTypes, limit);
+    }
+}
@@ -4,37 +4,47 @@ import com.myapi.cars.dto.CarDTO;
 import com.myapi.cars.dto.CategoryDTO;
 import com.myapi.cars.model.Car;
 import com.myapi.cars.model.Category;
-import org.modelmapper.Condition;
-import org.modelmapper.ModelMapper;
+import lombok.NonNull;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
+import java.util.LinkedHashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
 
+/**
+ * Copies the non-null fields of the DTO, except the id.
+ */
 @Component
 public class CarFromCarDTOUpdater {
 
-    private final ModelMapper modelMapper;
+    private final MakeDTOToMakeConverter makeDTOToMakeConverter;
 
     private final CategoryDTOToCategoryConverter categoryDTOToCategoryConverter;
 
     public CarFromCarDTOUpdater() {
-        this.modelMapper = new ModelMapper();
+        this.makeDTOToMakeConverter = new MakeDTOToMakeConverter();
         this.categoryDTOToCategoryConverter = new CategoryDTOToCategoryConverter();
-        modelMapper.getConfiguration().setSkipNullEnabled(true);
-        org.modelmapper.Converter<List<CategoryDTO>, Set<Category>> categoryListConverter =
-                categoryList -> categoryList.getSource().stream().map(categoryDTOToCategoryConverter::convert)
-                        .collect(Collectors.toSet());
-
-        Condition notNull = ctx -> ctx.getSource() != null;
+    }
 
-        modelMapper.typeMap(CarDTO.class, Car.class).addMappings(modelMapper -> {
-            modelMapper.when(notNull).using(categoryListConverter).map(CarDTO::getCategories, Car::setCategories);
-        });
+    public void update(@NonNull CarDTO carDTO, @NonNull Car car) {
+        if (carDTO.getMake() != null) {
+            car.setMake(makeDTOToMakeConverter.convert(carDTO.getMake()));
+        }
+        if (carDTO.getYear() != null) {
+            car.setYear(carDTO.getYear());
+        }
+        if (carDTO.getModel() != null) {
+            car.setModel(carDTO.getModel());
+        }
+        if (carDTO.getCategories() != null) {
+            car.setCategories(convertCategories(carDTO.getCategories()));
+        }
     }
 
-    public void update(CarDTO carDTO, Car car) {
-        modelMapper.map(carDTO, car);
+    private Set<Category> convertCategories(Set<CategoryDTO> categoryDTOSet) {
+        Set<Category> categories = new LinkedHashSet<>();
+        for (CategoryDTO categoryDTO : categoryDTOSet) {
+            categories.add(categoryDTOToCategoryConverter.convert(categoryDTO));
+        }
+        return categories;
     }
-}
\ No newline at end of file
+}
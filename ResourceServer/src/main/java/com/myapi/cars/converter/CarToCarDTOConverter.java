@@ -4,40 +4,39 @@ import com.myapi.cars.dto.CarDTO;
 import com.myapi.cars.dto.CategoryDTO;
 import com.myapi.cars.model.Car;
 import com.myapi.cars.model.Category;
-import org.modelmapper.Condition;
-import org.modelmapper.ModelMapper;
+import lombok.NonNull;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
+import java.util.LinkedHashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Component
 public class CarToCarDTOConverter implements Converter<Car, CarDTO> {
 
-    private final ModelMapper modelMapper;
+    private final MakeToMakeDTOConverter makeToMakeDTOConverter;
 
     private final CategoryToCategoryDTOConverter categoryToCategoryDTOConverter;
 
-
     public CarToCarDTOConverter() {
-        this.modelMapper = new ModelMapper();
+        this.makeToMakeDTOConverter = new MakeToMakeDTOConverter();
         this.categoryToCategoryDTOConverter = new CategoryToCategoryDTOConverter();
-
-        org.modelmapper.Converter<Set<Category>, Set<CategoryDTO>> categorySetConverter =
-                categoryList -> categoryList.getSource().stream().map(categoryToCategoryDTOConverter::convert).collect(
-                        Collectors.toSet());
-
-        Condition notNull = ctx -> ctx.getSource() != null;
-
-        modelMapper.typeMap(Car.class, CarDTO.class).addMappings(modelMapper -> {
-            modelMapper.when(notNull).using(categorySetConverter).map(Car::getCategories, CarDTO::setCategories);
-        });
     }
 
     @Override
-    public CarDTO convert(Car source) {
-        return modelMapper.map(source, CarDTO.class);
+    public CarDTO convert(@NonNull Car source) {
+        return CarDTO.builder().id(source.getId())
+                .make(source.getMake() == null ? null : makeToMakeDTOConverter.convert(source.getMake()))
+                .year(source.getYear()).model(source.getModel())
+                .categories(source.getCategories() == null ? null : convertCategories(source.getCategories()))
+                .version(source.getVersion()).build();
+    }
+
+    private Set<CategoryDTO> convertCategories(Set<Category> categories) {
+        Set<CategoryDTO> categoryDTOSet = new LinkedHashSet<>();
+        for (Category category : categories) {
+            categoryDTOSet.add(categoryToCategoryDTOConverter.convert(category));
+        }
+        return categoryDTOSet;
     }
-}
\ No newline at end of file
+}
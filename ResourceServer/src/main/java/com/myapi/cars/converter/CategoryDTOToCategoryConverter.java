@@ -2,22 +2,15 @@ package com.myapi.cars.converter;
 
 import com.myapi.cars.dto.CategoryDTO;
 import com.myapi.cars.model.Category;
-import org.modelmapper.ModelMapper;
+import lombok.NonNull;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.stereotype.Component;
 
 @Component
 public class CategoryDTOToCategoryConverter implements Converter<CategoryDTO, Category> {
 
-    private final ModelMapper modelMapper;
-
-
-    public CategoryDTOToCategoryConverter() {
-        this.modelMapper = new ModelMapper();
-    }
-
     @Override
-    public Category convert(CategoryDTO source) {
-        return modelMapper.map(source, Category.class);
+    public Category convert(@NonNull CategoryDTO source) {
+        return Category.builder().id(source.getId()).name(source.getName()).build();
     }
 }
@@ -17,4 +17,5 @@ public class CarDTO extends Dto {
     @Size(max = 255, message = "Model must be less than 255 characters")
     String model;
     Set<CategoryDTO> categories;
+    Long version;
 }
\ No newline at end of file
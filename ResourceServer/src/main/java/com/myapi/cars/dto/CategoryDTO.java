@@ -15,4 +15,6 @@ public class CategoryDTO extends Dto {
     @Size(max = 255, message = "Name must be less than 255 characters")
     private String name;
 
+    private Long version;
+
 }
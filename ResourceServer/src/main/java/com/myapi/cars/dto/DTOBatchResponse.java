@@ -0,0 +1,18 @@
+package com.myapi.cars.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class DTOBatchResponse {
+
+    private Iterable<? extends Dto> data;
+    private List<Long> missingIds;
+}
@@ -0,0 +1,34 @@
+package com.myapi.cars.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class DTOBulkReport {
+
+    private Long matched, succeeded, failed;
+    private Long elapsedMillis;
+    private List<Outcome> outcomes;
+
+    public enum Status {
+        UPDATED, DELETED, NOT_FOUND, FAILED
+    }
+
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Data
+    public static class Outcome {
+
+        private Long id;
+        private Status status;
+        private String message;
+    }
+}
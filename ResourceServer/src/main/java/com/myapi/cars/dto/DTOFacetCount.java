@@ -0,0 +1,16 @@
+package com.myapi.cars.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class DTOFacetCount {
+
+    private String value;
+    private Long count;
+}
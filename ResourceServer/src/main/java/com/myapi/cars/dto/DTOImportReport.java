@@ -0,0 +1,31 @@
+package com.myapi.cars.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class DTOImportReport {
+
+    private Long received, imported, failed;
+    private Long elapsedMillis;
+    private Double carsPerSecond;
+    private Boolean errorsTruncated;
+    private List<RowError> errors;
+
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Data
+    public static class RowError {
+
+        private Long line;
+        private String message;
+    }
+}
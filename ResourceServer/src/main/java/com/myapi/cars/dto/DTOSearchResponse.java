@@ -5,6 +5,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+import java.util.Map;
+
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
@@ -13,6 +16,9 @@ public class DTOSearchResponse {
 
     private Long offset;
     private Integer limit, total;
+    private Boolean hasNext;
     private String sort;
+    private String nextCursor;
     private Iterable<? extends Dto> data;
+    private Map<String, List<DTOFacetCount>> facets;
 }
@@ -0,0 +1,17 @@
+package com.myapi.cars.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class DTOSuggestion {
+
+    private String type;
+    private String value;
+    private Long count;
+}
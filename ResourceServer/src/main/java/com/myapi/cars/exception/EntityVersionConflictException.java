@@ -0,0 +1,15 @@
+package com.myapi.cars.exception;
+
+public class EntityVersionConflictException extends ServiceException{
+    public EntityVersionConflictException(String errorMessage) {
+        super(errorMessage);
+    }
+
+    public EntityVersionConflictException(String errorMessage, Throwable err) {
+        super(errorMessage, err);
+    }
+
+    public EntityVersionConflictException(Exception e) {
+        super(e);
+    }
+}
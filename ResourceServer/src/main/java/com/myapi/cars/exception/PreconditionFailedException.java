@@ -0,0 +1,15 @@
+package com.myapi.cars.exception;
+
+public class PreconditionFailedException extends ServiceException{
+    public PreconditionFailedException(String errorMessage) {
+        super(errorMessage);
+    }
+
+    public PreconditionFailedException(String errorMessage, Throwable err) {
+        super(errorMessage, err);
+    }
+
+    public PreconditionFailedException(Exception e) {
+        super(e);
+    }
+}
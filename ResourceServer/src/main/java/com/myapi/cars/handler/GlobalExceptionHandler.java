@@ -2,6 +2,8 @@ package com.myapi.cars.handler;
 
 import com.myapi.cars.exception.EntityAlreadyExistsException;
 import com.myapi.cars.exception.EntityNotFoundException;
+import com.myapi.cars.exception.EntityVersionConflictException;
+import com.myapi.cars.exception.PreconditionFailedException;
 import com.myapi.cars.exception.ServiceException;
 import com.myapi.cars.exception.ValidationException;
 import lombok.RequiredArgsConstructor;
@@ -27,6 +29,13 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
                 .property("timestamp", Instant.now()).build();
     }
 
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleIllegalArgumentException(IllegalArgumentException e) {
+        return ErrorResponse.builder(e, HttpStatus.BAD_REQUEST, e.getMessage()).title("Bad Request")
+                .property("timestamp", Instant.now()).build();
+    }
+
     @ExceptionHandler(ServiceException.class)
     @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
     public ErrorResponse handleServiceException(ServiceException e) {
@@ -48,6 +57,20 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
                 .property("timestamp", Instant.now()).build();
     }
 
+    @ExceptionHandler(EntityVersionConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleEntityVersionConflictException(EntityVersionConflictException e) {
+        return ErrorResponse.builder(e, HttpStatus.CONFLICT, e.getMessage()).title("EntityVersionConflict Exception")
+                .property("timestamp", Instant.now()).build();
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ErrorResponse handlePreconditionFailedException(PreconditionFailedException e) {
+        return ErrorResponse.builder(e, HttpStatus.PRECONDITION_FAILED, e.getMessage())
+                .title("PreconditionFailed Exception").property("timestamp", Instant.now()).build();
+    }
+
     @ExceptionHandler(EntityAlreadyExistsException.class)
     @ResponseStatus(HttpStatus.CONFLICT)
     public ErrorResponse handleEntityAlreadyExistsException(EntityAlreadyExistsException e) {
@@ -0,0 +1,28 @@
+package com.myapi.cars.importing;
+
+import org.springframework.http.MediaType;
+
+public enum CarImportFormat {
+
+    NDJSON("application/x-ndjson"),
+
+    /**
+     * Categories are separated by {@code |}.
+     */
+    CSV("text/csv");
+
+    private final MediaType mediaType;
+
+    CarImportFormat(String mediaType) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+    }
+
+    public static CarImportFormat of(MediaType mediaType) {
+        for (CarImportFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(mediaType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported import format: " + mediaType);
+    }
+}
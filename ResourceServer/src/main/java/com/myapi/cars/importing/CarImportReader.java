@@ -0,0 +1,167 @@
+package com.myapi.cars.importing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public abstract class CarImportReader implements Closeable {
+
+    private final BufferedReader reader;
+
+    private long line;
+
+    protected CarImportReader(InputStream input, Charset charset) {
+        this.reader = new BufferedReader(new InputStreamReader(input, charset));
+    }
+
+    public static CarImportReader of(CarImportFormat format, InputStream input, Charset charset) {
+        return switch (format) {
+            case NDJSON -> new NdjsonReader(input, charset);
+            case CSV -> new CsvReader(input, charset);
+        };
+    }
+
+    public CarImportRow next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+        } while (text.isBlank());
+
+        CarImportRow row;
+        try {
+            row = parse(text);
+        } catch (InvalidRowException e) {
+            return CarImportRow.invalid(line, e.getMessage());
+        }
+        if (row == null) {
+            return next();
+        }
+        row.setLine(line);
+        return row;
+    }
+
+    protected abstract CarImportRow parse(String text);
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    protected static class InvalidRowException extends RuntimeException {
+
+        InvalidRowException(String message) {
+            super(message);
+        }
+    }
+
+    private static class NdjsonReader extends CarImportReader {
+
+        private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+        NdjsonReader(InputStream input, Charset charset) {
+            super(input, charset);
+        }
+
+        @Override
+        protected CarImportRow parse(String text) {
+            try {
+                JsonNode node = OBJECT_MAPPER.readTree(text);
+                if (!node.isObject()) {
+                    throw new InvalidRowException("Line is not a JSON object");
+                }
+                CarImportRow row = OBJECT_MAPPER.treeToValue(node, CarImportRow.class);
+                if (row.getCategories() == null) {
+                    row.setCategories(new ArrayList<>());
+                }
+                return row;
+            } catch (JsonProcessingException e) {
+                throw new InvalidRowException("Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static class CsvReader extends CarImportReader {
+
+        private static final List<String> HEADER = List.of("make", "year", "model", "categories");
+
+        private boolean headerRead;
+
+        CsvReader(InputStream input, Charset charset) {
+            super(input, charset);
+        }
+
+        @Override
+        protected CarImportRow parse(String text) {
+            List<String> fields = split(text);
+            if (!headerRead) {
+                headerRead = true;
+                if (!fields.stream().map(String::trim).map(String::toLowerCase).toList().equals(HEADER)) {
+                    throw new IllegalArgumentException("CSV header must be " + String.join(",", HEADER));
+                }
+                return null;
+            }
+            if (fields.size() != HEADER.size()) {
+                throw new InvalidRowException("Expected " + HEADER.size() + " fields, found " + fields.size());
+            }
+            Integer year;
+            try {
+                year = fields.get(1).isBlank() ? null : Integer.valueOf(fields.get(1).trim());
+            } catch (NumberFormatException e) {
+                throw new InvalidRowException("Year is not a number: " + fields.get(1));
+            }
+            List<String> categories = fields.get(3).isBlank() ? new ArrayList<>() :
+                    new ArrayList<>(Arrays.stream(fields.get(3).split("\\|")).map(String::trim).toList());
+            return CarImportRow.builder().make(emptyToNull(fields.get(0))).year(year).model(emptyToNull(fields.get(2)))
+                    .categories(categories).build();
+        }
+
+        private static List<String> split(String text) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                throw new InvalidRowException("Unterminated quoted field");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private static String emptyToNull(String value) {
+            return value.isEmpty() ? null : value;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.myapi.cars.importing;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CarImportRow {
+
+    @JsonIgnore
+    private long line;
+
+    @JsonIgnore
+    private String error;
+
+    private String make;
+
+    private Integer year;
+
+    private String model;
+
+    @Builder.Default
+    private List<String> categories = new ArrayList<>();
+
+    public static CarImportRow invalid(long line, String error) {
+        return CarImportRow.builder().line(line).error(error).build();
+    }
+}
@@ -0,0 +1,213 @@
+package com.myapi.cars.index;
+
+import com.myapi.cars.model.Car;
+import com.myapi.cars.model.Category;
+import com.myapi.cars.pageable.CarFacet;
+import com.myapi.cars.pageable.CategoryMatch;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Follows the writes of this node only. Other nodes answer from stale bitmaps until their next consistency check, up
+ * to {@code cars.index.bitmap.check-interval} later.
+ */
+@Component
+@ConditionalOnProperty(name = "cars.index.bitmap.enabled", havingValue = "true")
+@Slf4j
+public class CarBitmapIndex extends InMemoryIndex<CarBitmapIndex.Bitmaps> {
+
+    public CarBitmapIndex(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        super("car bitmap index", "searches fall back to SQL", jdbcTemplate, transactionManager);
+    }
+
+    public Optional<CarIdMatch> search(Collection<Long> makeIdList, Integer yearFrom, Integer yearTo,
+                                       Collection<Long> categoryIdList, CategoryMatch categoryMatch) {
+        return read(bitmaps -> {
+            List<RoaringBitmap> predicates = new ArrayList<>();
+            if (makeIdList != null) {
+                predicates.add(or(makeIdList.stream().map(bitmaps.byMake::get)));
+            }
+            if (yearFrom != null || yearTo != null) {
+                predicates.add(or(bitmaps.byYear.entrySet().stream()
+                        .filter(entry -> (yearFrom == null || entry.getKey() >= yearFrom) &&
+                                (yearTo == null || entry.getKey() <= yearTo))
+                        .map(Map.Entry::getValue)));
+            }
+            if (categoryIdList != null) {
+                if (categoryMatch == CategoryMatch.ANY) {
+                    predicates.add(or(categoryIdList.stream().map(bitmaps.byCategory::get)));
+                } else {
+                    categoryIdList.forEach(categoryId -> predicates.add(
+                            bitmaps.byCategory.getOrDefault(categoryId, new RoaringBitmap())));
+                }
+            }
+            if (predicates.isEmpty()) {
+                return new CarIdMatch(bitmaps.all.clone());
+            }
+            return new CarIdMatch(predicates.size() == 1 ? predicates.get(0).clone() :
+                    FastAggregation.and(predicates.toArray(RoaringBitmap[]::new)));
+        });
+    }
+
+    public Optional<Map<Long, Long>> count(CarIdMatch match, CarFacet facet) {
+        return read(bitmaps -> {
+            Map<Long, Long> counts = new HashMap<>();
+            switch (facet) {
+                case MAKE -> bitmaps.byMake.forEach((makeId, ids) -> count(counts, makeId, ids, match));
+                case YEAR -> bitmaps.byYear.forEach((year, ids) -> count(counts, (long) year, ids, match));
+                case CATEGORY ->
+                        bitmaps.byCategory.forEach((categoryId, ids) -> count(counts, categoryId, ids, match));
+            }
+            return counts;
+        });
+    }
+
+    public void put(Car car) {
+        long id = car.getId();
+        long makeId = car.getMake().getId();
+        int year = car.getYear();
+        List<Long> categoryIdList = car.getCategories() == null ? List.of() :
+                car.getCategories().stream().map(Category::getId).toList();
+        afterCommit(bitmaps -> {
+            bitmaps.remove(id);
+            bitmaps.add(id, makeId, year, categoryIdList);
+        });
+    }
+
+    public void remove(long id) {
+        afterCommit(bitmaps -> bitmaps.remove(id));
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        super.rebuild();
+    }
+
+    public boolean isConsistent() {
+        Map<String, Map<Long, List<Long>>> expected = snapshotTransaction.execute(status -> Map.of(
+                "make", digest("SELECT make_id, count(*), sum(car_id) FROM car GROUP BY make_id"),
+                "year", digest("SELECT year, count(*), sum(car_id) FROM car GROUP BY year"),
+                "category", digest("SELECT category_id, count(*), sum(car_id) FROM cars_categories " +
+                        "GROUP BY category_id")));
+
+        return read(bitmaps -> {
+            Map<Long, RoaringBitmap> byYear = new HashMap<>();
+            bitmaps.byYear.forEach((year, ids) -> byYear.put((long) year, ids));
+            return Map.of("make", digest(bitmaps.byMake), "year", digest(byYear), "category",
+                    digest(bitmaps.byCategory)).equals(expected);
+        }).orElse(false);
+    }
+
+    @Scheduled(fixedDelayString = "${cars.index.bitmap.check-interval:PT15M}",
+               initialDelayString = "${cars.index.bitmap.check-interval:PT15M}")
+    public void check() {
+        if (!isConsistent()) {
+            log.warn("Car bitmap index differs from the database, rebuilding it");
+            rebuild();
+        }
+    }
+
+    /**
+     * A single posting is returned as is, not copied.
+     */
+    private RoaringBitmap or(Stream<RoaringBitmap> postings) {
+        RoaringBitmap[] present = postings.filter(Objects::nonNull).toArray(RoaringBitmap[]::new);
+        return present.length == 1 ? present[0] : FastAggregation.or(present);
+    }
+
+    private void count(Map<Long, Long> counts, long key, RoaringBitmap ids, CarIdMatch match) {
+        long count = match.countIn(ids);
+        if (count > 0) {
+            counts.put(key, count);
+        }
+    }
+
+    @Override
+    protected Bitmaps load() {
+        Bitmaps loaded = new Bitmaps();
+        query("SELECT car_id, make_id, year FROM car",
+                rs -> loaded.add(rs.getLong(1), rs.getLong(2), rs.getInt(3), List.of()));
+        query("SELECT car_id, category_id FROM cars_categories",
+                rs -> loaded.addCategory(rs.getLong(1), rs.getLong(2)));
+        return loaded;
+    }
+
+    @Override
+    protected String describe(Bitmaps bitmaps) {
+        return bitmaps.all.getLongCardinality() + " cars";
+    }
+
+    private Map<Long, List<Long>> digest(String sql) {
+        Map<Long, List<Long>> digest = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            digest.put(rs.getLong(1), List.of(rs.getLong(2), rs.getLong(3)));
+        });
+        return digest;
+    }
+
+    private Map<Long, List<Long>> digest(Map<Long, RoaringBitmap> bitmapsByKey) {
+        Map<Long, List<Long>> digest = new HashMap<>();
+        bitmapsByKey.forEach((key, ids) -> {
+            if (!ids.isEmpty()) {
+                long sum = 0;
+                for (int id : ids) {
+                    sum += id;
+                }
+                digest.put(key, List.of(ids.getLongCardinality(), sum));
+            }
+        });
+        return digest;
+    }
+
+    static class Bitmaps {
+
+        private final RoaringBitmap all = new RoaringBitmap();
+
+        private final Map<Long, RoaringBitmap> byMake = new HashMap<>();
+
+        private final Map<Integer, RoaringBitmap> byYear = new HashMap<>();
+
+        private final Map<Long, RoaringBitmap> byCategory = new HashMap<>();
+
+        void add(long id, long makeId, int year, Collection<Long> categoryIdList) {
+            int indexedId = Math.toIntExact(id);
+            all.add(indexedId);
+            byMake.computeIfAbsent(makeId, key -> new RoaringBitmap()).add(indexedId);
+            byYear.computeIfAbsent(year, key -> new RoaringBitmap()).add(indexedId);
+            categoryIdList.forEach(categoryId -> addCategory(id, categoryId));
+        }
+
+        void addCategory(long id, long categoryId) {
+            byCategory.computeIfAbsent(categoryId, key -> new RoaringBitmap()).add(Math.toIntExact(id));
+        }
+
+        void remove(long id) {
+            if (id > Integer.MAX_VALUE || !all.contains((int) id)) {
+                return;
+            }
+            int indexedId = (int) id;
+            all.remove(indexedId);
+            byMake.values().forEach(ids -> ids.remove(indexedId));
+            byYear.values().forEach(ids -> ids.remove(indexedId));
+            byCategory.values().forEach(ids -> ids.remove(indexedId));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.myapi.cars.index;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CarIdMatch {
+
+    private final RoaringBitmap ids;
+
+    CarIdMatch(RoaringBitmap ids) {
+        this.ids = ids;
+    }
+
+    public static CarIdMatch empty() {
+        return new CarIdMatch(new RoaringBitmap());
+    }
+
+    public long size() {
+        return ids.getLongCardinality();
+    }
+
+    long countIn(RoaringBitmap other) {
+        return RoaringBitmap.andCardinality(ids, other);
+    }
+
+    /**
+     * {@code afterId} must be between 1 and Integer.MAX_VALUE, like the indexed ids.
+     */
+    public List<Long> getPage(Sort.Direction direction, Long afterId, long offset, int limit) {
+        long size = size();
+        List<Long> page = new ArrayList<>();
+        if (direction.isAscending()) {
+            long start = (afterId == null ? 0 : ids.rankLong(Math.toIntExact(afterId))) + offset;
+            for (long rank = start; rank < size && page.size() < limit; rank++) {
+                page.add((long) ids.select(Math.toIntExact(rank)));
+            }
+        } else {
+            long end = afterId == null ? size : ids.rankLong(Math.toIntExact(afterId - 1));
+            for (long rank = end - 1 - offset; rank >= 0 && page.size() < limit; rank--) {
+                page.add((long) ids.select(Math.toIntExact(rank)));
+            }
+        }
+        return page;
+    }
+}
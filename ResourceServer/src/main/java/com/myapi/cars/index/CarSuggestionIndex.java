@@ -0,0 +1,248 @@
+package com.myapi.cars.index;
+
+import com.myapi.cars.dto.DTOSuggestion;
+import com.myapi.cars.model.Car;
+import com.myapi.cars.model.Category;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Names are sorted by their lower case, so the names starting with a prefix are one range of the map. Follows the
+ * writes of this node only, until the next rebuild every {@code cars.index.suggestion.rebuild-interval}.
+ */
+@Component
+@ConditionalOnProperty(name = "cars.index.suggestion.enabled", havingValue = "true")
+public class CarSuggestionIndex extends InMemoryIndex<CarSuggestionIndex.Names> {
+
+    private static final Comparator<Suggestion> RANK = Comparator.comparingLong(Suggestion::count).reversed()
+            .thenComparing(suggestion -> getSortKey(suggestion.name())).thenComparing(Suggestion::type);
+
+    public CarSuggestionIndex(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        super("car suggestion index", "suggestions are empty", jdbcTemplate, transactionManager);
+    }
+
+    public Optional<List<DTOSuggestion>> suggest(String prefix, Set<SuggestionType> types, int candidates,
+                                                 int limit) {
+        String from = prefix.toLowerCase(Locale.ROOT);
+        return read(names -> {
+            List<Suggestion> suggestions = new ArrayList<>();
+            for (SuggestionType type : types) {
+                headOfRange(names.get(type).byName, from, candidates).forEach(entry -> suggestions.add(
+                        new Suggestion(type, entry.name, entry.carIds.getLongCardinality())));
+            }
+            return suggestions.stream().sorted(RANK).limit(limit).map(suggestion -> new DTOSuggestion(
+                    suggestion.type().getName(), suggestion.name(), suggestion.count())).toList();
+        });
+    }
+
+    public void put(Car car) {
+        putAll(List.of(car));
+    }
+
+    public void putAll(Collection<Car> cars) {
+        List<IndexedCar> indexedCars = cars.stream().map(car -> new IndexedCar(car.getId(), car.getMake().getId(),
+                car.getModel(), car.getCategories() == null ? List.of() :
+                car.getCategories().stream().map(Category::getId).toList())).toList();
+        RoaringBitmap ids = toBitmap(indexedCars.stream().map(IndexedCar::id).toList());
+        afterCommit(names -> {
+            names.remove(ids);
+            indexedCars.forEach(car -> names.add(car.id(), car.makeId(), car.model(), car.categoryIdList()));
+        });
+    }
+
+    public void remove(long id) {
+        removeAll(List.of(id));
+    }
+
+    public void removeAll(Collection<Long> ids) {
+        RoaringBitmap removed = toBitmap(ids);
+        afterCommit(names -> names.remove(removed));
+    }
+
+    public void putMake(long id, String name) {
+        afterCommit(names -> names.makes.name(id, name));
+    }
+
+    public void removeMake(long id) {
+        afterCommit(names -> names.makes.remove(id));
+    }
+
+    public void putCategory(long id, String name) {
+        afterCommit(names -> names.categories.name(id, name));
+    }
+
+    public void removeCategory(long id) {
+        afterCommit(names -> names.categories.remove(id));
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${cars.index.suggestion.rebuild-interval:PT15M}",
+               initialDelayString = "${cars.index.suggestion.rebuild-interval:PT15M}")
+    public void rebuild() {
+        super.rebuild();
+    }
+
+    @Override
+    protected Names load() {
+        Names loaded = new Names();
+        query("SELECT make_id, name FROM make", rs -> loaded.makes.name(rs.getLong(1), rs.getString(2)));
+        query("SELECT category_id, name FROM category", rs -> loaded.categories.name(rs.getLong(1), rs.getString(2)));
+        query("SELECT car_id, make_id, model FROM car",
+                rs -> loaded.add(rs.getLong(1), rs.getLong(2), rs.getString(3), List.of()));
+        query("SELECT car_id, category_id FROM cars_categories",
+                rs -> loaded.categories.add(rs.getLong(2), null, Math.toIntExact(rs.getLong(1))));
+        return loaded;
+    }
+
+    @Override
+    protected String describe(Names names) {
+        return names.all.getLongCardinality() + " cars";
+    }
+
+    private static RoaringBitmap toBitmap(Collection<Long> ids) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        ids.forEach(id -> {
+            if (id <= Integer.MAX_VALUE) {
+                bitmap.add(id.intValue());
+            }
+        });
+        return bitmap;
+    }
+
+    static <V> List<V> headOfRange(NavigableMap<String, V> byName, String prefix, int limit) {
+        List<V> head = new ArrayList<>(limit);
+        Iterator<V> values = byName.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values().iterator();
+        while (head.size() < limit && values.hasNext()) {
+            head.add(values.next());
+        }
+        return head;
+    }
+
+    private static String getSortKey(String name) {
+        return name.toLowerCase(Locale.ROOT) + '\0' + name;
+    }
+
+    private record Suggestion(SuggestionType type, String name, long count) {
+    }
+
+    private record IndexedCar(long id, long makeId, String model, List<Long> categoryIdList) {
+    }
+
+    static class Names {
+
+        private final RoaringBitmap all = new RoaringBitmap();
+
+        private final Dictionary models = new Dictionary(false);
+
+        private final Dictionary makes = new Dictionary(true);
+
+        private final Dictionary categories = new Dictionary(true);
+
+        Dictionary get(SuggestionType type) {
+            return switch (type) {
+                case MODEL -> models;
+                case MAKE -> makes;
+                case CATEGORY -> categories;
+            };
+        }
+
+        void add(long id, long makeId, String model, Collection<Long> categoryIdList) {
+            int indexedId = Math.toIntExact(id);
+            all.add(indexedId);
+            models.add(model, model, indexedId);
+            makes.add(makeId, null, indexedId);
+            categoryIdList.forEach(categoryId -> categories.add(categoryId, null, indexedId));
+        }
+
+        void remove(RoaringBitmap ids) {
+            if (!RoaringBitmap.intersects(all, ids)) {
+                return;
+            }
+            all.andNot(ids);
+            models.removeCars(ids);
+            makes.removeCars(ids);
+            categories.removeCars(ids);
+        }
+    }
+
+    private static class Dictionary {
+
+        private final boolean keepUnused;
+
+        private final Map<Object, Entry> byKey = new HashMap<>();
+
+        private final NavigableMap<String, Entry> byName = new TreeMap<>();
+
+        Dictionary(boolean keepUnused) {
+            this.keepUnused = keepUnused;
+        }
+
+        void name(Object key, String name) {
+            Entry entry = byKey.computeIfAbsent(key, k -> new Entry());
+            if (entry.name != null) {
+                byName.remove(getSortKey(entry.name));
+            }
+            entry.name = name;
+            byName.put(getSortKey(name), entry);
+        }
+
+        void add(Object key, String name, int carId) {
+            Entry entry = byKey.get(key);
+            if (entry == null) {
+                entry = new Entry();
+                byKey.put(key, entry);
+                if (name != null) {
+                    entry.name = name;
+                    byName.put(getSortKey(name), entry);
+                }
+            }
+            entry.carIds.add(carId);
+        }
+
+        void remove(Object key) {
+            Entry entry = byKey.remove(key);
+            if (entry != null && entry.name != null) {
+                byName.remove(getSortKey(entry.name));
+            }
+        }
+
+        void removeCars(RoaringBitmap carIds) {
+            Iterator<Entry> entries = byKey.values().iterator();
+            while (entries.hasNext()) {
+                Entry entry = entries.next();
+                entry.carIds.andNot(carIds);
+                if (!keepUnused && entry.carIds.isEmpty()) {
+                    entries.remove();
+                    byName.remove(getSortKey(entry.name));
+                }
+            }
+        }
+    }
+
+    private static class Entry {
+
+        private String name;
+
+        private final RoaringBitmap carIds = new RoaringBitmap();
+    }
+}
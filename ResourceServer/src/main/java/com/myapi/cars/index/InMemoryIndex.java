@@ -0,0 +1,142 @@
+package com.myapi.cars.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Writes committed while the state is rebuilt from a snapshot are applied to the old state and replayed on the new
+ * one, so none is lost between the snapshot and the swap.
+ */
+@Slf4j
+abstract class InMemoryIndex<S> {
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final String name;
+
+    private final String unavailable;
+
+    protected final JdbcTemplate jdbcTemplate;
+
+    protected final TransactionTemplate snapshotTransaction;
+
+    private S state;
+
+    private List<Consumer<S>> pendingWrites;
+
+    protected InMemoryIndex(String name, String unavailable, JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager) {
+        this.name = name;
+        this.unavailable = unavailable;
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    protected abstract S load();
+
+    protected abstract String describe(S state);
+
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingWrites = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        S rebuilt = null;
+        try {
+            rebuilt = snapshotTransaction.execute(status -> load());
+        } catch (RuntimeException e) {
+            log.error("{} can not be built, {}", name, unavailable, e);
+        }
+
+        lock.writeLock().lock();
+        try {
+            state = rebuilt;
+            if (state != null) {
+                pendingWrites.forEach(this::write);
+                log.info("Built {} of {}", name, describe(state));
+            }
+        } finally {
+            pendingWrites = null;
+            lock.writeLock().unlock();
+        }
+    }
+
+    protected <R> Optional<R> read(Function<S, R> reader) {
+        lock.readLock().lock();
+        try {
+            return state == null ? Optional.empty() : Optional.ofNullable(reader.apply(state));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applied after the commit, never before: a rolled back write must not reach the index.
+     */
+    protected void afterCommit(Consumer<S> write) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(write);
+                }
+            });
+        } else {
+            apply(write);
+        }
+    }
+
+    protected void query(String sql, RowCallbackHandler rowCallbackHandler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, rowCallbackHandler);
+    }
+
+    private void apply(Consumer<S> write) {
+        lock.writeLock().lock();
+        try {
+            if (pendingWrites != null) {
+                pendingWrites.add(write);
+            }
+            write(write);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void write(Consumer<S> write) {
+        if (state == null) {
+            return;
+        }
+        try {
+            write.accept(state);
+        } catch (ArithmeticException e) {
+            log.error("{} can not hold the written car, {}", name, unavailable, e);
+            state = null;
+        }
+    }
+}
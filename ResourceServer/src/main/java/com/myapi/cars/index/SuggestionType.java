@@ -0,0 +1,27 @@
+package com.myapi.cars.index;
+
+import java.util.Locale;
+
+public enum SuggestionType {
+
+    MODEL,
+
+    MAKE,
+
+    CATEGORY;
+
+    public static SuggestionType of(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Suggestion type must be provided.");
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Suggestion type must be one of model, make or category.", e);
+        }
+    }
+
+    public String getName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
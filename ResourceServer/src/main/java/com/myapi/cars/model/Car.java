@@ -23,7 +23,7 @@ public class Car {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "car_generator")
-    @SequenceGenerator(name = "car_generator", sequenceName = "car_seq", allocationSize = 1)
+    @SequenceGenerator(name = "car_generator", sequenceName = "car_seq", allocationSize = 50)
     @Column(name = "car_id")
     private Long id;
 
@@ -47,6 +47,10 @@ public class Car {
                inverseJoinColumns = @JoinColumn(name = "category_id"))
     private Set<Category> categories = new LinkedHashSet<>();
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @Override
     public final boolean equals(Object o) {
         if (this == o) return true;
@@ -62,6 +66,10 @@ public class Car {
         return getId() != null && Objects.equals(getId(), car.getId());
     }
 
+    /**
+     * Hashes by class, like the Hibernate proxy of the car, so the hash does not change when persisting assigns the id
+     * and a transient car kept in a hash based collection is still found there afterwards.
+     */
     @Override
     public final int hashCode() {
         return this instanceof HibernateProxy ?
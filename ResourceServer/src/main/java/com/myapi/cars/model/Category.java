@@ -20,7 +20,7 @@ public class Category {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_generator")
-    @SequenceGenerator(name = "category_generator", sequenceName = "category_seq", allocationSize = 1)
+    @SequenceGenerator(name = "category_generator", sequenceName = "category_seq", allocationSize = 50)
     @Column(name = "category_id")
     private Long id;
 
@@ -29,10 +29,19 @@ public class Category {
     @Column(name = "name", nullable = false, unique = true)
     private String name;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     public Category(String name) {
         this.name = name;
     }
 
+    public Category(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
     @Override
     public final boolean equals(Object o) {
         if (this == o) return true;
@@ -48,6 +57,9 @@ public class Category {
         return getId() != null && Objects.equals(getId(), category.getId());
     }
 
+    /**
+     * Hashes by class, see {@link Car#hashCode()}.
+     */
     @Override
     public final int hashCode() {
         return this instanceof HibernateProxy ?
@@ -20,7 +20,7 @@ public class Make {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "make_generator")
-    @SequenceGenerator(name = "make_generator", sequenceName = "make_seq", allocationSize = 1)
+    @SequenceGenerator(name = "make_generator", sequenceName = "make_seq", allocationSize = 50)
     @Column(name = "make_id")
     private Long id;
 
@@ -29,10 +29,19 @@ public class Make {
     @Column(name = "name", nullable = false, unique = true)
     private String name;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     public Make(String name) {
         this.name = name;
     }
 
+    public Make(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
     @Override
     public final boolean equals(Object o) {
         if (this == o) return true;
@@ -48,6 +57,9 @@ public class Make {
         return getId() != null && Objects.equals(getId(), make.getId());
     }
 
+    /**
+     * Hashes by class, see {@link Car#hashCode()}.
+     */
     @Override
     public final int hashCode() {
         return this instanceof HibernateProxy ?
@@ -0,0 +1,27 @@
+package com.myapi.cars.pageable;
+
+import java.util.Locale;
+
+public enum CarFacet {
+
+    MAKE,
+
+    YEAR,
+
+    CATEGORY;
+
+    public static CarFacet of(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Facet must be provided.");
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Facet must be one of make, year or category.", e);
+        }
+    }
+
+    public String getName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
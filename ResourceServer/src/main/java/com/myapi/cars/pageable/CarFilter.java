@@ -0,0 +1,86 @@
+package com.myapi.cars.pageable;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+@Getter
+@EqualsAndHashCode
+@ToString
+public class CarFilter {
+
+    private final List<String> makeNames;
+
+    private final List<String> models;
+
+    private final Integer yearFrom;
+
+    private final Integer yearTo;
+
+    /**
+     * Not searched when null. No car matches an empty list.
+     */
+    private final List<Long> categoryIds;
+
+    private final CategoryMatch categoryMatch;
+
+    @Builder(toBuilder = true)
+    private CarFilter(List<String> makeNames, List<String> models, Integer yearFrom, Integer yearTo,
+                      List<Long> categoryIds, CategoryMatch categoryMatch) {
+        if (yearFrom != null && yearTo != null && yearFrom > yearTo) {
+            throw new IllegalArgumentException("Year from must not be greater than year to.");
+        }
+        this.makeNames = makeNames == null ? List.of() : List.copyOf(new LinkedHashSet<>(makeNames));
+        this.models = models == null ? List.of() : List.copyOf(new LinkedHashSet<>(models));
+        this.yearFrom = yearFrom;
+        this.yearTo = yearTo;
+        this.categoryIds = categoryIds == null ? null : List.copyOf(new LinkedHashSet<>(categoryIds));
+        this.categoryMatch = categoryMatch == null ? CategoryMatch.ALL : categoryMatch;
+    }
+
+    public static CarFilter all() {
+        return builder().build();
+    }
+
+    public CarFilter withCategoryIds(List<Long> categoryIds) {
+        return toBuilder().categoryIds(categoryIds).build();
+    }
+
+    /**
+     * A missing category matches no car under ALL and is left out under ANY.
+     */
+    public CarFilter withCategoryNames(List<String> categoryNames, Function<String, Optional<Long>> categoryIdByName) {
+        if (categoryNames.isEmpty()) {
+            return this;
+        }
+        List<Long> ids = new ArrayList<>();
+        for (String name : new LinkedHashSet<>(categoryNames)) {
+            Optional<Long> id = categoryIdByName.apply(name);
+            if (id.isPresent()) {
+                ids.add(id.get());
+            } else if (categoryMatch == CategoryMatch.ALL) {
+                return withCategoryIds(List.of());
+            }
+        }
+        return withCategoryIds(ids);
+    }
+
+    public Integer getExactYear() {
+        return yearFrom != null && yearFrom.equals(yearTo) ? yearFrom : null;
+    }
+
+    public boolean matchesNothing() {
+        return categoryIds != null && categoryIds.isEmpty();
+    }
+
+    public boolean isEmpty() {
+        return makeNames.isEmpty() && models.isEmpty() && yearFrom == null && yearTo == null && categoryIds == null;
+    }
+}
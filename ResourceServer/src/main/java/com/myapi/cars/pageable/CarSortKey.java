@@ -0,0 +1,57 @@
+package com.myapi.cars.pageable;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+
+@Getter
+public enum CarSortKey {
+
+    ID(KeysetCursor.TIE_BREAKER, Long.class),
+
+    MAKE("make.id", Long.class),
+
+    YEAR("year", Integer.class),
+
+    MODEL("model", String.class);
+
+    private final String property;
+
+    private final Class<?> type;
+
+    CarSortKey(String property, Class<?> type) {
+        this.property = property;
+        this.type = type;
+    }
+
+    public static Optional<CarSortKey> ofProperty(String property) {
+        return Arrays.stream(values()).filter(key -> key.property.equals(property)).findFirst();
+    }
+
+    /**
+     * JSON numbers read back from a cursor are Integer or Long, depending on their size.
+     */
+    public boolean accepts(Object value) {
+        if (type == String.class) {
+            return value instanceof String;
+        }
+        if (!(value instanceof Integer || value instanceof Long)) {
+            return false;
+        }
+        long number = ((Number) value).longValue();
+        return type == Long.class || (number >= Integer.MIN_VALUE && number <= Integer.MAX_VALUE);
+    }
+
+    public static CarSortKey of(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Sort key must be provided.");
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Sort key must be one of id, make, year or model.", e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.myapi.cars.pageable;
+
+import java.util.Locale;
+
+public enum CategoryMatch {
+
+    ALL,
+
+    ANY;
+
+    public static CategoryMatch of(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Category match must be provided.");
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Category match must be one of all or any.", e);
+        }
+    }
+}
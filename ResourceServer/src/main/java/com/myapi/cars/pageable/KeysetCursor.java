@@ -0,0 +1,112 @@
+package com.myapi.cars.pageable;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Base64url JSON of the sort it was produced for and the sort key values of the last returned row, the id last.
+ */
+@Getter
+@EqualsAndHashCode
+public class KeysetCursor {
+
+    public static final String TIE_BREAKER = "id";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String sort;
+
+    private final List<Object> values;
+
+    private KeysetCursor(String sort, List<Object> values) {
+        this.sort = sort;
+        this.values = values;
+    }
+
+    public static List<Sort.Order> getOrders(Sort sort) {
+        List<Sort.Order> orders = new ArrayList<>(sort.toList());
+        if (orders.stream().noneMatch(order -> order.getProperty().equals(TIE_BREAKER))) {
+            Sort.Direction direction = orders.isEmpty() ? Sort.Direction.ASC : orders.get(orders.size() - 1)
+                    .getDirection();
+            orders.add(new Sort.Order(direction, TIE_BREAKER));
+        }
+        return orders;
+    }
+
+    public static Optional<KeysetCursor> of(Sort sort, Object row) {
+        BeanWrapper beanWrapper = PropertyAccessorFactory.forBeanPropertyAccess(row);
+        List<Object> values = new ArrayList<>();
+        for (Sort.Order order : getOrders(sort)) {
+            Object value;
+            try {
+                value = beanWrapper.getPropertyValue(order.getProperty());
+            } catch (BeansException e) {
+                return Optional.empty();
+            }
+            if (!(value instanceof Comparable<?>)) {
+                return Optional.empty();
+            }
+            values.add(value);
+        }
+        return Optional.of(new KeysetCursor(describe(sort), values));
+    }
+
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("Cursor must not be blank");
+        }
+        try {
+            Map<?, ?> content = OBJECT_MAPPER.readValue(Base64.getUrlDecoder().decode(token), Map.class);
+            if (!(content.get("sort") instanceof String sort) || !(content.get("values") instanceof List<?> values)) {
+                throw new IllegalArgumentException("Cursor is malformed");
+            }
+            return new KeysetCursor(sort, new ArrayList<>(values));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor is malformed", e);
+        }
+    }
+
+    public String encode() {
+        try {
+            byte[] content = OBJECT_MAPPER.writeValueAsBytes(Map.of("sort", sort, "values", values));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(content);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cursor can not be encoded", e);
+        }
+    }
+
+    /**
+     * The token comes from the client, so its sort and the types of its values are checked.
+     */
+    public List<Sort.Order> getOrdersFor(Sort sort) {
+        List<Sort.Order> orders = getOrders(sort);
+        if (!this.sort.equals(describe(sort)) || orders.size() != values.size()) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+        for (int i = 0; i < orders.size(); i++) {
+            Object value = values.get(i);
+            if (value == null || !CarSortKey.ofProperty(orders.get(i).getProperty()).map(key -> key.accepts(value))
+                    .orElse(value instanceof Comparable<?>)) {
+                throw new IllegalArgumentException("Cursor is malformed");
+            }
+        }
+        return orders;
+    }
+
+    private static String describe(Sort sort) {
+        return Sort.by(getOrders(sort)).toString();
+    }
+}
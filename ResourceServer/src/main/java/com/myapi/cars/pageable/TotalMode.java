@@ -0,0 +1,23 @@
+package com.myapi.cars.pageable;
+
+import java.util.Locale;
+
+public enum TotalMode {
+
+    EXACT,
+
+    ESTIMATED,
+
+    NONE;
+
+    public static TotalMode of(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Total mode must be provided.");
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Total mode must be one of exact, estimated or none.", e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.myapi.cars.repository;
+
+import com.myapi.cars.pageable.CarFilter;
+import com.myapi.cars.pageable.CategoryMatch;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The car table is aliased as {@code c}.
+ */
+class CarFilterSql {
+
+    private final List<String> conditions = new ArrayList<>();
+
+    private final MapSqlParameterSource parameters = new MapSqlParameterSource();
+
+    CarFilterSql(CarFilter filter) {
+        if (filter.getMakeNames().size() == 1) {
+            conditions.add("c.make_id = (SELECT m.make_id FROM make m WHERE m.name = :makeName)");
+            parameters.addValue("makeName", filter.getMakeNames().get(0));
+        } else if (!filter.getMakeNames().isEmpty()) {
+            // an array of the ids, rather than IN (subquery), keeps the make ids an index condition instead of a join
+            conditions.add("c.make_id = ANY (ARRAY(SELECT m.make_id FROM make m WHERE m.name IN (:makeNames)))");
+            parameters.addValue("makeNames", filter.getMakeNames());
+        }
+        if (filter.getExactYear() != null) {
+            conditions.add("c.year = :year");
+            parameters.addValue("year", filter.getExactYear());
+        } else {
+            if (filter.getYearFrom() != null) {
+                conditions.add("c.year >= :yearFrom");
+                parameters.addValue("yearFrom", filter.getYearFrom());
+            }
+            if (filter.getYearTo() != null) {
+                conditions.add("c.year <= :yearTo");
+                parameters.addValue("yearTo", filter.getYearTo());
+            }
+        }
+        if (!filter.getModels().isEmpty()) {
+            conditions.add("c.model IN (:models)");
+            parameters.addValue("models", filter.getModels());
+        }
+        if (filter.matchesNothing()) {
+            conditions.add("FALSE");
+        } else if (filter.getCategoryIds() != null) {
+            parameters.addValue("categoryIds", filter.getCategoryIds());
+            if (filter.getCategoryMatch() == CategoryMatch.ALL) {
+                conditions.add("c.car_id IN (SELECT cc.car_id FROM cars_categories cc " +
+                        "WHERE cc.category_id IN (:categoryIds) GROUP BY cc.car_id HAVING count(*) = :categoryCount)");
+                parameters.addValue("categoryCount", filter.getCategoryIds().size());
+            } else {
+                conditions.add("c.car_id IN (SELECT cc.car_id FROM cars_categories cc " +
+                        "WHERE cc.category_id IN (:categoryIds))");
+            }
+        }
+    }
+
+    CarFilterSql afterId(Long afterId) {
+        if (afterId != null) {
+            conditions.add("c.car_id > :afterId");
+            parameters.addValue("afterId", afterId);
+        }
+        return this;
+    }
+
+    String getWhereClause() {
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    MapSqlParameterSource getParameters() {
+        return parameters;
+    }
+}
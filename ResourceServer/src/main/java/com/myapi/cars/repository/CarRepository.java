@@ -1,24 +1,43 @@
 package com.myapi.cars.repository;
 
 import com.myapi.cars.model.Car;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.UUID;
+import java.util.Optional;
 
 @Repository
-public interface CarRepository extends JpaRepository<Car, Long> {
-
-    @Query("SELECT c FROM Car c WHERE " +
-            "(?1 IS NULL OR c.make.name = ?1)" +
-            "AND (?2 IS NULL OR c.year = ?2) " +
-            "AND (?3 IS NULL OR c.model = ?3) " +
-            "AND (?4 IS NULL OR (SELECT count(*) FROM c.categories cat WHERE cat.name IN (?4)) = ?5)")
-    Page<Car> findAll(String makeName, Integer year, String model, List<String> categoryNameList,
-                      Integer categoryNameListSize, Pageable pageable);
+public interface CarRepository extends JpaRepository<Car, Long>, CarRepositoryCustom {
+
+    @Override
+    @EntityGraph(attributePaths = {"make", "categories"})
+    Optional<Car> findById(Long id);
+
+    @EntityGraph(attributePaths = {"make", "categories"})
+    List<Car> findAllByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "WITH links AS (DELETE FROM cars_categories WHERE car_id = ?1) DELETE FROM car WHERE car_id = ?1",
+           nativeQuery = true)
+    int deleteByIdReturningCount(Long id);
+
+    @Query("SELECT c.version AS version, m.version AS makeVersion, " +
+            "coalesce(sum(cat.version), 0L) AS categoryVersionSum " +
+            "FROM Car c JOIN c.make m LEFT JOIN c.categories cat WHERE c.id = ?1 GROUP BY c.version, m.version")
+    Optional<CarVersions> findVersionsById(Long id);
+
+    interface CarVersions {
+
+        long getVersion();
+
+        long getMakeVersion();
+
+        long getCategoryVersionSum();
+    }
 
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.myapi.cars.repository;
+
+import com.myapi.cars.dto.CarDTO;
+import com.myapi.cars.dto.DTOFacetCount;
+import com.myapi.cars.dto.DTOSuggestion;
+import com.myapi.cars.index.SuggestionType;
+import com.myapi.cars.model.Car;
+import com.myapi.cars.pageable.CarFacet;
+import com.myapi.cars.pageable.CarFilter;
+import com.myapi.cars.pageable.KeysetCursor;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public interface CarRepositoryCustom {
+
+    List<Car> findAllAfter(CarFilter filter, KeysetCursor cursor, Sort sort, long offset, int limit);
+
+    long countAll(CarFilter filter);
+
+    /**
+     * Selects only the columns of {@link CarDTO}, without loading entities into the persistence context.
+     */
+    List<CarDTO> findAllProjected(CarFilter filter, KeysetCursor cursor, Sort sort, long offset, int limit);
+
+    List<CarDTO> findAllProjectedByIdIn(Collection<Long> ids);
+
+    List<Long> findIdsAfter(CarFilter filter, Long afterId, int limit);
+
+    /**
+     * Null values are left unchanged. Bypasses the persistence context.
+     */
+    List<Long> updateAllByIdIn(Collection<Long> ids, Long makeId, Integer year, String model,
+                               List<Long> categoryIdList);
+
+    List<Long> deleteAllByIdIn(Collection<Long> ids);
+
+    /**
+     * Returns the row estimate of the query planner.
+     */
+    long estimateCount(CarFilter filter);
+
+    Map<CarFacet, List<DTOFacetCount>> countFacets(CarFilter filter, Set<CarFacet> facets, int limit);
+
+    List<DTOSuggestion> suggest(String prefix, Set<SuggestionType> types, int candidates, int limit);
+
+    /**
+     * Reads through a database cursor, so it must be called in a transaction.
+     */
+    void streamAll(CarFilter filter, Consumer<Car> consumer);
+}
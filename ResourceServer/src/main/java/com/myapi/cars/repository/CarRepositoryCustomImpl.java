@@ -0,0 +1,413 @@
+package com.myapi.cars.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myapi.cars.dto.CarDTO;
+import com.myapi.cars.dto.CategoryDTO;
+import com.myapi.cars.dto.DTOFacetCount;
+import com.myapi.cars.dto.DTOSuggestion;
+import com.myapi.cars.dto.MakeDTO;
+import com.myapi.cars.model.Car;
+import com.myapi.cars.model.Category;
+import com.myapi.cars.index.SuggestionType;
+import com.myapi.cars.model.Make;
+import com.myapi.cars.pageable.CarFacet;
+import com.myapi.cars.pageable.CarFilter;
+import com.myapi.cars.pageable.CategoryMatch;
+import com.myapi.cars.pageable.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+public class CarRepositoryCustomImpl implements CarRepositoryCustom {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private NamedParameterJdbcTemplate streamingJdbcTemplate;
+
+    @Autowired
+    void setDataSource(DataSource dataSource) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(STREAM_FETCH_SIZE);
+        streamingJdbcTemplate = new NamedParameterJdbcTemplate(template);
+    }
+
+    @Override
+    public List<Car> findAllAfter(CarFilter filter, KeysetCursor cursor, Sort sort, long offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Car> query = cb.createQuery(Car.class);
+        Root<Car> car = query.from(Car.class);
+        car.fetch("make");
+
+        List<Predicate> predicates = getPredicates(cb, query, car, filter);
+        if (cursor != null) {
+            predicates.add(after(cb, car, cursor.getOrdersFor(sort), cursor.getValues()));
+        }
+
+        query.select(car).where(predicates.toArray(Predicate[]::new)).orderBy(getOrders(cb, car, sort));
+
+        return entityManager.createQuery(query).setFirstResult(Math.toIntExact(offset)).setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public long countAll(CarFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Car> car = query.from(Car.class);
+
+        query.select(cb.count(car)).where(getPredicates(cb, query, car, filter).toArray(Predicate[]::new));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    public List<CarDTO> findAllProjected(CarFilter filter, KeysetCursor cursor, Sort sort, long offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Car> car = query.from(Car.class);
+
+        List<Predicate> predicates = getPredicates(cb, query, car, filter);
+        if (cursor != null) {
+            predicates.add(after(cb, car, cursor.getOrdersFor(sort), cursor.getValues()));
+        }
+
+        query.multiselect(getColumns(car)).where(predicates.toArray(Predicate[]::new))
+                .orderBy(getOrders(cb, car, sort));
+
+        return toCarDTOList(entityManager.createQuery(query).setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit).getResultList());
+    }
+
+    @Override
+    public List<CarDTO> findAllProjectedByIdIn(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Car> car = query.from(Car.class);
+
+        query.multiselect(getColumns(car)).where(car.get("id").in(ids));
+
+        return toCarDTOList(entityManager.createQuery(query).getResultList());
+    }
+
+    @Override
+    public Map<CarFacet, List<DTOFacetCount>> countFacets(CarFilter filter, Set<CarFacet> facets, int limit) {
+        Map<CarFacet, List<DTOFacetCount>> countsByFacet = new EnumMap<>(CarFacet.class);
+        facets.forEach(facet -> countsByFacet.put(facet, new ArrayList<>()));
+        if (facets.isEmpty()) {
+            return countsByFacet;
+        }
+        CarFilterSql filterSql = new CarFilterSql(filter);
+        String counts = facets.stream().map(this::getFacetCountSql).collect(Collectors.joining(" UNION ALL "));
+        jdbcTemplate.query("WITH matched AS MATERIALIZED (SELECT c.car_id, c.make_id, c.year FROM car c" +
+                        filterSql.getWhereClause() + "), counts AS (" + counts + ") " +
+                        "SELECT facet, value, count FROM (SELECT facet, value, count, " +
+                        "row_number() OVER (PARTITION BY facet ORDER BY count DESC, value COLLATE \"C\") AS rank " +
+                        "FROM counts) r " +
+                        "WHERE rank <= :facetLimit ORDER BY facet, rank",
+                filterSql.getParameters().addValue("facetLimit", limit),
+                (RowCallbackHandler) rs -> countsByFacet.get(CarFacet.valueOf(rs.getString(1))).add(
+                        new DTOFacetCount(rs.getString(2), rs.getLong(3))));
+        return countsByFacet;
+    }
+
+    private String getFacetCountSql(CarFacet facet) {
+        return switch (facet) {
+            case MAKE -> "SELECT 'MAKE' AS facet, m.name AS value, count(*) AS count FROM matched f " +
+                    "JOIN make m ON m.make_id = f.make_id GROUP BY m.name";
+            case YEAR -> "SELECT 'YEAR' AS facet, CAST(f.year AS varchar) AS value, count(*) AS count " +
+                    "FROM matched f GROUP BY f.year";
+            case CATEGORY -> "SELECT 'CATEGORY' AS facet, g.name AS value, count(*) AS count FROM matched f " +
+                    "JOIN cars_categories cc ON cc.car_id = f.car_id " +
+                    "JOIN category g ON g.category_id = cc.category_id GROUP BY g.name";
+        };
+    }
+
+    /**
+     * Each type reads only the first names of its prefix range from an index.
+     */
+    @Override
+    public List<DTOSuggestion> suggest(String prefix, Set<SuggestionType> types, int candidates, int limit) {
+        if (types.isEmpty()) {
+            return List.of();
+        }
+        String names = types.stream().sorted().map(this::getSuggestionSql).collect(Collectors.joining(" UNION ALL "));
+        return jdbcTemplate.query("SELECT type, name, count FROM (" + names + ") s " +
+                        "ORDER BY count DESC, sort_key, name, rank LIMIT :limit",
+                new MapSqlParameterSource("pattern", escapeLike(prefix.toLowerCase(Locale.ROOT)) + "%")
+                        .addValue("candidates", candidates).addValue("limit", limit),
+                (rs, rowNum) -> new DTOSuggestion(rs.getString(1), rs.getString(2), rs.getLong(3)));
+    }
+
+    private String getSuggestionSql(SuggestionType type) {
+        return switch (type) {
+            // grouped in the order of the lower case model index, so only the cars of the first models are read
+            case MODEL -> getSuggestionSql(type, "model", "count(*)", "car", "GROUP BY lower(model) COLLATE \"C\", " +
+                    "model COLLATE \"C\" ");
+            case MAKE -> getSuggestionSql(type, "m.name", "(SELECT count(*) FROM car c WHERE c.make_id = m.make_id)",
+                    "make m", "");
+            case CATEGORY -> getSuggestionSql(type, "g.name", "(SELECT count(*) FROM cars_categories cc " +
+                    "WHERE cc.category_id = g.category_id)", "category g", "");
+        };
+    }
+
+    /**
+     * Compares names in byte order, like the suggestion index.
+     */
+    private static String getSuggestionSql(SuggestionType type, String name, String count, String from,
+                                           String groupBy) {
+        String sortKey = "lower(" + name + ") COLLATE \"C\"";
+        String sortName = name + " COLLATE \"C\"";
+        return "(SELECT " + type.ordinal() + " AS rank, '" + type.getName() + "' AS type, " + sortKey +
+                " AS sort_key, " + sortName + " AS name, " + count + " AS count FROM " + from + " WHERE " + sortKey +
+                " LIKE :pattern " + groupBy + "ORDER BY " + sortKey + ", " + sortName + " LIMIT :candidates)";
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    @Override
+    public long estimateCount(CarFilter filter) {
+        CarFilterSql filterSql = new CarFilterSql(filter);
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) SELECT 1 FROM car c" +
+                filterSql.getWhereClause(), filterSql.getParameters(), String.class);
+        try {
+            return OBJECT_MAPPER.readTree(plan).path(0).path("Plan").path("Plan Rows").asLong();
+        } catch (JsonProcessingException e) {
+            throw new DataRetrievalFailureException("Query plan can not be parsed", e);
+        }
+    }
+
+    @Override
+    public List<Long> findIdsAfter(CarFilter filter, Long afterId, int limit) {
+        CarFilterSql filterSql = new CarFilterSql(filter).afterId(afterId);
+        return jdbcTemplate.queryForList("SELECT c.car_id FROM car c" + filterSql.getWhereClause() +
+                " ORDER BY c.car_id LIMIT :limit", filterSql.getParameters().addValue("limit", limit), Long.class);
+    }
+
+    @Override
+    public List<Long> updateAllByIdIn(Collection<Long> ids, Long makeId, Integer year, String model,
+                                      List<Long> categoryIdList) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource parameters = new MapSqlParameterSource("ids", ids).addValue("makeId", makeId)
+                .addValue("year", year).addValue("model", model);
+        List<Long> updatedIds = jdbcTemplate.queryForList("UPDATE car SET " +
+                "make_id = coalesce(CAST(:makeId AS bigint), make_id), " +
+                "year = coalesce(CAST(:year AS integer), year), " +
+                "model = coalesce(CAST(:model AS varchar), model), version = version + 1 " +
+                "WHERE car_id IN (:ids) RETURNING car_id", parameters, Long.class);
+        if (categoryIdList != null && !updatedIds.isEmpty()) {
+            parameters = new MapSqlParameterSource("ids", updatedIds).addValue("categoryIds", categoryIdList);
+            jdbcTemplate.update("DELETE FROM cars_categories WHERE car_id IN (:ids)", parameters);
+            if (!categoryIdList.isEmpty()) {
+                jdbcTemplate.update("INSERT INTO cars_categories (car_id, category_id) " +
+                        "SELECT c.car_id, cat.category_id FROM car c CROSS JOIN category cat " +
+                        "WHERE c.car_id IN (:ids) AND cat.category_id IN (:categoryIds)", parameters);
+            }
+        }
+        return updatedIds;
+    }
+
+    @Override
+    public List<Long> deleteAllByIdIn(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList("WITH links AS (DELETE FROM cars_categories WHERE car_id IN (:ids)) " +
+                "DELETE FROM car WHERE car_id IN (:ids) RETURNING car_id", new MapSqlParameterSource("ids", ids),
+                Long.class);
+    }
+
+    @Override
+    public void streamAll(CarFilter filter, Consumer<Car> consumer) {
+        CarFilterSql filterSql = new CarFilterSql(filter);
+        CarRowCallbackHandler handler = new CarRowCallbackHandler(consumer);
+        streamingJdbcTemplate.query("SELECT c.car_id, c.year, c.model, c.version, m.make_id, m.name, m.version, " +
+                "cat.category_id, cat.name, cat.version " +
+                "FROM car c JOIN make m ON m.make_id = c.make_id " +
+                "LEFT JOIN cars_categories cc ON cc.car_id = c.car_id " +
+                "LEFT JOIN category cat ON cat.category_id = cc.category_id" + filterSql.getWhereClause() +
+                " ORDER BY c.car_id", filterSql.getParameters(), handler);
+        handler.finish();
+    }
+
+    private List<Predicate> getPredicates(CriteriaBuilder cb, CriteriaQuery<?> query, Root<Car> car,
+                                          CarFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (!filter.getMakeNames().isEmpty()) {
+            Subquery<Long> makeIds = query.subquery(Long.class);
+            Root<Make> make = makeIds.from(Make.class);
+            makeIds.select(make.get("id")).where(make.get("name").in(filter.getMakeNames()));
+            predicates.add(filter.getMakeNames().size() == 1 ? cb.equal(car.get("make").get("id"), makeIds) :
+                    car.get("make").get("id").in(makeIds));
+        }
+        if (filter.getExactYear() != null) {
+            predicates.add(cb.equal(car.get("year"), filter.getExactYear()));
+        } else {
+            if (filter.getYearFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(car.get("year"), filter.getYearFrom()));
+            }
+            if (filter.getYearTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(car.get("year"), filter.getYearTo()));
+            }
+        }
+        if (!filter.getModels().isEmpty()) {
+            predicates.add(car.get("model").in(filter.getModels()));
+        }
+        if (filter.matchesNothing()) {
+            predicates.add(cb.disjunction());
+        } else if (filter.getCategoryIds() != null) {
+            Subquery<Long> carIds = query.subquery(Long.class);
+            Root<Car> categorizedCar = carIds.from(Car.class);
+            Join<Car, Category> category = categorizedCar.join("categories");
+            carIds.select(categorizedCar.get("id")).where(category.get("id").in(filter.getCategoryIds()));
+            if (filter.getCategoryMatch() == CategoryMatch.ALL) {
+                carIds.groupBy(categorizedCar.get("id"))
+                        .having(cb.equal(cb.count(category), filter.getCategoryIds().size()));
+            }
+            predicates.add(car.get("id").in(carIds));
+        }
+        return predicates;
+    }
+
+    private List<Order> getOrders(CriteriaBuilder cb, Root<Car> car, Sort sort) {
+        return KeysetCursor.getOrders(sort).stream()
+                .map(order -> order.isAscending() ? cb.asc(getPath(car, order.getProperty())) :
+                        cb.desc(getPath(car, order.getProperty()))).toList();
+    }
+
+    private List<Selection<?>> getColumns(Root<Car> car) {
+        Path<Make> make = car.get("make");
+        return List.of(car.get("id"), car.get("year"), car.get("model"), car.get("version"), make.get("id"),
+                make.get("name"), make.get("version"));
+    }
+
+    private List<CarDTO> toCarDTOList(List<Tuple> rows) {
+        Map<Long, CarDTO> carsById = new LinkedHashMap<>();
+        for (Tuple row : rows) {
+            CarDTO carDTO = CarDTO.builder().id(row.get(0, Long.class)).year(row.get(1, Integer.class))
+                    .model(row.get(2, String.class)).version(row.get(3, Long.class))
+                    .make(MakeDTO.builder().id(row.get(4, Long.class)).name(row.get(5, String.class))
+                            .version(row.get(6, Long.class)).build())
+                    .categories(new LinkedHashSet<>()).build();
+            carsById.put(carDTO.getId(), carDTO);
+        }
+        if (carsById.isEmpty()) {
+            return List.of();
+        }
+        entityManager.createQuery("SELECT c.id, cat.id, cat.name, cat.version FROM Car c JOIN c.categories cat " +
+                        "WHERE c.id IN ?1", Tuple.class).setParameter(1, carsById.keySet()).getResultList()
+                .forEach(row -> carsById.get(row.get(0, Long.class)).getCategories().add(
+                        CategoryDTO.builder().id(row.get(1, Long.class)).name(row.get(2, String.class))
+                                .version(row.get(3, Long.class)).build()));
+        return new ArrayList<>(carsById.values());
+    }
+
+    /**
+     * (k1 > v1) OR (k1 = v1 AND k2 > v2) OR ..., flipped for descending keys. The leading key is also bounded on its
+     * own so the database can seek into its index.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private Predicate after(CriteriaBuilder cb, Root<Car> car, List<Sort.Order> orders, List<Object> values) {
+        List<Predicate> alternatives = new ArrayList<>();
+        List<Predicate> equalities = new ArrayList<>();
+        Predicate leadingBound = null;
+        for (int i = 0; i < orders.size(); i++) {
+            Sort.Order order = orders.get(i);
+            Path<Comparable> path = getPath(car, order.getProperty());
+            Comparable value = DefaultConversionService.getSharedInstance().convert(values.get(i), path.getJavaType());
+
+            Predicate beyond = order.isAscending() ? cb.greaterThan(path, value) : cb.lessThan(path, value);
+            if (i == 0) {
+                leadingBound = order.isAscending() ? cb.greaterThanOrEqualTo(path, value) :
+                        cb.lessThanOrEqualTo(path, value);
+            }
+            List<Predicate> alternative = new ArrayList<>(equalities);
+            alternative.add(beyond);
+            alternatives.add(cb.and(alternative.toArray(Predicate[]::new)));
+            equalities.add(cb.equal(path, value));
+        }
+        return cb.and(leadingBound, cb.or(alternatives.toArray(Predicate[]::new)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Path<T> getPath(Root<Car> car, String property) {
+        Path<?> path = car;
+        for (String attribute : property.split("\\.")) {
+            path = path.get(attribute);
+        }
+        return (Path<T>) path;
+    }
+
+    private static class CarRowCallbackHandler implements RowCallbackHandler {
+
+        private final Consumer<Car> consumer;
+
+        private Car car;
+
+        CarRowCallbackHandler(Consumer<Car> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long id = rs.getLong(1);
+            if (car == null || car.getId() != id) {
+                finish();
+                car = Car.builder().id(id).year(rs.getInt(2)).model(rs.getString(3)).version(rs.getLong(4))
+                        .make(Make.builder().id(rs.getLong(5)).name(rs.getString(6)).version(rs.getLong(7)).build())
+                        .categories(new LinkedHashSet<>()).build();
+            }
+            long categoryId = rs.getLong(8);
+            if (!rs.wasNull()) {
+                car.getCategories().add(Category.builder().id(categoryId).name(rs.getString(9))
+                        .version(rs.getLong(10)).build());
+            }
+        }
+
+        void finish() {
+            if (car != null) {
+                consumer.accept(car);
+                car = null;
+            }
+        }
+    }
+}
@@ -2,12 +2,25 @@ package com.myapi.cars.repository;
 
 import com.myapi.cars.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     Optional<Category> findByName(String name);
+
+    List<Category> findAllByNameIn(Collection<String> names);
+
+    @Modifying
+    @Query("DELETE FROM Category c WHERE c.id = ?1")
+    int deleteByIdReturningCount(Long id);
+
+    @Query("SELECT c.id FROM Category c WHERE c.name IN ?1")
+    List<Long> findIdsByNameIn(Collection<String> names);
 }
\ No newline at end of file
@@ -2,12 +2,22 @@ package com.myapi.cars.repository;
 
 import com.myapi.cars.model.Make;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface MakeRepository extends JpaRepository<Make, Long> {
 
     Optional<Make> findByName(String name);
+
+    List<Make> findAllByNameIn(Collection<String> names);
+
+    @Modifying
+    @Query("DELETE FROM Make m WHERE m.id = ?1")
+    int deleteByIdReturningCount(Long id);
 }
\ No newline at end of file
@@ -0,0 +1,248 @@
+package com.myapi.cars.service;
+
+import com.myapi.cars.cache.CacheInvalidator;
+import com.myapi.cars.dto.CarDTO;
+import com.myapi.cars.dto.CategoryDTO;
+import com.myapi.cars.dto.DTOBulkReport;
+import com.myapi.cars.exception.FieldViolation;
+import com.myapi.cars.exception.ServiceException;
+import com.myapi.cars.exception.ValidationException;
+import com.myapi.cars.index.CarBitmapIndex;
+import com.myapi.cars.index.CarSuggestionIndex;
+import com.myapi.cars.model.Car;
+import com.myapi.cars.pageable.CarFilter;
+import com.myapi.cars.repository.CarRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Every chunk of ids runs in its own transaction, so a failing chunk does not undo the ones before it.
+ */
+@Service
+@Slf4j
+public class CarBulkService {
+
+    private final CarRepository carRepository;
+
+    private final MakeService makeService;
+
+    private final CategoryService categoryService;
+
+    private final CacheInvalidator cacheInvalidator;
+
+    private final Optional<CarBitmapIndex> carBitmapIndex;
+
+    private final Optional<CarSuggestionIndex> carSuggestionIndex;
+
+    private final Validator validator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    public CarBulkService(CarRepository carRepository, MakeService makeService, CategoryService categoryService,
+                          CacheInvalidator cacheInvalidator, Optional<CarBitmapIndex> carBitmapIndex,
+                          Optional<CarSuggestionIndex> carSuggestionIndex, Validator validator,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${cars.bulk.chunk-size:1000}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Bulk chunk size must not be less than one!");
+        }
+        this.carRepository = carRepository;
+        this.makeService = makeService;
+        this.categoryService = categoryService;
+        this.cacheInvalidator = cacheInvalidator;
+        this.carBitmapIndex = carBitmapIndex;
+        this.carSuggestionIndex = carSuggestionIndex;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public DTOBulkReport updateAllById(@NonNull List<Long> ids, @NonNull CarDTO patch) {
+        Patch resolved = resolve(patch);
+        return runById(ids, chunk -> update(chunk, resolved), DTOBulkReport.Status.UPDATED);
+    }
+
+    public DTOBulkReport updateAll(@NonNull CarFilter filter, @NonNull List<String> carNameList,
+                                   @NonNull CarDTO patch) {
+        Patch resolved = resolve(patch);
+        return runByFilter(filter, carNameList, chunk -> update(chunk, resolved), DTOBulkReport.Status.UPDATED);
+    }
+
+    public DTOBulkReport deleteAllById(@NonNull List<Long> ids) {
+        return runById(ids, this::delete, DTOBulkReport.Status.DELETED);
+    }
+
+    public DTOBulkReport deleteAll(@NonNull CarFilter filter, @NonNull List<String> carNameList) {
+        return runByFilter(filter, carNameList, this::delete, DTOBulkReport.Status.DELETED);
+    }
+
+    private DTOBulkReport runById(List<Long> ids, Function<List<Long>, List<Long>> operation,
+                                  DTOBulkReport.Status status) {
+        if (ids.isEmpty() || ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Ids must be given and must not be null.");
+        }
+        Progress progress = new Progress();
+        List<Long> distinctIds = List.copyOf(new LinkedHashSet<>(ids));
+        for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+            runChunk(distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size())), operation, status,
+                    progress);
+        }
+        return progress.toReport(status);
+    }
+
+    /**
+     * Walks the matching cars in id order, so a car that stops or starts matching is neither skipped nor changed twice.
+     */
+    private DTOBulkReport runByFilter(CarFilter carFilter, List<String> categoryNameList,
+                                      Function<List<Long>, List<Long>> operation, DTOBulkReport.Status status) {
+        if (carFilter.isEmpty() && categoryNameList.isEmpty()) {
+            throw new IllegalArgumentException("Ids or at least one filter must be given.");
+        }
+        Progress progress = new Progress();
+        CarFilter filter = carFilter.withCategoryNames(categoryNameList,
+                name -> categoryService.findByName(name).map(CategoryDTO::getId));
+        if (filter.matchesNothing()) {
+            return progress.toReport(status);
+        }
+        Long afterId = null;
+        List<Long> chunk;
+        do {
+            Long after = afterId;
+            chunk = execute(() -> carRepository.findIdsAfter(filter, after, chunkSize));
+            if (!chunk.isEmpty()) {
+                runChunk(chunk, operation, status, progress);
+                afterId = chunk.get(chunk.size() - 1);
+            }
+        } while (chunk.size() == chunkSize);
+        return progress.toReport(status);
+    }
+
+    private void runChunk(List<Long> chunk, Function<List<Long>, List<Long>> operation, DTOBulkReport.Status status,
+                          Progress progress) {
+        progress.matched += chunk.size();
+        try {
+            Set<Long> changedIds = new HashSet<>(transactionTemplate.execute(transaction -> operation.apply(chunk)));
+            for (Long id : chunk) {
+                if (changedIds.contains(id)) {
+                    progress.succeeded++;
+                    progress.outcomes.add(DTOBulkReport.Outcome.builder().id(id).status(status).build());
+                } else {
+                    progress.outcomes.add(DTOBulkReport.Outcome.builder().id(id)
+                            .status(DTOBulkReport.Status.NOT_FOUND).message("There is no Car with id = " + id)
+                            .build());
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Bulk chunk of {} cars failed", chunk.size(), e);
+            progress.failed += chunk.size();
+            String message = "Chunk can not be written: " + e.getMostSpecificCause().getMessage();
+            chunk.forEach(id -> progress.outcomes.add(DTOBulkReport.Outcome.builder().id(id)
+                    .status(DTOBulkReport.Status.FAILED).message(message).build()));
+        }
+    }
+
+    private List<Long> update(List<Long> ids, Patch patch) {
+        List<Long> updatedIds = carRepository.updateAllByIdIn(ids, patch.makeId(), patch.year(), patch.model(),
+                patch.categoryIdList());
+        cacheInvalidator.invalidateCars(updatedIds);
+        if (!updatedIds.isEmpty()) {
+            List<Car> cars = carRepository.findAllByIdIn(updatedIds);
+            carBitmapIndex.ifPresent(index -> cars.forEach(index::put));
+            carSuggestionIndex.ifPresent(index -> index.putAll(cars));
+        }
+        return updatedIds;
+    }
+
+    private List<Long> delete(List<Long> ids) {
+        List<Long> deletedIds = carRepository.deleteAllByIdIn(ids);
+        cacheInvalidator.invalidateCars(deletedIds);
+        carBitmapIndex.ifPresent(index -> deletedIds.forEach(index::remove));
+        carSuggestionIndex.ifPresent(index -> index.removeAll(deletedIds));
+        return deletedIds;
+    }
+
+    private Patch resolve(CarDTO patch) {
+        List<FieldViolation> violations = new ArrayList<>();
+        validateValue("year", patch.getYear(), violations);
+        validateValue("model", patch.getModel(), violations);
+        if (!violations.isEmpty()) {
+            throw new ValidationException("Patch is not valid", violations);
+        }
+
+        Long makeId = null;
+        if (patch.getMake() != null) {
+            if (patch.getMake().getId() == null) {
+                throw new IllegalArgumentException("Make must be referenced by id.");
+            }
+            makeId = makeService.findById(patch.getMake().getId()).getId();
+        }
+        List<Long> categoryIdList = null;
+        if (patch.getCategories() != null) {
+            categoryIdList = new ArrayList<>();
+            for (CategoryDTO categoryDTO : patch.getCategories()) {
+                if (categoryDTO.getId() == null) {
+                    throw new IllegalArgumentException("Categories must be referenced by id.");
+                }
+                categoryIdList.add(categoryService.findById(categoryDTO.getId()).getId());
+            }
+        }
+        if (makeId == null && patch.getYear() == null && patch.getModel() == null && categoryIdList == null) {
+            throw new IllegalArgumentException("Patch must set at least one of make, year, model or categories.");
+        }
+        return new Patch(makeId, patch.getYear(), patch.getModel(), categoryIdList);
+    }
+
+    private void validateValue(String field, Object value, List<FieldViolation> violations) {
+        if (value == null) {
+            return;
+        }
+        for (ConstraintViolation<Car> violation : validator.validateValue(Car.class, field, value)) {
+            violations.add(new FieldViolation(field, Car.class.getSimpleName(), value, violation.getMessage()));
+        }
+    }
+
+    private <T> T execute(CarService.DaoSupplier<T> supplier) {
+        try {
+            return supplier.get();
+        } catch (DataAccessException e) {
+            throw new ServiceException("DAO operation failed", e);
+        }
+    }
+
+    private record Patch(Long makeId, Integer year, String model, List<Long> categoryIdList) {
+    }
+
+    private static class Progress {
+
+        private final List<DTOBulkReport.Outcome> outcomes = new ArrayList<>();
+
+        private final long start = System.nanoTime();
+
+        private long matched, succeeded, failed;
+
+        DTOBulkReport toReport(DTOBulkReport.Status status) {
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            log.info("Bulk {} {} of {} cars in {} ms", status, succeeded, matched, elapsedMillis);
+            return DTOBulkReport.builder().matched(matched).succeeded(succeeded).failed(failed)
+                    .elapsedMillis(elapsedMillis).outcomes(outcomes).build();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.myapi.cars.service;
+
+import com.myapi.cars.dto.DTOImportReport;
+import com.myapi.cars.exception.ServiceException;
+import com.myapi.cars.exception.ValidationException;
+import com.myapi.cars.importing.CarImportFormat;
+import com.myapi.cars.importing.CarImportReader;
+import com.myapi.cars.importing.CarImportRow;
+import com.myapi.cars.index.CarBitmapIndex;
+import com.myapi.cars.index.CarSuggestionIndex;
+import com.myapi.cars.model.Car;
+import com.myapi.cars.model.Category;
+import com.myapi.cars.model.Make;
+import com.myapi.cars.repository.CarRepository;
+import com.myapi.cars.repository.CategoryRepository;
+import com.myapi.cars.repository.MakeRepository;
+import com.myapi.cars.validation.CarEntityValidator;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Every chunk of rows runs in its own transaction, so a failing chunk does not undo the ones before it.
+ */
+@Service
+@Slf4j
+public class CarImportService {
+
+    private final CarRepository carRepository;
+
+    private final MakeRepository makeRepository;
+
+    private final CategoryRepository categoryRepository;
+
+    private final CarEntityValidator carEntityValidator;
+
+    private final Optional<CarBitmapIndex> carBitmapIndex;
+
+    private final Optional<CarSuggestionIndex> carSuggestionIndex;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    private final int maxReportedErrors;
+
+    public CarImportService(CarRepository carRepository, MakeRepository makeRepository,
+                            CategoryRepository categoryRepository, CarEntityValidator carEntityValidator,
+                            Optional<CarBitmapIndex> carBitmapIndex, Optional<CarSuggestionIndex> carSuggestionIndex,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${cars.import.chunk-size:1000}") int chunkSize,
+                            @Value("${cars.import.max-reported-errors:1000}") int maxReportedErrors) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Import chunk size must not be less than one!");
+        }
+        this.carRepository = carRepository;
+        this.makeRepository = makeRepository;
+        this.categoryRepository = categoryRepository;
+        this.carEntityValidator = carEntityValidator;
+        this.carBitmapIndex = carBitmapIndex;
+        this.carSuggestionIndex = carSuggestionIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public DTOImportReport importCars(@NonNull InputStream input, @NonNull CarImportFormat format,
+                                      @NonNull Charset charset) {
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        List<CarImportRow> chunk = new ArrayList<>(chunkSize);
+        try (CarImportReader reader = CarImportReader.of(format, input, charset)) {
+            for (CarImportRow row = reader.next(); row != null; row = reader.next()) {
+                progress.received++;
+                if (row.getError() != null) {
+                    progress.fail(row.getLine(), row.getError());
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, progress);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, progress);
+            }
+        } catch (IOException e) {
+            throw new ServiceException("Import body can not be read", e);
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        log.info("Imported {} of {} cars in {} ms", progress.imported, progress.received, elapsedNanos / 1_000_000);
+        return DTOImportReport.builder().received(progress.received).imported(progress.imported)
+                .failed(progress.failed).elapsedMillis(elapsedNanos / 1_000_000)
+                .carsPerSecond(elapsedNanos == 0 ? null : progress.imported * 1e9 / elapsedNanos)
+                .errorsTruncated(progress.failed > progress.errors.size()).errors(progress.errors).build();
+    }
+
+    private void importChunk(List<CarImportRow> rows, Progress progress) {
+        resolveNames(rows, progress);
+
+        Map<CarImportRow, Car> cars = new LinkedHashMap<>();
+        for (CarImportRow row : rows) {
+            toCar(row, progress).ifPresent(car -> cars.put(row, car));
+        }
+        if (cars.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                carRepository.saveAll(cars.values());
+                carBitmapIndex.ifPresent(index -> cars.values().forEach(index::put));
+                carSuggestionIndex.ifPresent(index -> index.putAll(cars.values()));
+            });
+            progress.imported += cars.size();
+        } catch (DataAccessException e) {
+            log.warn("Import chunk of {} cars failed", cars.size(), e);
+            rows.stream().filter(cars::containsKey).forEach(row -> progress.fail(row.getLine(),
+                    "Chunk can not be written: " + e.getMostSpecificCause().getMessage()));
+        }
+    }
+
+    private void resolveNames(List<CarImportRow> rows, Progress progress) {
+        Set<String> makeNames = rows.stream().map(CarImportRow::getMake)
+                .filter(name -> name != null && !progress.makes.containsKey(name)).collect(Collectors.toSet());
+        Set<String> categoryNames = rows.stream().flatMap(row -> row.getCategories().stream())
+                .filter(name -> !progress.categories.containsKey(name)).collect(Collectors.toSet());
+        try {
+            if (!makeNames.isEmpty()) {
+                makeNames.forEach(name -> progress.makes.put(name, null));
+                makeRepository.findAllByNameIn(makeNames).forEach(make -> progress.makes.put(make.getName(), make));
+            }
+            if (!categoryNames.isEmpty()) {
+                categoryNames.forEach(name -> progress.categories.put(name, null));
+                categoryRepository.findAllByNameIn(categoryNames)
+                        .forEach(category -> progress.categories.put(category.getName(), category));
+            }
+        } catch (DataAccessException e) {
+            throw new ServiceException("DAO operation failed", e);
+        }
+    }
+
+    private Optional<Car> toCar(CarImportRow row, Progress progress) {
+        if (row.getYear() == null) {
+            // the entity allows it, but the column does not and the whole chunk would fail on it
+            progress.fail(row.getLine(), "year: Car year must not be null");
+            return Optional.empty();
+        }
+        Make make = row.getMake() == null ? null : progress.makes.get(row.getMake());
+        if (row.getMake() != null && make == null) {
+            progress.fail(row.getLine(), "There is no Make with name = " + row.getMake());
+            return Optional.empty();
+        }
+        Set<Category> categories = new LinkedHashSet<>();
+        for (String name : row.getCategories()) {
+            Category category = progress.categories.get(name);
+            if (category == null) {
+                progress.fail(row.getLine(), "There is no Category with name = " + name);
+                return Optional.empty();
+            }
+            categories.add(category);
+        }
+
+        Car car = Car.builder().make(make).year(row.getYear()).model(row.getModel()).categories(categories).build();
+        try {
+            carEntityValidator.validate(car);
+        } catch (ValidationException e) {
+            progress.fail(row.getLine(), e.getViolations().stream()
+                    .map(violation -> violation.getField() + ": " + violation.getMessage())
+                    .collect(Collectors.joining("; ")));
+            return Optional.empty();
+        }
+        return Optional.of(car);
+    }
+
+    private class Progress {
+
+        private final List<DTOImportReport.RowError> errors = new ArrayList<>();
+
+        /**
+         * Null for the names that do not exist.
+         */
+        private final Map<String, Make> makes = new HashMap<>();
+
+        private final Map<String, Category> categories = new HashMap<>();
+
+        private long received, imported, failed;
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new DTOImportReport.RowError(line, message));
+            }
+        }
+    }
+}
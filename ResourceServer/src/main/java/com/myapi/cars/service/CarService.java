@@ -1,23 +1,54 @@
 package com.myapi.cars.service;
 
+import com.myapi.cars.cache.CacheInvalidator;
+import com.myapi.cars.config.CarReadModelProperties;
+import com.myapi.cars.config.CarReadModelProperties.ReadModel;
 import com.myapi.cars.converter.CarFromCarDTOUpdater;
 import com.myapi.cars.dto.CarDTO;
+import com.myapi.cars.dto.CategoryDTO;
+import com.myapi.cars.dto.DTOBatchResponse;
+import com.myapi.cars.dto.DTOFacetCount;
 import com.myapi.cars.dto.DTOSearchResponse;
-import com.myapi.cars.exception.EntityAlreadyExistsException;
+import com.myapi.cars.dto.MakeDTO;
 import com.myapi.cars.exception.EntityNotFoundException;
+import com.myapi.cars.exception.EntityVersionConflictException;
+import com.myapi.cars.exception.PreconditionFailedException;
 import com.myapi.cars.exception.ServiceException;
+import com.myapi.cars.index.CarBitmapIndex;
+import com.myapi.cars.index.CarIdMatch;
+import com.myapi.cars.index.CarSuggestionIndex;
 import com.myapi.cars.model.Car;
+import com.myapi.cars.pageable.CarFacet;
+import com.myapi.cars.pageable.CarFilter;
+import com.myapi.cars.pageable.KeysetCursor;
+import com.myapi.cars.pageable.TotalMode;
 import com.myapi.cars.repository.CarRepository;
+import com.myapi.cars.utility.ConstraintViolationUtils;
+import com.myapi.cars.utility.ETagUtils;
 import com.myapi.cars.validation.CarEntityValidator;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional(readOnly = true)
@@ -25,39 +56,65 @@ import java.util.List;
 @Slf4j
 public class CarService {
 
+    public static final int MAX_BATCH_SIZE = 100;
+
+    public static final int MAX_FACET_LIMIT = 100;
+
     private final CarRepository carRepository;
 
+    private final CategoryService categoryService;
+
+    private final MakeService makeService;
+
+    private final Optional<CarBitmapIndex> carBitmapIndex;
+
     private final CarEntityValidator carEntityValidator;
 
     private final ConverterService converterService;
 
     private final CarFromCarDTOUpdater carFromCarDTOUpdater;
 
+    private final CacheInvalidator cacheInvalidator;
+
+    private final CarReadModelProperties readModelProperties;
+
+    private final Optional<CarSuggestionIndex> carSuggestionIndex;
+
+    /**
+     * The foreign keys reject a missing make or category, nothing is checked first.
+     */
     @Transactional
     public Long create(@NonNull CarDTO carDTO) {
         Car car = convertToEntity(carDTO);
-        execute(() -> {
+        Car created = execute(() -> {
             carEntityValidator.validate(car);
-            if (car.getId() != null && carRepository.existsById(car.getId())) {
-                throw new EntityAlreadyExistsException("Car with id = " + car.getId() + " already exists");
-            }
-            carRepository.save(car);
+            car.setId(null);
+            return saveAndFlush(car);
         });
-        log.info("saved {}", car);
-        return car.getId();
+        carBitmapIndex.ifPresent(index -> index.put(created));
+        carSuggestionIndex.ifPresent(index -> index.put(created));
+        log.info("saved {}", created);
+        return created.getId();
     }
 
     @Transactional
-    public CarDTO update(@NonNull CarDTO carDTO, @NonNull Long id) {
+    public CarDTO update(@NonNull CarDTO carDTO, @NonNull Long id, String ifMatch) {
         Car carToUpdate = execute(() -> {
             Car car = carRepository.findById(id)
                     .orElseThrow(() -> new EntityNotFoundException("There is no Car to update with id = " + id));
+            if (ifMatch != null && !ETagUtils.matches(ifMatch, ETagUtils.of(convertToDTO(car)))) {
+                throw new PreconditionFailedException("Car with id = " + id + " does not match " + ifMatch);
+            }
 
             carFromCarDTOUpdater.update(carDTO, car);
             carEntityValidator.validate(car);
 
-            return carRepository.save(car);
+            Car saved = saveAndFlush(car);
+            cacheInvalidator.invalidateCar(id);
+            return saved;
         });
+        carBitmapIndex.ifPresent(index -> index.put(carToUpdate));
+        carSuggestionIndex.ifPresent(index -> index.put(carToUpdate));
         log.info("updated {}", carToUpdate);
         return convertToDTO(carToUpdate);
     }
@@ -65,30 +122,266 @@ public class CarService {
     @Transactional
     public void deleteById(@NonNull Long id) {
         execute(() -> {
-            if (!carRepository.existsById(id)) {
+            if (carRepository.deleteByIdReturningCount(id) == 0) {
                 throw new EntityNotFoundException("There is no Car to delete with id = " + id);
             }
-            carRepository.deleteById(id);
+            cacheInvalidator.invalidateCar(id);
         });
+        carBitmapIndex.ifPresent(index -> index.remove(id));
+        carSuggestionIndex.ifPresent(index -> index.remove(id));
         log.info("Deleted id = {}", id);
     }
 
-    public DTOSearchResponse findAll(String makeName, Integer year, String model,
-                                     @NonNull List<String> carNameList, @NonNull Pageable pageable) {
-        List<CarDTO> carDTOList =
-                execute(() -> carRepository.findAll(makeName, year, model, carNameList, carNameList.size(),
-                        pageable)).stream().map(this::convertToDTO).toList();
+    public DTOSearchResponse findAll(@NonNull CarFilter carFilter, @NonNull List<String> carNameList,
+                                     @NonNull Pageable pageable, @NonNull TotalMode totalMode) {
+        CarFilter filter = resolve(carFilter, carNameList);
+        if (filter.matchesNothing()) {
+            return DTOSearchResponse.builder().offset(pageable.getOffset()).limit(pageable.getPageSize())
+                    .total(totalMode == TotalMode.NONE ? null : 0).hasNext(false).sort(pageable.getSort().toString())
+                    .data(List.of()).build();
+        }
+        Optional<CarIdMatch> match = searchIndex(filter, pageable.getSort());
+        if (match.isPresent()) {
+            List<Long> ids = match.get().getPage(getIdDirection(pageable.getSort()), null, pageable.getOffset(),
+                    pageable.getPageSize() + 1);
+            boolean hasNext = ids.size() > pageable.getPageSize();
+            List<CarDTO> carDTOList = findAllByIds(hasNext ? ids.subList(0, pageable.getPageSize()) : ids,
+                    readModelProperties.search());
+            log.debug("Retrieved All {} Cars from the bitmap index", carDTOList.size());
+            return DTOSearchResponse.builder().offset(pageable.getOffset()).limit(pageable.getPageSize())
+                    .total(count(match.get(), totalMode)).hasNext(hasNext).sort(pageable.getSort().toString())
+                    .nextCursor(getNextCursor(carDTOList, hasNext, pageable.getSort())).data(carDTOList).build();
+        }
+        List<CarDTO> carDTOList;
+        boolean hasNext;
+        String nextCursor;
+        if (readModelProperties.search() == ReadModel.PROJECTION) {
+            List<CarDTO> rows = execute(() -> carRepository.findAllProjected(filter, null, pageable.getSort(),
+                    pageable.getOffset(), pageable.getPageSize() + 1));
+            hasNext = rows.size() > pageable.getPageSize();
+            carDTOList = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+            nextCursor = getNextCursor(carDTOList, hasNext, pageable.getSort());
+        } else {
+            List<Car> rows = execute(() -> carRepository.findAllAfter(filter, null, pageable.getSort(),
+                    pageable.getOffset(), pageable.getPageSize() + 1));
+            hasNext = rows.size() > pageable.getPageSize();
+            List<Car> cars = fetchCategories(hasNext ? rows.subList(0, pageable.getPageSize()) : rows);
+            carDTOList = cars.stream().map(this::convertToDTO).toList();
+            nextCursor = getNextCursor(cars, hasNext, pageable.getSort());
+        }
         log.debug("Retrieved All {} Cars", carDTOList.size());
         return DTOSearchResponse.builder().offset(pageable.getOffset()).limit(pageable.getPageSize())
-                .total(carDTOList.size()).sort(pageable.getSort().toString()).data(carDTOList).build();
+                .total(count(filter, totalMode)).hasNext(hasNext)
+                .sort(pageable.getSort().toString()).nextCursor(nextCursor).data(carDTOList).build();
+    }
+
+    public DTOSearchResponse findAll(@NonNull CarFilter carFilter, @NonNull List<String> carNameList,
+                                     @NonNull String cursor, int limit, @NonNull Sort sort,
+                                     @NonNull TotalMode totalMode) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must not be less than one!");
+        }
+        KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
+        keysetCursor.getOrdersFor(sort);
+        CarFilter filter = resolve(carFilter, carNameList);
+        if (filter.matchesNothing()) {
+            return DTOSearchResponse.builder().limit(limit).total(totalMode == TotalMode.NONE ? null : 0)
+                    .hasNext(false).sort(sort.toString()).data(List.of()).build();
+        }
+        Optional<CarIdMatch> match = searchIndex(filter, sort);
+        if (match.isPresent()) {
+            List<Long> ids = match.get().getPage(getIdDirection(sort), getAfterId(keysetCursor), 0, limit + 1);
+            boolean hasNext = ids.size() > limit;
+            List<CarDTO> carDTOList = findAllByIds(hasNext ? ids.subList(0, limit) : ids, readModelProperties.search());
+            log.debug("Retrieved {} Cars after cursor from the bitmap index", carDTOList.size());
+            return DTOSearchResponse.builder().limit(limit).total(count(match.get(), totalMode)).hasNext(hasNext)
+                    .sort(sort.toString()).nextCursor(getNextCursor(carDTOList, hasNext, sort)).data(carDTOList)
+                    .build();
+        }
+        List<CarDTO> carDTOList;
+        boolean hasNext;
+        String nextCursor;
+        if (readModelProperties.search() == ReadModel.PROJECTION) {
+            List<CarDTO> rows = execute(() -> carRepository.findAllProjected(filter, keysetCursor, sort, 0,
+                    limit + 1));
+            hasNext = rows.size() > limit;
+            carDTOList = hasNext ? rows.subList(0, limit) : rows;
+            nextCursor = getNextCursor(carDTOList, hasNext, sort);
+        } else {
+            List<Car> rows = execute(() -> carRepository.findAllAfter(filter, keysetCursor, sort, 0, limit + 1));
+            hasNext = rows.size() > limit;
+            List<Car> cars = fetchCategories(hasNext ? rows.subList(0, limit) : rows);
+            carDTOList = cars.stream().map(this::convertToDTO).toList();
+            nextCursor = getNextCursor(cars, hasNext, sort);
+        }
+        log.debug("Retrieved {} Cars after cursor", carDTOList.size());
+        return DTOSearchResponse.builder().limit(limit).total(count(filter, totalMode))
+                .hasNext(hasNext).sort(sort.toString()).nextCursor(nextCursor).data(carDTOList).build();
+    }
 
+    public Map<String, List<DTOFacetCount>> countFacets(@NonNull CarFilter carFilter,
+                                                        @NonNull List<String> carNameList,
+                                                        @NonNull Set<CarFacet> facets, int limit) {
+        if (limit < 1 || limit > MAX_FACET_LIMIT) {
+            throw new IllegalArgumentException("Facet limit must be between 1 and " + MAX_FACET_LIMIT + ".");
+        }
+        Map<CarFacet, List<DTOFacetCount>> countsByFacet = new EnumMap<>(CarFacet.class);
+        CarFilter filter = resolve(carFilter, carNameList);
+        if (filter.matchesNothing()) {
+            facets.forEach(facet -> countsByFacet.put(facet, List.of()));
+        } else {
+            Optional<CarIdMatch> match = searchIndex(filter, Sort.by(KeysetCursor.TIE_BREAKER));
+            for (CarFacet facet : facets) {
+                match.flatMap(ids -> carBitmapIndex.get().count(ids, facet))
+                        .ifPresent(counts -> countsByFacet.put(facet, getTopCounts(facet, counts, limit)));
+            }
+            Set<CarFacet> uncounted = facets.stream().filter(facet -> !countsByFacet.containsKey(facet))
+                    .collect(Collectors.toSet());
+            if (!uncounted.isEmpty()) {
+                countsByFacet.putAll(execute(() -> carRepository.countFacets(filter, uncounted, limit)));
+            }
+        }
+        Map<String, List<DTOFacetCount>> facetCounts = new LinkedHashMap<>();
+        countsByFacet.forEach((facet, counts) -> facetCounts.put(facet.getName(), counts));
+        log.debug("Counted Cars per {}", facetCounts.keySet());
+        return facetCounts;
+    }
+
+    public void exportAll(@NonNull CarFilter carFilter, @NonNull List<String> carNameList,
+                          @NonNull Consumer<CarDTO> consumer) {
+        CarFilter filter = resolve(carFilter, carNameList);
+        if (filter.matchesNothing()) {
+            return;
+        }
+        execute(() -> carRepository.streamAll(filter, car -> consumer.accept(convertToDTO(car))));
+        log.debug("Exported Cars");
     }
 
     public CarDTO findById(@NonNull Long id) {
-        Car car = execute(() -> carRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("There is no Car with id = " + id)));
+        Optional<CarDTO> carDTO = readModelProperties.byId() == ReadModel.PROJECTION ?
+                execute(() -> carRepository.findAllProjectedByIdIn(List.of(id)).stream().findFirst()) :
+                execute(() -> carRepository.findById(id)).map(this::convertToDTO);
         log.debug("Retrieved Car by id = {}", id);
-        return convertToDTO(car);
+        return carDTO.orElseThrow(() -> new EntityNotFoundException("There is no Car with id = " + id));
+    }
+
+    public DTOBatchResponse findAllById(@NonNull List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_BATCH_SIZE + " ids must be requested.");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Ids must not be null.");
+        }
+        List<Long> distinctIds = List.copyOf(new LinkedHashSet<>(ids));
+        List<CarDTO> carDTOList = findAllByIds(distinctIds, readModelProperties.byId());
+        Set<Long> foundIds = carDTOList.stream().map(CarDTO::getId).collect(Collectors.toSet());
+        List<Long> missingIds = distinctIds.stream().filter(id -> !foundIds.contains(id)).toList();
+        log.debug("Retrieved {} of {} Cars by id", carDTOList.size(), distinctIds.size());
+        return DTOBatchResponse.builder().data(carDTOList).missingIds(missingIds).build();
+    }
+
+    public String findETagById(@NonNull Long id) {
+        CarRepository.CarVersions versions = execute(() -> carRepository.findVersionsById(id)
+                .orElseThrow(() -> new EntityNotFoundException("There is no Car with id = " + id)));
+        return ETagUtils.of(versions.getVersion(), versions.getMakeVersion(), versions.getCategoryVersionSum());
+    }
+
+    private CarFilter resolve(CarFilter filter, List<String> categoryNameList) {
+        return filter.withCategoryNames(categoryNameList,
+                name -> categoryService.findByName(name).map(CategoryDTO::getId));
+    }
+
+    /**
+     * The bitmap index covers the searches without a model whose page is ordered by id alone.
+     */
+    private Optional<CarIdMatch> searchIndex(CarFilter filter, Sort sort) {
+        if (carBitmapIndex.isEmpty() || !filter.getModels().isEmpty() || !sort.stream()
+                .allMatch(order -> order.getProperty().equals(KeysetCursor.TIE_BREAKER))) {
+            return Optional.empty();
+        }
+        List<Long> makeIdList = null;
+        if (!filter.getMakeNames().isEmpty()) {
+            makeIdList = filter.getMakeNames().stream().map(makeService::findByName).flatMap(Optional::stream)
+                    .map(MakeDTO::getId).toList();
+            if (makeIdList.isEmpty()) {
+                return Optional.of(CarIdMatch.empty());
+            }
+        }
+        return carBitmapIndex.get().search(makeIdList, filter.getYearFrom(), filter.getYearTo(),
+                filter.getCategoryIds(), filter.getCategoryMatch());
+    }
+
+    private Sort.Direction getIdDirection(Sort sort) {
+        Sort.Order order = sort.getOrderFor(KeysetCursor.TIE_BREAKER);
+        return order == null ? Sort.Direction.ASC : order.getDirection();
+    }
+
+    private Long getAfterId(KeysetCursor cursor) {
+        long id = ((Number) cursor.getValues().get(0)).longValue();
+        if (id < 1 || id > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Cursor is malformed");
+        }
+        return id;
+    }
+
+    private List<CarDTO> findAllByIds(List<Long> ids, ReadModel readModel) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        if (readModel == ReadModel.PROJECTION) {
+            Map<Long, CarDTO> carDTOsById = execute(() -> carRepository.findAllProjectedByIdIn(ids)).stream()
+                    .collect(Collectors.toMap(CarDTO::getId, Function.identity()));
+            return ids.stream().map(carDTOsById::get).filter(Objects::nonNull).toList();
+        }
+        Map<Long, Car> carsById = execute(() -> carRepository.findAllByIdIn(ids)).stream()
+                .collect(Collectors.toMap(Car::getId, Function.identity()));
+        return ids.stream().map(carsById::get).filter(Objects::nonNull).map(this::convertToDTO).toList();
+    }
+
+    private List<DTOFacetCount> getTopCounts(CarFacet facet, Map<Long, Long> countsByKey, int limit) {
+        return countsByKey.entrySet().stream().map(entry -> new DTOFacetCount(switch (facet) {
+                    case MAKE -> makeService.findById(entry.getKey()).getName();
+                    case YEAR -> String.valueOf(entry.getKey());
+                    case CATEGORY -> categoryService.findById(entry.getKey()).getName();
+                }, entry.getValue()))
+                .sorted(Comparator.comparing(DTOFacetCount::getCount).reversed()
+                        .thenComparing(DTOFacetCount::getValue))
+                .limit(limit).toList();
+    }
+
+    private List<Car> fetchCategories(List<Car> cars) {
+        if (!cars.isEmpty()) {
+            execute(() -> carRepository.findAllByIdIn(cars.stream().map(Car::getId).toList()));
+        }
+        return cars;
+    }
+
+    private Integer count(CarFilter filter, TotalMode totalMode) {
+        Long total = switch (totalMode) {
+            case EXACT -> execute(() -> carRepository.countAll(filter));
+            case ESTIMATED -> execute(() -> carRepository.estimateCount(filter));
+            case NONE -> null;
+        };
+        return total == null ? null : Math.toIntExact(total);
+    }
+
+    private Integer count(CarIdMatch match, TotalMode totalMode) {
+        return totalMode == TotalMode.NONE ? null : Math.toIntExact(match.size());
+    }
+
+    private String getNextCursor(List<?> rows, boolean hasNext, Sort sort) {
+        if (!hasNext || rows.isEmpty()) {
+            return null;
+        }
+        return KeysetCursor.of(sort, rows.get(rows.size() - 1)).map(KeysetCursor::encode).orElse(null);
+    }
+
+    private Car saveAndFlush(Car car) {
+        try {
+            return carRepository.saveAndFlush(car);
+        } catch (DataIntegrityViolationException e) {
+            throw ConstraintViolationUtils.translate("Car", e);
+        }
     }
 
     private CarDTO convertToDTO(Car car) {
@@ -102,6 +395,8 @@ public class CarService {
     private <T> T execute(DaoSupplier<T> supplier) {
         try {
             return supplier.get();
+        } catch (OptimisticLockingFailureException e) {
+            throw new EntityVersionConflictException("Entity was changed concurrently", e);
         } catch (DataAccessException e) {
             throw new ServiceException("DAO operation failed", e);
         }
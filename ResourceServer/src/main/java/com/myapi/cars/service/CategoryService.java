@@ -1,23 +1,34 @@
 package com.myapi.cars.service;
 
+import com.myapi.cars.cache.CacheNames;
+import com.myapi.cars.cache.ReferenceData;
+import com.myapi.cars.cache.ReferenceDataCache;
+import com.myapi.cars.cache.CacheInvalidator;
 import com.myapi.cars.converter.CategoryFromCategoryDTOUpdater;
 import com.myapi.cars.dto.CategoryDTO;
 import com.myapi.cars.dto.DTOSearchResponse;
-import com.myapi.cars.exception.EntityAlreadyExistsException;
 import com.myapi.cars.exception.EntityNotFoundException;
+import com.myapi.cars.exception.EntityVersionConflictException;
+import com.myapi.cars.exception.PreconditionFailedException;
 import com.myapi.cars.exception.ServiceException;
+import com.myapi.cars.index.CarSuggestionIndex;
 import com.myapi.cars.model.Category;
 import com.myapi.cars.repository.CategoryRepository;
+import com.myapi.cars.utility.ConstraintViolationUtils;
+import com.myapi.cars.utility.ETagUtils;
 import com.myapi.cars.validation.CategoryEntityValidator;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @Transactional(readOnly = true)
@@ -33,30 +44,46 @@ public class CategoryService {
 
     private final CategoryFromCategoryDTOUpdater categoryFromCategoryDTOUpdater;
 
+    private final CacheInvalidator cacheInvalidator;
+
+    private final ReferenceDataCache referenceDataCache;
+
+    private final Optional<CarSuggestionIndex> carSuggestionIndex;
+
+    /**
+     * The unique constraint rejects a taken name, nothing is checked first.
+     */
     @Transactional
     public Long create(@NonNull CategoryDTO categoryDTO) {
         Category category = convertToEntity(categoryDTO);
-        execute(() -> {
+        Category created = execute(() -> {
             categoryEntityValidator.validate(category);
-            if (category.getId() != null && categoryRepository.existsById(category.getId())) {
-                throw new EntityAlreadyExistsException("Category with id = " + category.getId() + " already exists");
-            }
-            categoryRepository.save(category);
+            category.setId(null);
+            Category saved = saveAndFlush(category);
+            cacheInvalidator.invalidate(ReferenceData.CATEGORY);
+            carSuggestionIndex.ifPresent(index -> index.putCategory(saved.getId(), saved.getName()));
+            return saved;
         });
-        log.info("saved {}", category);
-        return category.getId();
+        log.info("saved {}", created);
+        return created.getId();
     }
 
     @Transactional
-    public CategoryDTO update(@NonNull CategoryDTO categoryDTO, @NonNull Long id) {
+    public CategoryDTO update(@NonNull CategoryDTO categoryDTO, @NonNull Long id, String ifMatch) {
         Category categoryToUpdate = execute(() -> {
             Category category = categoryRepository.findById(id)
                     .orElseThrow(() -> new EntityNotFoundException("There is no Category to update with id = " + id));
+            if (ifMatch != null && !ETagUtils.matches(ifMatch, ETagUtils.of(category.getVersion()))) {
+                throw new PreconditionFailedException("Category with id = " + id + " does not match " + ifMatch);
+            }
 
             categoryFromCategoryDTOUpdater.update(categoryDTO, category);
             categoryEntityValidator.validate(category);
 
-            return categoryRepository.save(category);
+            Category saved = saveAndFlush(category);
+            cacheInvalidator.invalidate(ReferenceData.CATEGORY);
+            carSuggestionIndex.ifPresent(index -> index.putCategory(saved.getId(), saved.getName()));
+            return saved;
         });
         log.info("updated {}", categoryToUpdate);
         return convertToDTO(categoryToUpdate);
@@ -65,10 +92,11 @@ public class CategoryService {
     @Transactional
     public void deleteById(@NonNull Long id) {
         execute(() -> {
-            if (!categoryRepository.existsById(id)) {
+            if (categoryRepository.deleteByIdReturningCount(id) == 0) {
                 throw new EntityNotFoundException("There is no Category to delete with id = " + id);
             }
-            categoryRepository.deleteById(id);
+            cacheInvalidator.invalidate(ReferenceData.CATEGORY);
+            carSuggestionIndex.ifPresent(index -> index.removeCategory(id));
         });
         log.info("Deleted id = {}", id);
     }
@@ -82,10 +110,28 @@ public class CategoryService {
     }
 
     public CategoryDTO findById(@NonNull Long id) {
-        Category category = execute(() -> categoryRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("There is no Category with id = " + id)));
-        log.debug("Retrieved Category by id = {}", id);
-        return convertToDTO(category);
+        return referenceDataCache.get(ReferenceData.CATEGORY, CacheNames.CATEGORIES, id, () -> {
+            Category category = execute(() -> categoryRepository.findById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("There is no Category with id = " + id)));
+            log.debug("Retrieved Category by id = {}", id);
+            return convertToDTO(category);
+        });
+    }
+
+    public Optional<CategoryDTO> findByName(@NonNull String name) {
+        return referenceDataCache.get(ReferenceData.CATEGORY, CacheNames.CATEGORIES_BY_NAME, name, () -> {
+            Optional<Category> category = execute(() -> categoryRepository.findByName(name));
+            log.debug("Retrieved Category by name = {}", name);
+            return category.map(this::convertToDTO);
+        });
+    }
+
+    private Category saveAndFlush(Category category) {
+        try {
+            return categoryRepository.saveAndFlush(category);
+        } catch (DataIntegrityViolationException e) {
+            throw ConstraintViolationUtils.translate("Category", e);
+        }
     }
 
     private CategoryDTO convertToDTO(Category category) {
@@ -99,6 +145,8 @@ public class CategoryService {
     private <T> T execute(DaoSupplier<T> supplier) {
         try {
             return supplier.get();
+        } catch (OptimisticLockingFailureException e) {
+            throw new EntityVersionConflictException("Entity was changed concurrently", e);
         } catch (DataAccessException e) {
             throw new ServiceException("DAO operation failed", e);
         }
@@ -1,23 +1,34 @@
 package com.myapi.cars.service;
 
+import com.myapi.cars.cache.CacheNames;
+import com.myapi.cars.cache.ReferenceData;
+import com.myapi.cars.cache.ReferenceDataCache;
+import com.myapi.cars.cache.CacheInvalidator;
 import com.myapi.cars.converter.MakeFromMakeDTOUpdater;
 import com.myapi.cars.dto.DTOSearchResponse;
 import com.myapi.cars.dto.MakeDTO;
-import com.myapi.cars.exception.EntityAlreadyExistsException;
 import com.myapi.cars.exception.EntityNotFoundException;
+import com.myapi.cars.exception.EntityVersionConflictException;
+import com.myapi.cars.exception.PreconditionFailedException;
 import com.myapi.cars.exception.ServiceException;
+import com.myapi.cars.index.CarSuggestionIndex;
 import com.myapi.cars.model.Make;
 import com.myapi.cars.repository.MakeRepository;
+import com.myapi.cars.utility.ConstraintViolationUtils;
+import com.myapi.cars.utility.ETagUtils;
 import com.myapi.cars.validation.MakeEntityValidator;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @Transactional(readOnly = true)
@@ -33,30 +44,46 @@ public class MakeService {
 
     private final MakeFromMakeDTOUpdater makeFromMakeDTOUpdater;
 
+    private final CacheInvalidator cacheInvalidator;
+
+    private final ReferenceDataCache referenceDataCache;
+
+    private final Optional<CarSuggestionIndex> carSuggestionIndex;
+
+    /**
+     * The unique constraint rejects a taken name, nothing is checked first.
+     */
     @Transactional
     public Long create(@NonNull MakeDTO makeDTO) {
         Make make = convertToEntity(makeDTO);
-        execute(() -> {
+        Make created = execute(() -> {
             makeEntityValidator.validate(make);
-            if (make.getId() != null && makeRepository.existsById(make.getId())) {
-                throw new EntityAlreadyExistsException("Make with id = " + make.getId() + " already exists");
-            }
-            makeRepository.save(make);
+            make.setId(null);
+            Make saved = saveAndFlush(make);
+            cacheInvalidator.invalidate(ReferenceData.MAKE);
+            carSuggestionIndex.ifPresent(index -> index.putMake(saved.getId(), saved.getName()));
+            return saved;
         });
-        log.info("saved {}", make);
-        return make.getId();
+        log.info("saved {}", created);
+        return created.getId();
     }
 
     @Transactional
-    public MakeDTO update(@NonNull MakeDTO makeDTO, @NonNull Long id) {
+    public MakeDTO update(@NonNull MakeDTO makeDTO, @NonNull Long id, String ifMatch) {
         Make makeToUpdate = execute(() -> {
             Make make = makeRepository.findById(id)
                     .orElseThrow(() -> new EntityNotFoundException("There is no Make to update with id = " + id));
+            if (ifMatch != null && !ETagUtils.matches(ifMatch, ETagUtils.of(make.getVersion()))) {
+                throw new PreconditionFailedException("Make with id = " + id + " does not match " + ifMatch);
+            }
 
             makeFromMakeDTOUpdater.update(makeDTO, make);
             makeEntityValidator.validate(make);
 
-            return makeRepository.save(make);
+            Make saved = saveAndFlush(make);
+            cacheInvalidator.invalidate(ReferenceData.MAKE);
+            carSuggestionIndex.ifPresent(index -> index.putMake(saved.getId(), saved.getName()));
+            return saved;
         });
         log.info("updated {}", makeToUpdate);
         return convertToDTO(makeToUpdate);
@@ -65,10 +92,11 @@ public class MakeService {
     @Transactional
     public void deleteById(@NonNull Long id) {
         execute(() -> {
-            if (!makeRepository.existsById(id)) {
+            if (makeRepository.deleteByIdReturningCount(id) == 0) {
                 throw new EntityNotFoundException("There is no Make to delete with id = " + id);
             }
-            makeRepository.deleteById(id);
+            cacheInvalidator.invalidate(ReferenceData.MAKE);
+            carSuggestionIndex.ifPresent(index -> index.removeMake(id));
         });
         log.info("Deleted id = {}", id);
     }
@@ -82,10 +110,28 @@ public class MakeService {
     }
 
     public MakeDTO findById(@NonNull Long id) {
-        Make make = execute(() -> makeRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("There is no Make with id = " + id)));
-        log.debug("Retrieved Make by id = {}", id);
-        return convertToDTO(make);
+        return referenceDataCache.get(ReferenceData.MAKE, CacheNames.MAKES, id, () -> {
+            Make make = execute(() -> makeRepository.findById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("There is no Make with id = " + id)));
+            log.debug("Retrieved Make by id = {}", id);
+            return convertToDTO(make);
+        });
+    }
+
+    public Optional<MakeDTO> findByName(@NonNull String name) {
+        return referenceDataCache.get(ReferenceData.MAKE, CacheNames.MAKES_BY_NAME, name, () -> {
+            Optional<Make> make = execute(() -> makeRepository.findByName(name));
+            log.debug("Retrieved Make by name = {}", name);
+            return make.map(this::convertToDTO);
+        });
+    }
+
+    private Make saveAndFlush(Make make) {
+        try {
+            return makeRepository.saveAndFlush(make);
+        } catch (DataIntegrityViolationException e) {
+            throw ConstraintViolationUtils.translate("Make", e);
+        }
     }
 
     private MakeDTO convertToDTO(Make make) {
@@ -99,6 +145,8 @@ public class MakeService {
     private <T> T execute(DaoSupplier<T> supplier) {
         try {
             return supplier.get();
+        } catch (OptimisticLockingFailureException e) {
+            throw new EntityVersionConflictException("Entity was changed concurrently", e);
         } catch (DataAccessException e) {
             throw new ServiceException("DAO operation failed", e);
         }
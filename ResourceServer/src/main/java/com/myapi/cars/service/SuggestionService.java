@@ -0,0 +1,59 @@
+package com.myapi.cars.service;
+
+import com.myapi.cars.dto.DTOSuggestion;
+import com.myapi.cars.exception.ServiceException;
+import com.myapi.cars.index.CarSuggestionIndex;
+import com.myapi.cars.index.SuggestionType;
+import com.myapi.cars.repository.CarRepository;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SuggestionService {
+
+    public static final int MAX_LIMIT = 50;
+
+    /**
+     * Number of names of each type, the first in alphabetical order from the prefix, that suggestions are ranked among.
+     */
+    public static final int CANDIDATES = 200;
+
+    private final CarRepository carRepository;
+
+    private final Optional<CarSuggestionIndex> carSuggestionIndex;
+
+    public List<DTOSuggestion> suggest(@NonNull String prefix, @NonNull Set<SuggestionType> types, int limit) {
+        if (prefix.isBlank()) {
+            throw new IllegalArgumentException("Prefix must not be blank.");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT + ".");
+        }
+        Set<SuggestionType> suggestedTypes = types.isEmpty() ? EnumSet.allOf(SuggestionType.class) : types;
+        String strippedPrefix = prefix.stripLeading();
+        List<DTOSuggestion> suggestions = carSuggestionIndex
+                .flatMap(index -> index.suggest(strippedPrefix, suggestedTypes, CANDIDATES, limit))
+                .orElseGet(() -> execute(() -> carRepository.suggest(strippedPrefix, suggestedTypes, CANDIDATES,
+                        limit)));
+        log.debug("Suggested {} names for prefix = {}", suggestions.size(), prefix);
+        return suggestions;
+    }
+
+    private <T> T execute(CarService.DaoSupplier<T> supplier) {
+        try {
+            return supplier.get();
+        } catch (DataAccessException e) {
+            throw new ServiceException("DAO operation failed", e);
+        }
+    }
+}
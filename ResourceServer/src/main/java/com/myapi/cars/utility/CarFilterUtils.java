@@ -0,0 +1,19 @@
+package com.myapi.cars.utility;
+
+import com.myapi.cars.pageable.CarFilter;
+import com.myapi.cars.pageable.CategoryMatch;
+
+import java.util.List;
+
+public class CarFilterUtils {
+
+    public static CarFilter getFilter(List<String> makeNames, List<String> models, Integer year, Integer yearFrom,
+                                      Integer yearTo, String categoryMatch) {
+        if (year != null && (yearFrom != null || yearTo != null)) {
+            throw new IllegalArgumentException("Year must not be combined with yearFrom or yearTo.");
+        }
+        return CarFilter.builder().makeNames(makeNames).models(models)
+                .yearFrom(year == null ? yearFrom : year).yearTo(year == null ? yearTo : year)
+                .categoryMatch(categoryMatch == null ? CategoryMatch.ALL : CategoryMatch.of(categoryMatch)).build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.myapi.cars.utility;
+
+import com.myapi.cars.pageable.CarSortKey;
+import com.myapi.cars.pageable.OffsetBasedPageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public class CarSortUtils {
+
+    // the key sequences an index of the car table returns in order, before the id tie-breaker
+    private static final Set<List<CarSortKey>> INDEXED_SORTS = Set.of(List.of(), List.of(CarSortKey.YEAR),
+            List.of(CarSortKey.MODEL), List.of(CarSortKey.MAKE, CarSortKey.YEAR),
+            List.of(CarSortKey.MAKE, CarSortKey.MODEL));
+
+    public static Pageable getPageable(int limit, int offset, String[] sort) {
+        return OffsetBasedPageRequest.of(limit, offset, getSort(sort));
+    }
+
+    /**
+     * Only the orderings an index serves are accepted, all in one direction.
+     */
+    public static Sort getSort(String[] sort) {
+        if (sort == null || sort.length == 0) {
+            throw new IllegalArgumentException("Sort key and direction must be provided.");
+        }
+
+        // repeated sort parameters arrive unsplit
+        List<String> tokens = new ArrayList<>();
+        for (String value : sort) {
+            if (value == null) {
+                throw new IllegalArgumentException("Sort key and direction must be provided.");
+            }
+            tokens.addAll(Arrays.asList(value.split(",")));
+        }
+
+        List<CarSortKey> keys = new ArrayList<>();
+        Sort.Direction direction = null;
+        int keysWithoutDirection = 0;
+        for (String token : tokens) {
+            Optional<Sort.Direction> tokenDirection = getDirection(token.trim());
+            if (tokenDirection.isEmpty()) {
+                keys.add(CarSortKey.of(token));
+                keysWithoutDirection++;
+            } else if (keysWithoutDirection == 0) {
+                throw new IllegalArgumentException("Sort direction must follow a sort key.");
+            } else if (direction != null && direction != tokenDirection.get()) {
+                throw new IllegalArgumentException("Sort keys must all be in the same direction.");
+            } else {
+                direction = tokenDirection.get();
+                keysWithoutDirection = 0;
+            }
+        }
+        if (keys.isEmpty() || keysWithoutDirection > 0) {
+            throw new IllegalArgumentException("Sort key and direction must be provided.");
+        }
+
+        if (keys.get(keys.size() - 1) == CarSortKey.ID) {
+            keys.remove(keys.size() - 1);
+        }
+        if (!INDEXED_SORTS.contains(keys)) {
+            throw new IllegalArgumentException("Sort must be by id, year, model, make and year or make and model.");
+        }
+        keys.add(CarSortKey.ID);
+
+        Sort.Direction sortDirection = direction;
+        return Sort.by(keys.stream().map(key -> new Sort.Order(sortDirection, key.getProperty())).toList());
+    }
+
+    /**
+     * Sort.Direction.fromOptionalString throws and catches two exceptions for every sort key.
+     */
+    private static Optional<Sort.Direction> getDirection(String token) {
+        for (Sort.Direction direction : Sort.Direction.values()) {
+            if (direction.name().equalsIgnoreCase(token)) {
+                return Optional.of(direction);
+            }
+        }
+        return Optional.empty();
+    }
+}
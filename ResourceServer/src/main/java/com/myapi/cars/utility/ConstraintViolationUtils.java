@@ -0,0 +1,46 @@
+package com.myapi.cars.utility;
+
+import com.myapi.cars.exception.EntityAlreadyExistsException;
+import com.myapi.cars.exception.EntityNotFoundException;
+import com.myapi.cars.exception.ServiceException;
+import org.postgresql.util.PSQLException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+
+public class ConstraintViolationUtils {
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private static final String FOREIGN_KEY_VIOLATION = "23503";
+
+    public static ServiceException translate(String entityName, DataIntegrityViolationException e) {
+        SQLException sqlException = getSQLException(e);
+        String sqlState = sqlException == null ? null : sqlException.getSQLState();
+        if (UNIQUE_VIOLATION.equals(sqlState)) {
+            return new EntityAlreadyExistsException(getMessage(entityName + " already exists", sqlException), e);
+        }
+        if (FOREIGN_KEY_VIOLATION.equals(sqlState)) {
+            return new EntityNotFoundException(
+                    getMessage(entityName + " refers to an entity that does not exist", sqlException), e);
+        }
+        return new ServiceException("DAO operation failed", e);
+    }
+
+    private static SQLException getSQLException(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException) {
+                return sqlException;
+            }
+        }
+        return null;
+    }
+
+    private static String getMessage(String message, SQLException e) {
+        if (e instanceof PSQLException psqlException && psqlException.getServerErrorMessage() != null &&
+                psqlException.getServerErrorMessage().getDetail() != null) {
+            return message + ": " + psqlException.getServerErrorMessage().getDetail();
+        }
+        return message;
+    }
+}
@@ -0,0 +1,66 @@
+package com.myapi.cars.utility;
+
+import com.myapi.cars.dto.CarDTO;
+import com.myapi.cars.dto.CategoryDTO;
+import com.myapi.cars.dto.MakeDTO;
+
+public class ETagUtils {
+
+    public static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    public static String of(MakeDTO makeDTO) {
+        return of(getVersion(makeDTO.getVersion()));
+    }
+
+    public static String of(CategoryDTO categoryDTO) {
+        return of(getVersion(categoryDTO.getVersion()));
+    }
+
+    /**
+     * Changing the make or categories of a car increments its version, and the other two only grow, so no two
+     * representations of a car share a tag.
+     */
+    public static String of(long carVersion, long makeVersion, long categoryVersionSum) {
+        return "\"" + carVersion + "." + makeVersion + "." + categoryVersionSum + "\"";
+    }
+
+    public static String of(CarDTO carDTO) {
+        long categoryVersionSum = carDTO.getCategories() == null ? 0 :
+                carDTO.getCategories().stream().mapToLong(category -> getVersion(category.getVersion())).sum();
+        return of(getVersion(carDTO.getVersion()),
+                carDTO.getMake() == null ? 0 : getVersion(carDTO.getMake().getVersion()), categoryVersionSum);
+    }
+
+    public static boolean matches(String ifMatch, String eTag) {
+        return anyMatches(ifMatch, eTag, false);
+    }
+
+    public static boolean isNotModified(String ifNoneMatch, String eTag) {
+        return anyMatches(ifNoneMatch, eTag, true);
+    }
+
+    private static long getVersion(Long version) {
+        return version == null ? 0 : version;
+    }
+
+    private static boolean anyMatches(String header, String eTag, boolean weak) {
+        for (String tag : header.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                if (!weak) {
+                    continue;
+                }
+                tag = tag.substring(2);
+            }
+            if (tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,16 @@
+-- Indexes backing the filters and sort orders of the car search.
+
+-- make filter (and FK lookups on make delete), make + year filter, make filter sorted by year
+CREATE INDEX IF NOT EXISTS idx_car_make_id_year ON car (make_id, year, car_id);
+
+-- make filter sorted by model, make + model filter
+CREATE INDEX IF NOT EXISTS idx_car_make_id_model ON car (make_id, model, car_id);
+
+-- year filter sorted by id, sort (and keyset seek) by year
+CREATE INDEX IF NOT EXISTS idx_car_year ON car (year, car_id);
+
+-- model filter sorted by id, sort (and keyset seek) by model
+CREATE INDEX IF NOT EXISTS idx_car_model ON car (model, car_id);
+
+-- category postings (cars of a category) and FK lookups on category delete; the primary key only serves car_id first
+CREATE INDEX IF NOT EXISTS idx_cars_categories_category_id ON cars_categories (category_id, car_id);
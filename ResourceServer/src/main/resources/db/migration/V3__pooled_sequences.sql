@@ -0,0 +1,7 @@
+-- Hibernate reserves 50 ids per nextval (pooled-lo optimizer), matching allocationSize of the entity generators.
+-- The next value jumps past every id handed out so far, so existing rows are never collided with.
+ALTER SEQUENCE car_seq INCREMENT BY 50;
+
+ALTER SEQUENCE category_seq INCREMENT BY 50;
+
+ALTER SEQUENCE make_seq INCREMENT BY 50;
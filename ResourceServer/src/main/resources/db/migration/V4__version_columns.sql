@@ -0,0 +1,7 @@
+-- Optimistic locking: Hibernate increments the version on every update of a row and fails the update when the row
+-- was changed since it was read. Existing rows start at version 0.
+ALTER TABLE car ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE category ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE make ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,3 @@
+-- Index backing the model suggestions when the suggestion index is disabled: the models starting with a prefix,
+-- ignoring case, are one range of it, in the order suggestions are listed.
+CREATE INDEX IF NOT EXISTS idx_car_model_lower ON car ((lower(model) COLLATE "C"), (model COLLATE "C"));
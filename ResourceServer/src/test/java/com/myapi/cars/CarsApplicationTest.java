@@ -2,13 +2,23 @@ package com.myapi.cars;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
 import org.testcontainers.containers.PostgreSQLContainer;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
 @SpringBootTest
+@AutoConfigureMockMvc
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 public class CarsApplicationTest {
 
@@ -33,9 +43,30 @@ public class CarsApplicationTest {
         registry.add("spring.datasource.password", postgres::getPassword);
     }
 
+    @Autowired
+    MockMvc mockMvc;
+
     @Test
     void contextLoads() {
     }
 
+    @Test
+    void actuator_whenAnonymous_onlyHealthIsReadable() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/metrics/cache.gets"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void getAll_whenCursorValueDoesNotFitSortKey_statusIsBadRequest() throws Exception {
+        String cursor = Base64.getUrlEncoder().encodeToString(
+                "{\"sort\":\"year: DESC,id: DESC\",\"values\":[\"abc\",7]}".getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(get("/api/v1/car").param("cursor", cursor).param("sort", "year,desc"))
+                .andExpect(status().isBadRequest());
+    }
 
 }
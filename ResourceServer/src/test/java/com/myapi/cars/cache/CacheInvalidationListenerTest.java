@@ -0,0 +1,164 @@
+package com.myapi.cars.cache;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CacheInvalidator.class, CacheInvalidationListener.class, ReferenceDataCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CacheInvalidationListenerTest {
+
+    private static final String DATABASE_NAME = "databaseName";
+    private static final String DATABASE_USERNAME = "databaseName";
+    private static final String DATABASE_USER_PASSWORD = "databaseName";
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    public static PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:latest").withDatabaseName(DATABASE_NAME).withUsername(DATABASE_USERNAME)
+                    .withPassword(DATABASE_USER_PASSWORD).withReuse(true);
+
+    @MockBean
+    CacheManager cacheManager;
+
+    @MockBean
+    CarResponseCache carResponseCache;
+
+    @Autowired
+    CacheInvalidator cacheInvalidator;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private final Cache makes = mock(Cache.class);
+
+    private final Cache categories = mock(Cache.class);
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        // Postgresql
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+
+        // Listener
+        registry.add("cars.cache.invalidation.reconnect-interval", () -> "PT0.1S");
+    }
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        when(cacheManager.getCache(CacheNames.MAKES)).thenReturn(makes);
+        when(cacheManager.getCache(CacheNames.MAKES_BY_NAME)).thenReturn(mock(Cache.class));
+        when(cacheManager.getCache(CacheNames.CATEGORIES)).thenReturn(categories);
+        when(cacheManager.getCache(CacheNames.CATEGORIES_BY_NAME)).thenReturn(mock(Cache.class));
+
+        // once the listener listens, a notification is received after the eviction it does on connecting
+        for (int attempt = 0; !isListening(); attempt++) {
+            assertTrue(attempt < TIMEOUT_MILLIS / 50, "Listener does not listen");
+            Thread.sleep(50);
+        }
+        sendNotification(ReferenceData.CATEGORY.name());
+        verify(categories, timeout(TIMEOUT_MILLIS)).clear();
+        clearInvocations(makes, categories, carResponseCache);
+    }
+
+    @Test
+    public void notificationFromAnotherNode_evictNamedCaches() {
+        sendNotification(ReferenceData.CATEGORY.name());
+
+        verify(categories, timeout(TIMEOUT_MILLIS)).clear();
+        verify(carResponseCache, timeout(TIMEOUT_MILLIS)).evictAll();
+        verify(makes, never()).clear();
+    }
+
+    @Test
+    public void carNotificationFromAnotherNode_evictCar() {
+        sendNotification("CAR:5");
+
+        verify(carResponseCache, timeout(TIMEOUT_MILLIS)).evict(5L);
+        verify(makes, never()).clear();
+        verify(categories, never()).clear();
+    }
+
+    @Test
+    public void invalidate_whenTransactionCommits_evictCaches() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> cacheInvalidator.invalidate(ReferenceData.MAKE));
+
+        // once by the writing node itself and once by its listener
+        verify(makes, timeout(TIMEOUT_MILLIS).times(2)).clear();
+        verify(categories, never()).clear();
+    }
+
+    @Test
+    public void invalidateCar_whenTransactionCommits_evictCar() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> cacheInvalidator.invalidateCar(7L));
+
+        verify(carResponseCache, timeout(TIMEOUT_MILLIS).times(2)).evict(7L);
+        verify(carResponseCache, never()).evictAll();
+    }
+
+    @Test
+    public void invalidateCars_whenTransactionCommits_evictEveryCar() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> cacheInvalidator.invalidateCars(List.of(7L, 8L)));
+
+        verify(carResponseCache, timeout(TIMEOUT_MILLIS).times(2)).evict(7L);
+        verify(carResponseCache, timeout(TIMEOUT_MILLIS).times(2)).evict(8L);
+        verify(carResponseCache, never()).evictAll();
+    }
+
+    @Test
+    public void invalidate_whenTransactionRollsBack_evictNothing() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            cacheInvalidator.invalidate(ReferenceData.MAKE);
+            status.setRollbackOnly();
+        });
+        // a notification sent after the rolled back one is received after it would have been
+        sendNotification(ReferenceData.CATEGORY.name());
+
+        verify(categories, timeout(TIMEOUT_MILLIS)).clear();
+        verify(makes, never()).clear();
+    }
+
+    private boolean isListening() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM pg_stat_activity WHERE state = 'idle' AND query = ?",
+                Long.class, "LISTEN " + CacheInvalidator.CHANNEL) > 0;
+    }
+
+    private void sendNotification(String notification) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> {
+        }, CacheInvalidator.CHANNEL, notification);
+    }
+}
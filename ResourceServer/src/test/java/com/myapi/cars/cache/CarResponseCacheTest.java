@@ -0,0 +1,134 @@
+package com.myapi.cars.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myapi.cars.dto.CarDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CarResponseCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CarResponseCache carResponseCache;
+
+    private AtomicInteger loads;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        carResponseCache = new CarResponseCache(new ObjectMapper(), meterRegistry, 100, Duration.ofMinutes(1));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    public void get_whenCached_loadOnce() {
+        CarResponseCache.CachedCar car = carResponseCache.get(1L, this::load);
+        assertEquals("{\"id\":1,\"make\":null,\"year\":null,\"model\":\"model 1\",\"categories\":null," +
+                "\"version\":1}", new String(car.json(), StandardCharsets.UTF_8));
+        assertEquals("\"1.0.0\"", car.eTag());
+        carResponseCache.get(1L, this::load);
+
+        assertEquals(1, loads.get());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", CarResponseCache.NAME).tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", CarResponseCache.NAME).tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    public void getETag_whenCached_returnTagWithoutCountingLookup() {
+        assertEquals(Optional.empty(), carResponseCache.getETag(1L));
+        carResponseCache.get(1L, this::load);
+
+        assertEquals(Optional.of("\"1.0.0\""), carResponseCache.getETag(1L));
+        assertEquals(1, loads.get());
+        assertEquals(0, meterRegistry.get("cache.gets").tag("cache", CarResponseCache.NAME).tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", CarResponseCache.NAME).tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    public void getETag_whenEvicted_returnEmpty() {
+        carResponseCache.get(1L, this::load);
+        carResponseCache.get(2L, this::load);
+
+        carResponseCache.evict(1L);
+        assertEquals(Optional.empty(), carResponseCache.getETag(1L));
+        carResponseCache.evictAll();
+        assertEquals(Optional.empty(), carResponseCache.getETag(2L));
+    }
+
+    @Test
+    public void evict_loadAgain() {
+        carResponseCache.get(1L, this::load);
+        carResponseCache.get(2L, this::load);
+
+        carResponseCache.evict(1L);
+
+        assertTrue(json(1L).contains("model 3"));
+        assertTrue(json(2L).contains("model 2"));
+        assertEquals(1, meterRegistry.get("cache.invalidations").counter().count());
+    }
+
+    @Test
+    public void evictAll_loadEveryCarAgain() {
+        carResponseCache.get(1L, this::load);
+        carResponseCache.get(2L, this::load);
+
+        carResponseCache.evictAll();
+
+        assertTrue(json(1L).contains("model 3"));
+        assertTrue(json(2L).contains("model 4"));
+    }
+
+    @Test
+    public void evictAll_whileLoading_discardLoadedCar() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+        CompletableFuture<CarResponseCache.CachedCar> car =
+                CompletableFuture.supplyAsync(() -> carResponseCache.get(1L, id -> {
+                    CarDTO carDTO = load(id);
+                    if (carDTO.getModel().equals("model 1")) {
+                        loading.countDown();
+                        await(evicted);
+                    }
+                    return carDTO;
+                }));
+        await(loading);
+
+        carResponseCache.evictAll();
+        evicted.countDown();
+
+        assertTrue(new String(car.get(5, TimeUnit.SECONDS).json(), StandardCharsets.UTF_8).contains("model 2"));
+        assertTrue(json(1L).contains("model 2"));
+        assertEquals(2, loads.get());
+    }
+
+    private String json(long id) {
+        return new String(carResponseCache.get(id, this::load).json(), StandardCharsets.UTF_8);
+    }
+
+    private CarDTO load(long id) {
+        return CarDTO.builder().id(id).model("model " + loads.incrementAndGet()).version(1L).build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.myapi.cars.cache;
+
+import com.myapi.cars.exception.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReferenceDataCacheTest {
+
+    private final ReferenceDataCache referenceDataCache = new ReferenceDataCache(new ConcurrentMapCacheManager(
+            CacheNames.MAKES, CacheNames.MAKES_BY_NAME, CacheNames.CATEGORIES, CacheNames.CATEGORIES_BY_NAME));
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    public void get_whenCached_loadOnce() {
+        assertEquals(Optional.empty(), getCategory("Sedan", Optional::empty));
+        assertEquals(Optional.empty(), getCategory("Sedan", () -> Optional.of("Sedan")));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void evict_loadAgainOnlyForEvictedReferenceData() {
+        getCategory("Sedan", Optional::empty);
+        referenceDataCache.get(ReferenceData.MAKE, CacheNames.MAKES_BY_NAME, "Toyota", () -> Optional.of("Toyota"));
+
+        referenceDataCache.evict(ReferenceData.CATEGORY);
+
+        assertEquals(Optional.of("Sedan"), getCategory("Sedan", () -> Optional.of("Sedan")));
+        assertEquals(Optional.of("Toyota"), referenceDataCache.get(ReferenceData.MAKE, CacheNames.MAKES_BY_NAME,
+                "Toyota", Optional::empty));
+    }
+
+    @Test
+    public void evict_whileLoading_discardLoadedValue() {
+        // the lookup reads the database before the write commits and caches after its eviction
+        assertEquals(Optional.empty(), getCategory("Sedan", () -> {
+            referenceDataCache.evict(ReferenceData.CATEGORY);
+            return Optional.empty();
+        }));
+
+        assertEquals(Optional.of("Sedan"), getCategory("Sedan", () -> Optional.of("Sedan")));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void get_whenLoaderThrows_throwAndCacheNothing() {
+        assertThrows(EntityNotFoundException.class, () -> referenceDataCache.get(ReferenceData.MAKE,
+                CacheNames.MAKES, 1L, () -> {
+                    throw new EntityNotFoundException("There is no Make with id = 1");
+                }));
+
+        assertEquals("Toyota", referenceDataCache.get(ReferenceData.MAKE, CacheNames.MAKES, 1L, () -> "Toyota"));
+    }
+
+    private Optional<String> getCategory(String name, Supplier<Optional<String>> loader) {
+        return referenceDataCache.get(ReferenceData.CATEGORY, CacheNames.CATEGORIES_BY_NAME, name, () -> {
+            loads.incrementAndGet();
+            return loader.get();
+        });
+    }
+}
@@ -0,0 +1,105 @@
+package com.myapi.cars.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myapi.cars.config.WebTestConfig;
+import com.myapi.cars.dto.CarDTO;
+import com.myapi.cars.dto.DTOBulkReport;
+import com.myapi.cars.pageable.CarFilter;
+import com.myapi.cars.pageable.CategoryMatch;
+import com.myapi.cars.service.CarBulkService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest({CarBulkController.class})
+@WithMockUser
+@Import(WebTestConfig.class)
+@ActiveProfiles(value = "test")
+public class CarBulkControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CarBulkService carBulkService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void update_whenIdsAreGiven_success() throws Exception {
+        CarDTO patch = CarDTO.builder().year(2020).build();
+        when(carBulkService.updateAllById(any(), any())).thenReturn(DTOBulkReport.builder().matched(2L)
+                .succeeded(1L).failed(0L).outcomes(List.of(new DTOBulkReport.Outcome(1L,
+                        DTOBulkReport.Status.UPDATED, null), new DTOBulkReport.Outcome(2L,
+                        DTOBulkReport.Status.NOT_FOUND, "There is no Car with id = 2"))).build());
+
+        mockMvc.perform(patch("/api/v1/car/bulk?ids=1,2").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(patch)))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.outcomes[1].status").value("NOT_FOUND"));
+
+        verify(carBulkService).updateAllById(List.of(1L, 2L), patch);
+        verifyNoMoreInteractions(carBulkService);
+    }
+
+    @Test
+    public void update_whenFiltersAreGiven_success() throws Exception {
+        CarDTO patch = CarDTO.builder().model("Camry").build();
+        when(carBulkService.updateAll(any(), any(), any())).thenReturn(new DTOBulkReport());
+
+        mockMvc.perform(patch("/api/v1/car/bulk?make=Toyota&year=2020&cars=Sedan")
+                        .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(patch)))
+                .andExpect(status().isOk());
+
+        verify(carBulkService).updateAll(CarFilter.builder().makeNames(List.of("Toyota")).yearFrom(2020).yearTo(2020)
+                .build(), List.of("Sedan"), patch);
+        verifyNoMoreInteractions(carBulkService);
+    }
+
+    @Test
+    public void update_whenIdsAreCombinedWithFilters_statusIsBadRequest() throws Exception {
+        mockMvc.perform(patch("/api/v1/car/bulk?ids=1&make=Toyota").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"year\":2020}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(carBulkService);
+    }
+
+    @Test
+    public void delete_whenIdsAreGiven_success() throws Exception {
+        when(carBulkService.deleteAllById(any())).thenReturn(new DTOBulkReport());
+
+        mockMvc.perform(delete("/api/v1/car/bulk?ids=1,2"))
+                .andExpect(status().isOk());
+
+        verify(carBulkService).deleteAllById(List.of(1L, 2L));
+        verifyNoMoreInteractions(carBulkService);
+    }
+
+    @Test
+    public void delete_whenFiltersAreGiven_success() throws Exception {
+        when(carBulkService.deleteAll(any(), any())).thenReturn(new DTOBulkReport());
+
+        mockMvc.perform(delete("/api/v1/car/bulk?model=Camry,Corolla&yearFrom=2020&cars=Sedan,Sport&categoryMatch=any"))
+                .andExpect(status().isOk());
+
+        verify(carBulkService).deleteAll(CarFilter.builder().models(List.of("Camry", "Corolla")).yearFrom(2020)
+                .categoryMatch(CategoryMatch.ANY).build(), List.of("Sedan", "Sport"));
+        verifyNoMoreInteractions(carBulkService);
+    }
+}
@@ -1,32 +1,54 @@
 package com.myapi.cars.controller;
 
+import com.myapi.cars.cache.CarResponseCache;
 import com.myapi.cars.config.WebTestConfig;
+import com.myapi.cars.dto.DTOBatchResponse;
+import com.myapi.cars.dto.DTOFacetCount;
 import com.myapi.cars.dto.DTOSearchResponse;
 import com.myapi.cars.dto.CarDTO;
+import com.myapi.cars.dto.MakeDTO;
+import com.myapi.cars.exception.PreconditionFailedException;
+import com.myapi.cars.pageable.CarFacet;
+import com.myapi.cars.pageable.CarFilter;
+import com.myapi.cars.pageable.CategoryMatch;
+import com.myapi.cars.pageable.TotalMode;
 import com.myapi.cars.service.CarService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest({CarController.class})
 @WithMockUser
-@Import(WebTestConfig.class)
+@Import({WebTestConfig.class, CarResponseCache.class, SimpleMeterRegistry.class})
 @ActiveProfiles(value = "test")
 public class CarControllerTest {
 
@@ -85,16 +107,43 @@ public class CarControllerTest {
         CarDTO carDTOToDisplay = CarDTO.builder().model("modelDisplay").build();
         CarDTO carDTO = CarDTO.builder().model("model").build();
 
-        when(carService.update(any(CarDTO.class), any(Long.class))).thenReturn(carDTOToDisplay);
+        when(carService.update(any(CarDTO.class), any(Long.class), any())).thenReturn(carDTOToDisplay);
 
         mockMvc.perform(patch("/api/v1/car/1").contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(carDTO)))
                 .andExpect(status().isOk()).andExpect(content().json(objectMapper.writeValueAsString(carDTOToDisplay)));
 
-        verify(carService).update(carDTO, 1L);
+        verify(carService).update(carDTO, 1L, null);
         verifyNoMoreInteractions(carService);
     }
 
+    @Test
+    public void update_whenIfMatchIsPresent_passItOnAndReturnNewETag() throws Exception {
+        CarDTO carDTO = CarDTO.builder().model("model").build();
+
+        when(carService.update(any(CarDTO.class), any(Long.class), any())).thenReturn(
+                CarDTO.builder().id(1L).model("model").version(4L).make(MakeDTO.builder().version(1L).build()).build());
+
+        mockMvc.perform(patch("/api/v1/car/1").contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", "\"3.1.0\"").content(objectMapper.writeValueAsString(carDTO)))
+                .andExpect(status().isOk()).andExpect(header().string("ETag", "\"4.1.0\""));
+
+        verify(carService).update(carDTO, 1L, "\"3.1.0\"");
+        verifyNoMoreInteractions(carService);
+    }
+
+    @Test
+    public void update_whenIfMatchIsNotCurrent_statusIsPreconditionFailed() throws Exception {
+        CarDTO carDTO = CarDTO.builder().model("model").build();
+
+        when(carService.update(any(CarDTO.class), any(Long.class), any())).thenThrow(
+                new PreconditionFailedException("Car with id = 1 does not match \"3.1.0\""));
+
+        mockMvc.perform(patch("/api/v1/car/1").contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", "\"3.1.0\"").content(objectMapper.writeValueAsString(carDTO)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     public void update_whenCarDTOIsNull_statusIsBadRequest() throws Exception {
         CarDTO carDTO = null;
@@ -130,6 +179,74 @@ public class CarControllerTest {
         verifyNoMoreInteractions(carService);
     }
 
+    @Test
+    public void getById_whenCached_serveWithoutService() throws Exception {
+        CarDTO carDTO = CarDTO.builder().id(2L).model("model").build();
+
+        when(carService.findById(2L)).thenReturn(carDTO);
+
+        mockMvc.perform(get("/api/v1/car/2")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/car/2"))
+                .andExpect(status().isOk()).andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().json(objectMapper.writeValueAsString(carDTO)));
+
+        verify(carService, times(1)).findById(2L);
+        verifyNoMoreInteractions(carService);
+    }
+
+    @Test
+    public void getById_whenIfNoneMatchIsCurrent_statusIsNotModifiedWithoutLoading() throws Exception {
+        when(carService.findETagById(3L)).thenReturn("\"2.1.0\"");
+
+        mockMvc.perform(get("/api/v1/car/3").header("If-None-Match", "W/\"2.1.0\""))
+                .andExpect(status().isNotModified()).andExpect(header().string("ETag", "\"2.1.0\""))
+                .andExpect(content().string(""));
+
+        verify(carService).findETagById(3L);
+        verifyNoMoreInteractions(carService);
+    }
+
+    @Test
+    public void getById_whenIfNoneMatchIsStale_success() throws Exception {
+        CarDTO carDTO = CarDTO.builder().id(4L).model("model").version(3L).build();
+
+        when(carService.findETagById(4L)).thenReturn("\"3.0.0\"");
+        when(carService.findById(4L)).thenReturn(carDTO);
+
+        mockMvc.perform(get("/api/v1/car/4").header("If-None-Match", "\"2.0.0\""))
+                .andExpect(status().isOk()).andExpect(header().string("ETag", "\"3.0.0\""))
+                .andExpect(content().json(objectMapper.writeValueAsString(carDTO)));
+    }
+
+    @Test
+    public void getById_whenCachedAndIfNoneMatchIsCurrent_statusIsNotModifiedWithoutQuery() throws Exception {
+        CarDTO carDTO = CarDTO.builder().id(5L).model("model").version(2L).build();
+
+        when(carService.findById(5L)).thenReturn(carDTO);
+
+        mockMvc.perform(get("/api/v1/car/5")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/car/5").header("If-None-Match", "\"2.0.0\""))
+                .andExpect(status().isNotModified()).andExpect(header().string("ETag", "\"2.0.0\""));
+
+        verify(carService).findById(5L);
+        verifyNoMoreInteractions(carService);
+    }
+
+    @Test
+    public void getById_whenCachedAndIfNoneMatchIsStale_serveCachedWithoutQuery() throws Exception {
+        CarDTO carDTO = CarDTO.builder().id(6L).model("model").version(3L).build();
+
+        when(carService.findById(6L)).thenReturn(carDTO);
+
+        mockMvc.perform(get("/api/v1/car/6")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/car/6").header("If-None-Match", "\"2.0.0\""))
+                .andExpect(status().isOk()).andExpect(header().string("ETag", "\"3.0.0\""))
+                .andExpect(content().json(objectMapper.writeValueAsString(carDTO)));
+
+        verify(carService).findById(6L);
+        verifyNoMoreInteractions(carService);
+    }
+
     @Test
     public void getById_whenCarIdIsInvalid_statusIsBadRequest() throws Exception {
         mockMvc.perform(get("/api/v1/car/invalid"))
@@ -138,18 +255,50 @@ public class CarControllerTest {
         verifyNoInteractions(carService);
     }
 
+    @Test
+    public void getAllByIds_success() throws Exception {
+        DTOBatchResponse dtoBatchResponse = DTOBatchResponse.builder()
+                .data(List.of(CarDTO.builder().id(3L).model("model").build())).missingIds(List.of(1L)).build();
+
+        when(carService.findAllById(any())).thenReturn(dtoBatchResponse);
+
+        mockMvc.perform(get("/api/v1/car/batch?ids=3,1"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(dtoBatchResponse)));
+
+        verify(carService).findAllById(List.of(3L, 1L));
+        verifyNoMoreInteractions(carService);
+    }
+
+    @Test
+    public void getAllByIds_whenIdsAreMissing_statusIsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/car/batch"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(carService);
+    }
+
+    @Test
+    public void getAllByIds_whenServiceRejectsIds_statusIsBadRequest() throws Exception {
+        when(carService.findAllById(any())).thenThrow(new IllegalArgumentException("Too many ids"));
+
+        mockMvc.perform(get("/api/v1/car/batch?ids=1"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void getAll_success() throws Exception {
         List<CarDTO> carDTOList = List.of(CarDTO.builder().model("model").build());
         DTOSearchResponse dtoSearchResponse = DTOSearchResponse.builder().data(carDTOList).build();
 
-        when(carService.findAll(any(), any(), any(), any(), any())).thenReturn(dtoSearchResponse);
+        when(carService.findAll(any(), any(), any(Pageable.class), any())).thenReturn(
+                dtoSearchResponse);
 
         mockMvc.perform(get("/api/v1/car"))
                 .andExpect(status().isOk())
                 .andExpect(content().json(objectMapper.writeValueAsString(dtoSearchResponse)));
 
-        verify(carService).findAll(any(), any(), any(), any(), any());
+        verify(carService).findAll(any(), any(), any(Pageable.class), eq(TotalMode.NONE));
         verifyNoMoreInteractions(carService);
     }
 
@@ -162,4 +311,155 @@ public class CarControllerTest {
         verifyNoInteractions(carService);
     }
 
+    @Test
+    public void getAll_whenCursorIsPresent_success() throws Exception {
+        DTOSearchResponse dtoSearchResponse = DTOSearchResponse.builder().nextCursor("next").data(List.of()).build();
+
+        when(carService.findAll(any(), any(), any(String.class), anyInt(), any(Sort.class), any())).thenReturn(
+                dtoSearchResponse);
+
+        mockMvc.perform(get("/api/v1/car?cursor=current&limit=10&sort=year,desc"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(dtoSearchResponse)));
+
+        verify(carService).findAll(CarFilter.all(), List.of(), "current", 10,
+                Sort.by(Sort.Direction.DESC, "year", "id"), TotalMode.NONE);
+        verifyNoMoreInteractions(carService);
+    }
+
+    @Test
+    public void getAll_whenTotalIsExact_success() throws Exception {
+        DTOSearchResponse dtoSearchResponse = DTOSearchResponse.builder().total(1).data(List.of()).build();
+
+        when(carService.findAll(any(), any(), any(Pageable.class), any())).thenReturn(
+                dtoSearchResponse);
+
+        mockMvc.perform(get("/api/v1/car?total=exact"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(dtoSearchResponse)));
+
+        verify(carService).findAll(any(), any(), any(Pageable.class), eq(TotalMode.EXACT));
+        verifyNoMoreInteractions(carService);
+    }
+
+    @Test
+    public void getAll_whenTotalIsInvalid_statusIsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/car?total=approximately"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(carService);
+    }
+
+    @Test
+    public void getAll_whenFacetsAreRequested_addFacetCounts() throws Exception {
+        when(carService.findAll(any(), any(), any(Pageable.class), any())).thenReturn(
+                DTOSearchResponse.builder().data(List.of()).build());
+        when(carService.countFacets(any(), any(), any(), anyInt())).thenReturn(
+                Map.of("make", List.of(new DTOFacetCount("Toyota", 3L))));
+
+        mockMvc.perform(get("/api/v1/car?year=2020&facets=make,Category&facetLimit=5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.facets.make[0].value").value("Toyota"))
+                .andExpect(jsonPath("$.facets.make[0].count").value(3));
+
+        verify(carService).findAll(any(), any(), any(Pageable.class), eq(TotalMode.NONE));
+        verify(carService).countFacets(CarFilter.builder().yearFrom(2020).yearTo(2020).build(), List.of(),
+                Set.of(CarFacet.MAKE, CarFacet.CATEGORY), 5);
+        verifyNoMoreInteractions(carService);
+    }
+
+    @Test
+    public void getAll_whenRangeAndMultiValueFiltersAreGiven_searchByFilter() throws Exception {
+        when(carService.findAll(any(), any(), any(Pageable.class), any())).thenReturn(
+                DTOSearchResponse.builder().data(List.of()).build());
+
+        mockMvc.perform(get("/api/v1/car?make=Toyota,Honda&model=Camry&model=Civic&yearFrom=2018&yearTo=2022" +
+                        "&cars=Sedan,Sport&categoryMatch=any"))
+                .andExpect(status().isOk());
+
+        verify(carService).findAll(eq(CarFilter.builder().makeNames(List.of("Toyota", "Honda"))
+                        .models(List.of("Camry", "Civic")).yearFrom(2018).yearTo(2022)
+                        .categoryMatch(CategoryMatch.ANY).build()), eq(List.of("Sedan", "Sport")),
+                any(Pageable.class), eq(TotalMode.NONE));
+        verifyNoMoreInteractions(carService);
+    }
+
+    @Test
+    public void getAll_whenYearFiltersAreInvalid_statusIsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/car?year=2020&yearFrom=2018"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/car?yearFrom=2022&yearTo=2018"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/car?categoryMatch=some"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(carService);
+    }
+
+    @Test
+    public void getAll_whenSortIsByMakeAndYear_searchByMakeIdYearAndId() throws Exception {
+        when(carService.findAll(any(), any(), any(Pageable.class), any())).thenReturn(
+                DTOSearchResponse.builder().data(List.of()).build());
+
+        mockMvc.perform(get("/api/v1/car?sort=make,year,desc"))
+                .andExpect(status().isOk());
+
+        verify(carService).findAll(eq(CarFilter.all()), eq(List.of()), argThat(pageable ->
+                pageable.getSort().equals(Sort.by(Sort.Direction.DESC, "make.id", "year", "id"))), eq(TotalMode.NONE));
+        verifyNoMoreInteractions(carService);
+    }
+
+    @Test
+    public void getAll_whenSortIsNotIndexed_statusIsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/car?sort=make.name,asc"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/car?sort=year,model,asc"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/car?sort=make,asc,year,desc"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(carService);
+    }
+
+    @Test
+    public void getAll_whenFacetIsInvalid_statusIsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/car?facets=model"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(carService);
+    }
+
+    @Test
+    public void getAll_whenCursorIsCombinedWithOffset_statusIsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/car?cursor=current&offset=10"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(carService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void export_streamsOneCarPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<CarDTO> consumer = invocation.getArgument(2);
+            consumer.accept(CarDTO.builder().id(1L).model("Camry").build());
+            consumer.accept(CarDTO.builder().id(2L).model("Civic").build());
+            return null;
+        }).when(carService).exportAll(eq(CarFilter.builder().makeNames(List.of("Toyota")).build()),
+                eq(List.of("Sedan")), any());
+
+        MvcResult result = mockMvc.perform(get("/api/v1/car/export?make=Toyota&cars=Sedan"))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("X-Content-Type-Options", "nosniff")).andReturn();
+        assertEquals(-1, result.getRequest().getAsyncContext().getTimeout());
+        result.getAsyncResult(5000);
+
+        String body = mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson")).andReturn().getResponse()
+                .getContentAsString();
+        List<String> lines = body.lines().toList();
+        assertEquals(2, lines.size());
+        assertEquals(1L, objectMapper.readValue(lines.get(0), CarDTO.class).getId());
+        assertEquals("Civic", objectMapper.readValue(lines.get(1), CarDTO.class).getModel());
+    }
 }
@@ -0,0 +1,74 @@
+package com.myapi.cars.controller;
+
+import com.myapi.cars.config.WebTestConfig;
+import com.myapi.cars.dto.DTOImportReport;
+import com.myapi.cars.importing.CarImportFormat;
+import com.myapi.cars.service.CarImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest({CarImportController.class})
+@WithMockUser
+@Import(WebTestConfig.class)
+@ActiveProfiles(value = "test")
+public class CarImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CarImportService carImportService;
+
+    @Test
+    public void importCars_whenCsv_success() throws Exception {
+        DTOImportReport report = DTOImportReport.builder().received(2L).imported(1L).failed(1L)
+                .errorsTruncated(false).errors(List.of(new DTOImportReport.RowError(3L, "There is no Make"))).build();
+        when(carImportService.importCars(any(), eq(CarImportFormat.CSV), eq(StandardCharsets.ISO_8859_1)))
+                .thenReturn(report);
+
+        mockMvc.perform(post("/api/v1/car/import").contentType("text/csv;charset=ISO-8859-1")
+                        .content("make,year,model,categories\n"))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3));
+
+        verify(carImportService).importCars(any(), eq(CarImportFormat.CSV), eq(StandardCharsets.ISO_8859_1));
+        verifyNoMoreInteractions(carImportService);
+    }
+
+    @Test
+    public void importCars_whenNdjson_success() throws Exception {
+        when(carImportService.importCars(any(), eq(CarImportFormat.NDJSON), eq(StandardCharsets.UTF_8)))
+                .thenReturn(DTOImportReport.builder().received(0L).imported(0L).failed(0L).build());
+
+        mockMvc.perform(post("/api/v1/car/import").contentType("application/x-ndjson").content(""))
+                .andExpect(status().isOk());
+
+        verify(carImportService).importCars(any(), eq(CarImportFormat.NDJSON), eq(StandardCharsets.UTF_8));
+        verifyNoMoreInteractions(carImportService);
+    }
+
+    @Test
+    public void importCars_whenContentTypeIsNotSupported_statusIsUnsupportedMediaType() throws Exception {
+        mockMvc.perform(post("/api/v1/car/import").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verifyNoInteractions(carImportService);
+    }
+}
@@ -22,6 +22,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest({CategoryController.class})
@@ -85,13 +86,28 @@ public class CategoryControllerTest {
         CategoryDTO categoryDTOToDisplay = CategoryDTO.builder().name("nameDisplay").build();
         CategoryDTO categoryDTO = CategoryDTO.builder().name("name").build();
 
-        when(categoryService.update(any(CategoryDTO.class), any(Long.class))).thenReturn(categoryDTOToDisplay);
+        when(categoryService.update(any(CategoryDTO.class), any(Long.class), any())).thenReturn(categoryDTOToDisplay);
 
         mockMvc.perform(patch("/api/v1/category/1").contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(categoryDTO)))
                 .andExpect(status().isOk()).andExpect(content().json(objectMapper.writeValueAsString(categoryDTOToDisplay)));
 
-        verify(categoryService).update(categoryDTO, 1L);
+        verify(categoryService).update(categoryDTO, 1L, null);
+        verifyNoMoreInteractions(categoryService);
+    }
+
+    @Test
+    public void update_whenIfMatchIsPresent_passItOnAndReturnNewETag() throws Exception {
+        CategoryDTO categoryDTO = CategoryDTO.builder().name("name").build();
+
+        when(categoryService.update(any(CategoryDTO.class), any(Long.class), any())).thenReturn(
+                CategoryDTO.builder().id(1L).name("name").version(4L).build());
+
+        mockMvc.perform(patch("/api/v1/category/1").contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", "\"3\"").content(objectMapper.writeValueAsString(categoryDTO)))
+                .andExpect(status().isOk()).andExpect(header().string("ETag", "\"4\""));
+
+        verify(categoryService).update(categoryDTO, 1L, "\"3\"");
         verifyNoMoreInteractions(categoryService);
     }
 
@@ -130,6 +146,15 @@ public class CategoryControllerTest {
         verifyNoMoreInteractions(categoryService);
     }
 
+    @Test
+    public void getById_whenIfNoneMatchIsCurrent_statusIsNotModified() throws Exception {
+        when(categoryService.findById(1L)).thenReturn(CategoryDTO.builder().id(1L).name("name").version(2L).build());
+
+        mockMvc.perform(get("/api/v1/category/1").header("If-None-Match", "\"2\""))
+                .andExpect(status().isNotModified()).andExpect(header().string("ETag", "\"2\""))
+                .andExpect(content().string(""));
+    }
+
     @Test
     public void getById_whenCategoryIdIsInvalid_statusIsBadRequest() throws Exception {
         mockMvc.perform(get("/api/v1/category/invalid"))
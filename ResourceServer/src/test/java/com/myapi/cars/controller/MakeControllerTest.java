@@ -22,6 +22,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest({MakeController.class})
@@ -85,13 +86,28 @@ public class MakeControllerTest {
         MakeDTO makeDTOToDisplay = MakeDTO.builder().name("nameDisplay").build();
         MakeDTO makeDTO = MakeDTO.builder().name("name").build();
 
-        when(makeService.update(any(MakeDTO.class), any(Long.class))).thenReturn(makeDTOToDisplay);
+        when(makeService.update(any(MakeDTO.class), any(Long.class), any())).thenReturn(makeDTOToDisplay);
 
         mockMvc.perform(patch("/api/v1/make/1").contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(makeDTO)))
                 .andExpect(status().isOk()).andExpect(content().json(objectMapper.writeValueAsString(makeDTOToDisplay)));
 
-        verify(makeService).update(makeDTO, 1L);
+        verify(makeService).update(makeDTO, 1L, null);
+        verifyNoMoreInteractions(makeService);
+    }
+
+    @Test
+    public void update_whenIfMatchIsPresent_passItOnAndReturnNewETag() throws Exception {
+        MakeDTO makeDTO = MakeDTO.builder().name("name").build();
+
+        when(makeService.update(any(MakeDTO.class), any(Long.class), any())).thenReturn(
+                MakeDTO.builder().id(1L).name("name").version(4L).build());
+
+        mockMvc.perform(patch("/api/v1/make/1").contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", "\"3\"").content(objectMapper.writeValueAsString(makeDTO)))
+                .andExpect(status().isOk()).andExpect(header().string("ETag", "\"4\""));
+
+        verify(makeService).update(makeDTO, 1L, "\"3\"");
         verifyNoMoreInteractions(makeService);
     }
 
@@ -130,6 +146,15 @@ public class MakeControllerTest {
         verifyNoMoreInteractions(makeService);
     }
 
+    @Test
+    public void getById_whenIfNoneMatchIsCurrent_statusIsNotModified() throws Exception {
+        when(makeService.findById(1L)).thenReturn(MakeDTO.builder().id(1L).name("name").version(2L).build());
+
+        mockMvc.perform(get("/api/v1/make/1").header("If-None-Match", "\"2\""))
+                .andExpect(status().isNotModified()).andExpect(header().string("ETag", "\"2\""))
+                .andExpect(content().string(""));
+    }
+
     @Test
     public void getById_whenMakeIdIsInvalid_statusIsBadRequest() throws Exception {
         mockMvc.perform(get("/api/v1/make/invalid"))
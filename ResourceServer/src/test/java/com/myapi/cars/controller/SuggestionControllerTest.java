@@ -0,0 +1,78 @@
+package com.myapi.cars.controller;
+
+import com.myapi.cars.config.WebTestConfig;
+import com.myapi.cars.dto.DTOSuggestion;
+import com.myapi.cars.index.SuggestionType;
+import com.myapi.cars.service.SuggestionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest({SuggestionController.class})
+@WithMockUser
+@Import(WebTestConfig.class)
+@ActiveProfiles(value = "test")
+public class SuggestionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SuggestionService suggestionService;
+
+    @Test
+    public void suggest_success() throws Exception {
+        when(suggestionService.suggest(any(), any(), anyInt())).thenReturn(
+                List.of(new DTOSuggestion("model", "Camry", 3L)));
+
+        mockMvc.perform(get("/api/v1/suggestion?prefix=ca&types=model,Make&limit=5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].type").value("model"))
+                .andExpect(jsonPath("$[0].value").value("Camry"))
+                .andExpect(jsonPath("$[0].count").value(3));
+
+        verify(suggestionService).suggest("ca", Set.of(SuggestionType.MODEL, SuggestionType.MAKE), 5);
+        verifyNoMoreInteractions(suggestionService);
+    }
+
+    @Test
+    public void suggest_whenNoTypeIsGiven_suggestEveryType() throws Exception {
+        when(suggestionService.suggest(any(), any(), anyInt())).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/v1/suggestion?prefix=ca"))
+                .andExpect(status().isOk());
+
+        verify(suggestionService).suggest("ca", Set.of(), 10);
+    }
+
+    @Test
+    public void suggest_whenTypeIsInvalid_statusIsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/suggestion?prefix=ca&types=year"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(suggestionService);
+    }
+
+    @Test
+    public void suggest_whenPrefixIsMissing_statusIsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/suggestion"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(suggestionService);
+    }
+}
@@ -1,6 +1,8 @@
 package com.myapi.cars.converter;
 
 import com.myapi.cars.dto.CarDTO;
+import com.myapi.cars.dto.CategoryDTO;
+import com.myapi.cars.dto.MakeDTO;
 import com.myapi.cars.model.Car;
 import com.myapi.cars.model.Category;
 import com.myapi.cars.model.Make;
@@ -10,6 +12,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullSource;
 
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -36,6 +39,25 @@ public class CarFromCarDTOUpdaterTest {
         assertEquals(carDTO.getModel(), car.getModel());
     }
 
+    @Test
+    public void update_whenMakeAndCategoriesAreGiven_replaceReferences() {
+        Make make = Make.builder().id(1L).name("name").build();
+        Category category = Category.builder().id(1L).name("name").build();
+        Car car = Car.builder().id(1L).year(2020).make(make).model("model").categories(Set.of(category)).build();
+
+        CarDTO carDTO = CarDTO.builder().make(MakeDTO.builder().id(2L).build())
+                .categories(Set.of(CategoryDTO.builder().id(2L).build(), CategoryDTO.builder().id(3L).build())).build();
+
+        carFromCarDTOUpdater.update(carDTO, car);
+
+        assertEquals(2L, car.getMake().getId());
+        assertEquals(1L, make.getId());
+        assertEquals(Set.of(2L, 3L), car.getCategories().stream().map(Category::getId).collect(Collectors.toSet()));
+        assertEquals(1L, car.getId());
+        assertEquals(2020, car.getYear());
+        assertEquals("model", car.getModel());
+    }
+
     @ParameterizedTest
     @NullSource
     public void update_whenCarDTOIsNull_throwIllegalArgumentException(CarDTO nullCarDTO) {
@@ -62,13 +62,14 @@ public class CarToCarDTOConverterTest {
 
     @Test
     public void convert_success() {
-        MakeDTO makeDTO = MakeDTO.builder().id(1L).name("name").build();
-        CategoryDTO categoryDTO = CategoryDTO.builder().id(1L).name("name").build();
-        CarDTO carDTO = CarDTO.builder().id(1L).year(2020).make(makeDTO).model("model").categories(Set.of(categoryDTO)).build();
+        MakeDTO makeDTO = MakeDTO.builder().id(1L).name("name").version(0L).build();
+        CategoryDTO categoryDTO = CategoryDTO.builder().id(1L).name("name").version(0L).build();
+        CarDTO carDTO = CarDTO.builder().id(1L).year(2020).make(makeDTO).model("model").categories(Set.of(categoryDTO)).version(3L).build();
 
         Make make = Make.builder().id(1L).name("name").build();
         Category category = Category.builder().id(1L).name("name").build();
-        Car car = Car.builder().id(1L).year(2020).make(make).model("model").categories(Set.of(category)).build();
+        Car car = Car.builder().id(1L).year(2020).make(make).model("model").categories(Set.of(category)).version(3L)
+                .build();
 
         CarDTO carConverted = carToCarDTOConverter.convert(car);
 
@@ -77,6 +78,7 @@ public class CarToCarDTOConverterTest {
         assertEquals(carDTO.getMake(), carConverted.getMake());
         assertEquals(carDTO.getModel(), carConverted.getModel());
         assertEquals(carDTO.getCategories(), carConverted.getCategories());
+        assertEquals(carDTO.getVersion(), carConverted.getVersion());
 
     }
 }
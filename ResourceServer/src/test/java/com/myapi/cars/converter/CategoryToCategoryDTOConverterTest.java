@@ -21,8 +21,8 @@ public class CategoryToCategoryDTOConverterTest {
 
     @Test
     public void convert_whenCategoryIsValid_success() {
-        CategoryDTO categoryDTO = CategoryDTO.builder().id(1L).name("name").build();
-        Category category = Category.builder().id(1L).name("name").build();
+        CategoryDTO categoryDTO = CategoryDTO.builder().id(1L).name("name").version(2L).build();
+        Category category = Category.builder().id(1L).name("name").version(2L).build();
         assertEquals(categoryDTO, categoryToCategoryDTOConverter.convert(category));
     }
 
@@ -21,8 +21,8 @@ public class MakeToMakeDTOConverterTest {
 
     @Test
     public void convert_whenMakeIsValid_success() {
-        MakeDTO makeDTO = MakeDTO.builder().id(1L).name("name").build();
-        Make make = Make.builder().id(1L).name("name").build();
+        MakeDTO makeDTO = MakeDTO.builder().id(1L).name("name").version(2L).build();
+        Make make = Make.builder().id(1L).name("name").version(2L).build();
         assertEquals(makeDTO, makeToMakeDTOConverter.convert(make));
     }
 
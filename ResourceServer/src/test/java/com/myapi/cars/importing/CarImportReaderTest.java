@@ -0,0 +1,117 @@
+package com.myapi.cars.importing;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CarImportReaderTest {
+
+    @Test
+    public void next_whenNdjson_success() throws IOException {
+        List<CarImportRow> rows = readAll(CarImportFormat.NDJSON, """
+                {"make":"Toyota","year":2020,"model":"Camry","categories":["Sedan","Hybrid"]}
+
+                {"make":"Honda","year":2021,"model":"Civic"}
+                """);
+
+        assertEquals(2, rows.size());
+        assertEquals(1, rows.get(0).getLine());
+        assertEquals("Toyota", rows.get(0).getMake());
+        assertEquals(2020, rows.get(0).getYear());
+        assertEquals("Camry", rows.get(0).getModel());
+        assertEquals(List.of("Sedan", "Hybrid"), rows.get(0).getCategories());
+        assertEquals(3, rows.get(1).getLine());
+        assertEquals(List.of(), rows.get(1).getCategories());
+        assertNull(rows.get(1).getError());
+    }
+
+    @Test
+    public void next_whenNdjsonLineIsNotAnObject_returnInvalidRowAndContinue() throws IOException {
+        List<CarImportRow> rows = readAll(CarImportFormat.NDJSON, """
+                null
+                [{"make":"Toyota"}]
+                "Toyota"
+                2021
+                {"make":"Honda","year":2021,"model":"Civic"}
+                """);
+
+        assertEquals(5, rows.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals("Line is not a JSON object", rows.get(i).getError());
+            assertEquals(i + 1, rows.get(i).getLine());
+        }
+        assertNull(rows.get(4).getError());
+    }
+
+    @Test
+    public void next_whenNdjsonLineIsMalformed_returnInvalidRowAndContinue() throws IOException {
+        List<CarImportRow> rows = readAll(CarImportFormat.NDJSON, """
+                {"make":"Toyota","year":"new"}
+                {"make":"Toyota","colour":"red"}
+                not json
+                {"make":"Honda","year":2021,"model":"Civic"}
+                """);
+
+        assertEquals(4, rows.size());
+        assertNotNull(rows.get(0).getError());
+        assertNotNull(rows.get(1).getError());
+        assertNotNull(rows.get(2).getError());
+        assertEquals(3, rows.get(2).getLine());
+        assertNull(rows.get(3).getError());
+    }
+
+    @Test
+    public void next_whenCsv_success() throws IOException {
+        List<CarImportRow> rows = readAll(CarImportFormat.CSV, """
+                make,year,model,categories
+                Toyota,2020,Camry,Sedan|Hybrid
+                "Land Rover",2019,"Range Rover ""Sport""\",
+                """);
+
+        assertEquals(2, rows.size());
+        assertEquals(2, rows.get(0).getLine());
+        assertEquals(List.of("Sedan", "Hybrid"), rows.get(0).getCategories());
+        assertEquals("Land Rover", rows.get(1).getMake());
+        assertEquals("Range Rover \"Sport\"", rows.get(1).getModel());
+        assertEquals(List.of(), rows.get(1).getCategories());
+    }
+
+    @Test
+    public void next_whenCsvLineIsMalformed_returnInvalidRowAndContinue() throws IOException {
+        List<CarImportRow> rows = readAll(CarImportFormat.CSV, """
+                make,year,model,categories
+                Toyota,new,Camry,
+                Toyota,2020
+                "Toyota,2020,Camry,
+                Honda,2021,Civic,
+                """);
+
+        assertEquals(4, rows.size());
+        assertEquals("Year is not a number: new", rows.get(0).getError());
+        assertEquals("Expected 4 fields, found 2", rows.get(1).getError());
+        assertEquals("Unterminated quoted field", rows.get(2).getError());
+        assertNull(rows.get(3).getError());
+    }
+
+    @Test
+    public void next_whenCsvHeaderIsWrong_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> readAll(CarImportFormat.CSV, "Toyota,2020,Camry,\n"));
+    }
+
+    private List<CarImportRow> readAll(CarImportFormat format, String body) throws IOException {
+        List<CarImportRow> rows = new ArrayList<>();
+        try (CarImportReader reader = CarImportReader.of(format,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8)) {
+            for (CarImportRow row = reader.next(); row != null; row = reader.next()) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
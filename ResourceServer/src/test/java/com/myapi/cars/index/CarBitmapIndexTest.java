@@ -0,0 +1,212 @@
+package com.myapi.cars.index;
+
+import com.myapi.cars.dto.DTOFacetCount;
+import com.myapi.cars.model.Car;
+import com.myapi.cars.model.Category;
+import com.myapi.cars.model.Make;
+import com.myapi.cars.pageable.CarFacet;
+import com.myapi.cars.pageable.CarFilter;
+import com.myapi.cars.pageable.CategoryMatch;
+import com.myapi.cars.repository.CarRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "cars.index.bitmap.enabled=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CarBitmapIndex.class)
+public class CarBitmapIndexTest {
+
+    private static final String DATABASE_NAME = "databaseName";
+    private static final String DATABASE_USERNAME = "databaseName";
+    private static final String DATABASE_USER_PASSWORD = "databaseName";
+
+    public static PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:latest").withDatabaseName(DATABASE_NAME).withUsername(DATABASE_USERNAME)
+                    .withPassword(DATABASE_USER_PASSWORD).withReuse(true);
+
+    @Autowired
+    CarBitmapIndex carBitmapIndex;
+
+    @Autowired
+    CarRepository carRepository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private List<Make> makes;
+
+    private List<Category> categories;
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        // Postgresql
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+
+        // Flyway
+        registry.add("spring.flyway.cleanDisabled", () -> false);
+    }
+
+    @BeforeEach
+    void setUp(@Autowired Flyway flyway) {
+        // rows are deleted rather than the schema cleaned, as restarting the sequences would hand out ids again that
+        // the generators still hold from the previous test
+        flyway.migrate();
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "cars_categories", "car", "category", "make");
+
+        makes = List.of(new Make("Toyota"), new Make("Honda"), new Make("Mazda"));
+        makes.forEach(entityManager::persist);
+        categories = List.of(new Category("Sedan"), new Category("Sport"), new Category("Coupe"));
+        categories.forEach(entityManager::persist);
+        for (int i = 0; i < 60; i++) {
+            Set<Category> carCategories = i % 4 == 0 ? Set.of(categories.get(0), categories.get(1)) :
+                    Set.of(categories.get(i % 3));
+            entityManager.persist(Car.builder().make(makes.get(i % 3)).categories(carCategories).year(2000 + i % 5)
+                    .model("Model " + i).build());
+        }
+        entityManager.flush();
+
+        carBitmapIndex.rebuild();
+    }
+
+    @Test
+    public void search_matchesSqlSearch() {
+        List<Long> anyCategory = null;
+        List<List<Long>> categoryIdLists = Arrays.asList(anyCategory, List.of(categories.get(0).getId()),
+                List.of(categories.get(0).getId(), categories.get(1).getId()), List.of(categories.get(2).getId()));
+        List<Integer[]> yearRanges = List.of(new Integer[]{null, null}, new Integer[]{2001, 2001},
+                new Integer[]{2004, 2004}, new Integer[]{1990, 1990}, new Integer[]{2001, 2003},
+                new Integer[]{null, 2001}, new Integer[]{2003, null});
+        List<Make> anyMake = null;
+        List<List<Make>> makeLists = Arrays.asList(anyMake, List.of(makes.get(0)), List.of(makes.get(0), makes.get(2)));
+
+        for (List<Make> makeList : makeLists) {
+            for (Integer[] years : yearRanges) {
+                for (List<Long> categoryIdList : categoryIdLists) {
+                    for (CategoryMatch categoryMatch : CategoryMatch.values()) {
+                        CarFilter filter = CarFilter.builder()
+                                .makeNames(makeList == null ? null : makeList.stream().map(Make::getName).toList())
+                                .yearFrom(years[0]).yearTo(years[1]).categoryIds(categoryIdList)
+                                .categoryMatch(categoryMatch).build();
+                        List<Long> expected = carRepository.findIdsAfter(filter, null, Integer.MAX_VALUE);
+
+                        List<Long> actual = carBitmapIndex.search(
+                                        makeList == null ? null : makeList.stream().map(Make::getId).toList(),
+                                        years[0], years[1], categoryIdList, categoryMatch).orElseThrow()
+                                .getPage(Sort.Direction.ASC, null, 0, Integer.MAX_VALUE);
+
+                        assertEquals(expected, actual, filter.toString());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void count_matchesSqlFacetCounts() {
+        List<Long> categoryIdList = List.of(categories.get(0).getId());
+        CarIdMatch match = carBitmapIndex.search(null, 2001, 2001, categoryIdList, CategoryMatch.ALL).orElseThrow();
+        Map<CarFacet, List<DTOFacetCount>> expected = carRepository.countFacets(CarFilter.builder().yearFrom(2001)
+                .yearTo(2001).categoryIds(categoryIdList).build(), EnumSet.allOf(CarFacet.class), 100);
+        Map<Long, String> makeNames = new HashMap<>();
+        makes.forEach(make -> makeNames.put(make.getId(), make.getName()));
+        Map<Long, String> categoryNames = new HashMap<>();
+        categories.forEach(category -> categoryNames.put(category.getId(), category.getName()));
+
+        for (CarFacet facet : CarFacet.values()) {
+            Map<String, Long> actual = new HashMap<>();
+            carBitmapIndex.count(match, facet).orElseThrow().forEach((key, count) -> actual.put(switch (facet) {
+                case MAKE -> makeNames.get(key);
+                case YEAR -> String.valueOf(key);
+                case CATEGORY -> categoryNames.get(key);
+            }, count));
+
+            assertEquals(expected.get(facet).stream()
+                    .collect(Collectors.toMap(DTOFacetCount::getValue, DTOFacetCount::getCount)), actual);
+        }
+    }
+
+    @Test
+    public void isConsistent_whenBuilt_returnTrue() {
+        assertTrue(carBitmapIndex.isConsistent());
+    }
+
+    @Test
+    public void check_whenDatabaseChangedBehindIndex_rebuild() {
+        jdbcTemplate.update("DELETE FROM cars_categories WHERE car_id = (SELECT min(car_id) FROM car)");
+        assertFalse(carBitmapIndex.isConsistent());
+
+        carBitmapIndex.check();
+
+        assertTrue(carBitmapIndex.isConsistent());
+    }
+
+    @Test
+    public void put_whenTransactionCommits_indexCar() {
+        Car car = Car.builder().make(makes.get(1)).categories(Set.of(categories.get(2))).year(1990).model("Civic")
+                .build();
+        entityManager.persist(car);
+        carBitmapIndex.put(car);
+
+        assertEquals(0, carBitmapIndex.search(null, 1990, 1990, null, CategoryMatch.ALL).orElseThrow().size());
+
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        assertEquals(List.of(car.getId()), carBitmapIndex.search(List.of(makes.get(1).getId()), 1990, 1990,
+                List.of(categories.get(2).getId()), CategoryMatch.ALL).orElseThrow()
+                .getPage(Sort.Direction.ASC, null, 0, 10));
+        assertTrue(carBitmapIndex.isConsistent());
+    }
+
+    @Test
+    public void remove_whenTransactionCommits_unindexCar() {
+        Car car = carRepository.findAll(Sort.by("id")).get(0);
+        carRepository.delete(car);
+        carBitmapIndex.remove(car.getId());
+
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        List<Long> ids = new ArrayList<>(
+                carBitmapIndex.search(null, null, null, null, CategoryMatch.ALL).orElseThrow()
+                        .getPage(Sort.Direction.ASC, null, 0, 100));
+        assertEquals(59, ids.size());
+        assertFalse(ids.contains(car.getId()));
+        assertTrue(carBitmapIndex.isConsistent());
+    }
+}
@@ -0,0 +1,45 @@
+package com.myapi.cars.index;
+
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CarIdMatchTest {
+
+    private final CarIdMatch match = new CarIdMatch(RoaringBitmap.bitmapOf(3, 5, 8, 13, 21));
+
+    @Test
+    public void size_success() {
+        assertEquals(5, match.size());
+        assertEquals(0, CarIdMatch.empty().size());
+    }
+
+    @Test
+    public void getPage_whenAscending_success() {
+        assertEquals(List.of(3L, 5L), match.getPage(Sort.Direction.ASC, null, 0, 2));
+        assertEquals(List.of(8L, 13L), match.getPage(Sort.Direction.ASC, null, 2, 2));
+        assertEquals(List.of(21L), match.getPage(Sort.Direction.ASC, null, 4, 2));
+        assertEquals(List.of(), match.getPage(Sort.Direction.ASC, null, 5, 2));
+    }
+
+    @Test
+    public void getPage_whenDescending_success() {
+        assertEquals(List.of(21L, 13L), match.getPage(Sort.Direction.DESC, null, 0, 2));
+        assertEquals(List.of(8L, 5L), match.getPage(Sort.Direction.DESC, null, 2, 2));
+        assertEquals(List.of(3L), match.getPage(Sort.Direction.DESC, null, 4, 2));
+        assertEquals(List.of(), match.getPage(Sort.Direction.DESC, null, 5, 2));
+    }
+
+    @Test
+    public void getPage_whenAfterId_skipIdsUpToIt() {
+        assertEquals(List.of(13L, 21L), match.getPage(Sort.Direction.ASC, 8L, 0, 10));
+        assertEquals(List.of(13L, 21L), match.getPage(Sort.Direction.ASC, 9L, 0, 10));
+        assertEquals(List.of(5L, 3L), match.getPage(Sort.Direction.DESC, 8L, 0, 10));
+        assertEquals(List.of(5L, 3L), match.getPage(Sort.Direction.DESC, 7L, 0, 10));
+        assertEquals(List.of(), match.getPage(Sort.Direction.DESC, 3L, 0, 10));
+    }
+}
@@ -0,0 +1,61 @@
+package com.myapi.cars.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CarSuggestionIndexRangeTest {
+
+    @Test
+    public void headOfRange_returnKeysStartingWithPrefixInKeyOrder() {
+        NavigableMap<String, String> byName = new TreeMap<>();
+        List.of("camry", "civic", "corolla", "cybertruck", "model s", "c").forEach(name -> byName.put(name, name));
+
+        assertEquals(List.of("c", "camry", "civic"), CarSuggestionIndex.headOfRange(byName, "c", 3));
+        assertEquals(List.of("corolla"), CarSuggestionIndex.headOfRange(byName, "co", 3));
+        assertEquals(List.of(), CarSuggestionIndex.headOfRange(byName, "x", 3));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void headOfRange_stopsReadingAtLimit() {
+        // a range of endless names, read one at a time
+        AtomicInteger read = new AtomicInteger();
+        NavigableMap<String, String> range = mock(NavigableMap.class);
+        when(range.values()).thenReturn(new AbstractCollection<>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return true;
+                    }
+
+                    @Override
+                    public String next() {
+                        return "name " + read.incrementAndGet();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return Integer.MAX_VALUE;
+            }
+        });
+        NavigableMap<String, String> byName = mock(NavigableMap.class);
+        when(byName.subMap("c", true, "c" + Character.MAX_VALUE, false)).thenReturn(range);
+
+        assertEquals(List.of("name 1", "name 2", "name 3"), CarSuggestionIndex.headOfRange(byName, "c", 3));
+        assertEquals(3, read.get());
+    }
+}
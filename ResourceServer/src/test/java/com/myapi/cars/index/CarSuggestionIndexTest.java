@@ -0,0 +1,204 @@
+package com.myapi.cars.index;
+
+import com.myapi.cars.dto.DTOSuggestion;
+import com.myapi.cars.model.Car;
+import com.myapi.cars.model.Category;
+import com.myapi.cars.model.Make;
+import com.myapi.cars.repository.CarRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "cars.index.suggestion.enabled=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CarSuggestionIndex.class)
+public class CarSuggestionIndexTest {
+
+    private static final String DATABASE_NAME = "databaseName";
+    private static final String DATABASE_USERNAME = "databaseName";
+    private static final String DATABASE_USER_PASSWORD = "databaseName";
+
+    private static final Set<SuggestionType> ALL_TYPES = EnumSet.allOf(SuggestionType.class);
+
+    public static PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:latest").withDatabaseName(DATABASE_NAME).withUsername(DATABASE_USERNAME)
+                    .withPassword(DATABASE_USER_PASSWORD).withReuse(true);
+
+    @Autowired
+    CarSuggestionIndex carSuggestionIndex;
+
+    @Autowired
+    CarRepository carRepository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private Make toyota;
+
+    private Make tesla;
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        // Postgresql
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+
+        // Flyway
+        registry.add("spring.flyway.cleanDisabled", () -> false);
+    }
+
+    @BeforeEach
+    void setUp(@Autowired Flyway flyway) {
+        flyway.migrate();
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "cars_categories", "car", "category", "make");
+
+        toyota = new Make("Toyota");
+        entityManager.persist(toyota);
+        tesla = new Make("Tesla");
+        entityManager.persist(tesla);
+        Make honda = new Make("Honda");
+        entityManager.persist(honda);
+        Category sedan = new Category("Sedan");
+        entityManager.persist(sedan);
+        Category sport = new Category("Sport");
+        entityManager.persist(sport);
+        Category coupe = new Category("Coupe");
+        entityManager.persist(coupe);
+        persist(toyota, "Camry", Set.of(sedan));
+        persist(toyota, "Camry", Set.of(sedan));
+        persist(toyota, "Camry", Set.of(coupe));
+        persist(toyota, "Corolla", Set.of(sedan));
+        persist(honda, "Civic", Set.of(sedan, sport));
+        persist(honda, "Civic", Set.of());
+        persist(tesla, "Model S", Set.of(sedan));
+        entityManager.flush();
+
+        carSuggestionIndex.rebuild();
+    }
+
+    @Test
+    public void suggest_listNamesStartingWithPrefixByCarCountThenName() {
+        assertEquals(List.of(new DTOSuggestion("model", "Camry", 3L), new DTOSuggestion("model", "Civic", 2L),
+                        new DTOSuggestion("model", "Corolla", 1L), new DTOSuggestion("category", "Coupe", 1L)),
+                suggest("c", ALL_TYPES, 10));
+        assertEquals(List.of(new DTOSuggestion("make", "Toyota", 4L), new DTOSuggestion("make", "Tesla", 1L)),
+                suggest("t", ALL_TYPES, 10));
+    }
+
+    @Test
+    public void suggest_onlyGivenTypesUpToLimit() {
+        assertEquals(List.of(new DTOSuggestion("category", "Sedan", 5L), new DTOSuggestion("category", "Sport", 1L)),
+                suggest("S", EnumSet.of(SuggestionType.MAKE, SuggestionType.CATEGORY), 10));
+        assertEquals(List.of(new DTOSuggestion("make", "Toyota", 4L)), suggest("t", ALL_TYPES, 1));
+        assertEquals(List.of(), suggest("x", ALL_TYPES, 10));
+    }
+
+    @Test
+    public void suggest_rankOnlyFirstCandidatesOfEachTypeInNameOrder() {
+        assertEquals(List.of(new DTOSuggestion("make", "Tesla", 1L)),
+                carSuggestionIndex.suggest("t", ALL_TYPES, 1, 10).orElseThrow());
+        assertEquals(List.of(new DTOSuggestion("model", "Camry", 3L), new DTOSuggestion("category", "Coupe", 1L)),
+                carSuggestionIndex.suggest("c", ALL_TYPES, 1, 10).orElseThrow());
+    }
+
+    @Test
+    public void suggest_matchesPrefixQueriesOfRepository() {
+        for (String prefix : List.of("c", "C", "s", "t", "tes", "model s", "x", "%", "_amry")) {
+            for (Set<SuggestionType> types : List.of(ALL_TYPES, EnumSet.of(SuggestionType.CATEGORY))) {
+                for (int candidates : List.of(1, 2, 10)) {
+                    for (int limit : List.of(1, 2, 10)) {
+                        assertEquals(carSuggestionIndex.suggest(prefix, types, candidates, limit).orElseThrow(),
+                                carRepository.suggest(prefix, types, candidates, limit),
+                                prefix + " " + types + " " + candidates + " " + limit);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void put_whenTransactionCommits_suggestModel() {
+        Car car = persist(tesla, "Cybertruck", Set.of());
+        carSuggestionIndex.put(car);
+
+        assertEquals(List.of(), suggest("cy", ALL_TYPES, 10));
+
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        assertEquals(List.of(new DTOSuggestion("model", "Cybertruck", 1L)),
+                suggest("cy", ALL_TYPES, 10));
+        assertEquals(List.of(new DTOSuggestion("make", "Tesla", 2L)),
+                suggest("tes", ALL_TYPES, 10));
+    }
+
+    @Test
+    public void removeAll_whenTransactionCommits_uncountCarsAndDropUnusedModels() {
+        List<Car> cars = carRepository.findAll(Sort.by("id"));
+        List<Long> ids = List.of(cars.get(0).getId(), cars.get(3).getId());
+        carRepository.deleteAllByIdIn(ids);
+        carSuggestionIndex.removeAll(ids);
+
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        assertEquals(List.of(new DTOSuggestion("model", "Camry", 2L), new DTOSuggestion("model", "Civic", 2L),
+                        new DTOSuggestion("category", "Coupe", 1L)),
+                suggest("c", ALL_TYPES, 10));
+        assertEquals(List.of(new DTOSuggestion("make", "Toyota", 2L)),
+                suggest("toy", ALL_TYPES, 10));
+    }
+
+    @Test
+    public void putMake_whenTransactionCommits_suggestNewName() {
+        toyota.setName("Lexus");
+        entityManager.flush();
+        carSuggestionIndex.putMake(toyota.getId(), "Lexus");
+
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        assertEquals(List.of(new DTOSuggestion("make", "Tesla", 1L)),
+                suggest("t", ALL_TYPES, 10));
+        assertEquals(List.of(new DTOSuggestion("make", "Lexus", 4L)),
+                suggest("lex", ALL_TYPES, 10));
+    }
+
+    private List<DTOSuggestion> suggest(String prefix, Set<SuggestionType> types, int limit) {
+        return carSuggestionIndex.suggest(prefix, types, 10, limit).orElseThrow();
+    }
+
+    private Car persist(Make make, String model, Set<Category> categories) {
+        Car car = Car.builder().make(make).categories(categories).year(2020).model(model).build();
+        entityManager.persist(car);
+        return car;
+    }
+}
@@ -0,0 +1,128 @@
+package com.myapi.cars.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Excluded from the regular build, run it with {@code ./mvnw test -Pload-test}, sized by system properties such as
+ * {@code -Dloadtest.cars=5000000 -Dloadtest.threads=32 -Dloadtest.duration=PT5M}.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(LocalJwtConfig.class)
+@Slf4j
+public class CarApiLoadTest {
+
+    private static final String DATABASE_NAME = "databaseName";
+    private static final String DATABASE_USERNAME = "databaseName";
+    private static final String DATABASE_USER_PASSWORD = "databaseName";
+
+    public static PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:latest").withDatabaseName(DATABASE_NAME).withUsername(DATABASE_USERNAME)
+                    .withPassword(DATABASE_USER_PASSWORD).withReuse(true);
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    LocalJwtConfig localJwtConfig;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${loadtest.cars:100000}")
+    int carCount;
+
+    @Value("${loadtest.makes:60}")
+    int makeCount;
+
+    @Value("${loadtest.categories:40}")
+    int categoryCount;
+
+    @Value("${loadtest.threads:16}")
+    int threads;
+
+    @Value("${loadtest.warmup:PT15S}")
+    Duration warmup;
+
+    @Value("${loadtest.duration:PT1M}")
+    Duration duration;
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        // Postgresql
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+
+        // Flyway
+        registry.add("spring.flyway.cleanDisabled", () -> false);
+    }
+
+    @Test
+    void mixedWorkload(@Autowired Flyway flyway) throws InterruptedException, IOException {
+        flyway.clean();
+        flyway.migrate();
+        new CarCatalogGenerator(jdbcTemplate).generate(carCount, makeCount, categoryCount);
+
+        CarApiWorkload workload =
+                new CarApiWorkload(URI.create("http://localhost:" + port), localJwtConfig.mintToken(
+                        warmup.plus(duration).plusMinutes(5)), carCount, makeCount, categoryCount);
+        log.info("Warming up for {}", warmup);
+        workload.run(warmup, threads);
+        log.info("Running for {} on {} threads", duration, threads);
+        Map<String, Latencies> latencies = workload.run(duration, threads);
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("cars", carCount);
+        settings.put("makes", makeCount);
+        settings.put("categories", categoryCount);
+        settings.put("threads", threads);
+        settings.put("duration", duration.toString());
+        LoadTestReport report = LoadTestReport.of(settings, latencies, duration);
+        log.info("Load test report:\n{}", report.toTable());
+
+        Path reportFile = Path.of("target", "load-test",
+                "report-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        Files.createDirectories(reportFile.getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportFile.toFile(), report);
+        log.info("Load test report written to {}", reportFile.toAbsolutePath());
+
+        assertEquals(0, report.errors(), report::toTable);
+    }
+}
@@ -0,0 +1,191 @@
+package com.myapi.cars.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Every worker sends its next request as soon as the previous one is answered, and only deletes the cars it created.
+ */
+public class CarApiWorkload {
+
+    private static final int PAGE_SIZE = 20;
+
+    private final List<Operation> operations = List.of(
+            new Operation("GET /car?make", 30, worker -> get("/api/v1/car?limit=" + PAGE_SIZE + "&make=" +
+                    encode("Make " + worker.makeId()))),
+            new Operation("GET /car?make&year", 10, worker -> get("/api/v1/car?limit=" + PAGE_SIZE + "&make=" +
+                    encode("Make " + worker.makeId()) + "&year=" + worker.year())),
+            new Operation("GET /car?cars", 10, worker -> get("/api/v1/car?limit=" + PAGE_SIZE + "&cars=" +
+                    encode("Category " + worker.categoryId()))),
+            new Operation("GET /car/{id}", 20, worker -> get("/api/v1/car/" + worker.carId())),
+            new Operation("GET /make", 5, worker -> get("/api/v1/make?limit=" + PAGE_SIZE)),
+            new Operation("GET /category", 5, worker -> get("/api/v1/category?limit=" + PAGE_SIZE)),
+            new Operation("POST /car", 10, worker -> send("POST", "/api/v1/car", worker.carJson()),
+                    (worker, body) -> worker.createdIds.add(Long.valueOf(body))),
+            new Operation("PATCH /car/{id}", 7, worker -> send("PATCH", "/api/v1/car/" + worker.carId(),
+                    "{\"year\":" + worker.year() + "}")),
+            new Operation("DELETE /car/{id}", 3, worker -> worker.createdIds.isEmpty() ? null :
+                    send("DELETE", "/api/v1/car/" + worker.createdIds.poll(), null)));
+
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    private final URI baseUri;
+
+    private final String authorization;
+
+    private final int carCount;
+
+    private final int makeCount;
+
+    private final int categoryCount;
+
+    public CarApiWorkload(URI baseUri, String token, int carCount, int makeCount, int categoryCount) {
+        this.baseUri = baseUri;
+        this.authorization = "Bearer " + token;
+        this.carCount = carCount;
+        this.makeCount = makeCount;
+        this.categoryCount = categoryCount;
+    }
+
+    public Map<String, Latencies> run(Duration duration, int threads) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Map<String, Latencies>>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                Worker worker = new Worker(new Random(i));
+                futures.add(executor.submit(() -> worker.run(deadline)));
+            }
+            Map<String, Latencies> latencies = new HashMap<>();
+            for (Future<Map<String, Latencies>> future : futures) {
+                future.get().forEach((endpoint, workerLatencies) ->
+                        latencies.computeIfAbsent(endpoint, key -> new Latencies()).addAll(workerLatencies));
+            }
+            return latencies;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Load test worker failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return send("GET", path, null);
+    }
+
+    private HttpRequest send(String method, String path, String json) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(baseUri.resolve(path)).header("Authorization",
+                authorization);
+        if (json == null) {
+            return request.method(method, HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return request.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private record Operation(String endpoint, int weight, Function<Worker, HttpRequest> request,
+                             BiConsumer<Worker, String> onSuccess) {
+
+        Operation(String endpoint, int weight, Function<Worker, HttpRequest> request) {
+            this(endpoint, weight, request, (worker, body) -> {
+            });
+        }
+    }
+
+    private class Worker {
+
+        private final Random random;
+
+        private final Deque<Long> createdIds = new ArrayDeque<>();
+
+        private final Map<String, Latencies> latencies = new HashMap<>();
+
+        private final int totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+
+        Worker(Random random) {
+            this.random = random;
+        }
+
+        Map<String, Latencies> run(long deadline) throws InterruptedException {
+            while (System.nanoTime() < deadline) {
+                Operation operation = choose();
+                HttpRequest request = operation.request().apply(this);
+                if (request == null) {
+                    continue;
+                }
+                long start = System.nanoTime();
+                boolean error;
+                try {
+                    HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                    error = response.statusCode() >= 400;
+                    if (!error) {
+                        operation.onSuccess().accept(this, response.body());
+                    }
+                } catch (IOException e) {
+                    error = true;
+                }
+                latencies.computeIfAbsent(operation.endpoint(), key -> new Latencies())
+                        .record(System.nanoTime() - start, error);
+            }
+            return latencies;
+        }
+
+        private Operation choose() {
+            int pick = random.nextInt(totalWeight);
+            for (Operation operation : operations) {
+                pick -= operation.weight();
+                if (pick < 0) {
+                    return operation;
+                }
+            }
+            throw new IllegalStateException();
+        }
+
+        /**
+         * Same skew as the catalog: the cube of a uniform value, so low ids are picked far more often.
+         */
+        long makeId() {
+            return 1 + (long) (Math.pow(random.nextDouble(), 3) * makeCount);
+        }
+
+        long categoryId() {
+            return 1 + (long) (Math.pow(random.nextDouble(), 2) * categoryCount);
+        }
+
+        long carId() {
+            return 1 + random.nextInt(carCount);
+        }
+
+        int year() {
+            return 1990 + random.nextInt(35);
+        }
+
+        String carJson() {
+            return "{\"make\":{\"id\":" + makeId() + "},\"year\":" + year() + ",\"model\":\"Model " +
+                    random.nextInt(40) + "\",\"categories\":[{\"id\":" + categoryId() + "}]}";
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.myapi.cars.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Ids are assigned from 1 and the sequences are moved past them, so the application keeps allocating fresh ids. The
+ * random generator is seeded, so the same settings give the same catalog.
+ */
+@Slf4j
+public class CarCatalogGenerator {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CarCatalogGenerator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void generate(int carCount, int makeCount, int categoryCount) {
+        long start = System.nanoTime();
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT setseed(0.42)");
+            }
+            execute(connection, "INSERT INTO make (make_id, name) SELECT i, 'Make ' || i FROM generate_series(1, ?) i",
+                    makeCount);
+            execute(connection, "INSERT INTO category (category_id, name) " +
+                    "SELECT i, 'Category ' || i FROM generate_series(1, ?) i", categoryCount);
+            execute(connection, "INSERT INTO car (car_id, make_id, year, model) " +
+                    "SELECT i, 1 + floor(power(random(), 3) * ?)::int, 1990 + floor(random() * 35)::int, " +
+                    "'Model ' || floor(random() * 40)::int FROM generate_series(1, ?) i", makeCount, carCount);
+            execute(connection, "INSERT INTO cars_categories (car_id, category_id) " +
+                    "SELECT c.car_id, 1 + floor(power(random(), 2) * ?)::int FROM car c " +
+                    "JOIN generate_series(1, 3) n ON n <= 1 + c.car_id % 3 ON CONFLICT DO NOTHING", categoryCount);
+            execute(connection, "SELECT setval('make_seq', ?, false)", makeCount + 1);
+            execute(connection, "SELECT setval('category_seq', ?, false)", categoryCount + 1);
+            execute(connection, "SELECT setval('car_seq', ?, false)", carCount + 1);
+            return null;
+        });
+        jdbcTemplate.execute("ANALYZE");
+        log.info("Generated {} cars of {} makes and {} categories in {} s", carCount, makeCount, categoryCount,
+                (System.nanoTime() - start) / 1_000_000_000);
+    }
+
+    private void execute(Connection connection, String sql, long... parameters) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setLong(i + 1, parameters[i]);
+            }
+            statement.execute();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.myapi.cars.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Each worker records into its own instance, merged once the run is over.
+ */
+class Latencies {
+
+    private long[] values = new long[1024];
+
+    private int size;
+
+    private long errors;
+
+    void record(long nanos, boolean error) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = nanos;
+        if (error) {
+            errors++;
+        }
+    }
+
+    void addAll(Latencies other) {
+        if (size + other.size > values.length) {
+            values = Arrays.copyOf(values, size + other.size);
+        }
+        System.arraycopy(other.values, 0, values, size, other.size);
+        size += other.size;
+        errors += other.errors;
+    }
+
+    LoadTestReport.EndpointReport report(String endpoint, Duration elapsed) {
+        long[] sorted = Arrays.copyOf(values, size);
+        Arrays.sort(sorted);
+        return new LoadTestReport.EndpointReport(endpoint, size, errors, size / (elapsed.toNanos() / 1e9),
+                percentile(sorted, 0.5), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                size == 0 ? 0 : sorted[size - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.ceil(percentile * sorted.length) - 1] / 1e6;
+    }
+}
@@ -0,0 +1,37 @@
+package com.myapi.cars.loadtest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public record LoadTestReport(Map<String, Object> settings, double throughput, List<EndpointReport> endpoints) {
+
+    public static LoadTestReport of(Map<String, Object> settings, Map<String, Latencies> latencies,
+                                    Duration elapsed) {
+        List<EndpointReport> endpoints =
+                latencies.entrySet().stream().map(entry -> entry.getValue().report(entry.getKey(), elapsed))
+                        .sorted((a, b) -> a.endpoint().compareTo(b.endpoint())).toList();
+        return new LoadTestReport(settings, endpoints.stream().mapToDouble(EndpointReport::throughput).sum(),
+                endpoints);
+    }
+
+    public long errors() {
+        return endpoints.stream().mapToLong(EndpointReport::errors).sum();
+    }
+
+    public String toTable() {
+        StringBuilder table = new StringBuilder(String.format(Locale.ROOT, "%-28s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        endpoints.forEach(endpoint -> table.append(String.format(Locale.ROOT,
+                "%-28s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", endpoint.endpoint(), endpoint.requests(),
+                endpoint.errors(), endpoint.throughput(), endpoint.p50(), endpoint.p99(), endpoint.p999(),
+                endpoint.max())));
+        table.append(String.format(Locale.ROOT, "%-28s %9s %7d %9.1f%n", "total", "", errors(), throughput));
+        return table.toString();
+    }
+
+    public record EndpointReport(String endpoint, long requests, long errors, double throughput, double p50,
+                                 double p99, double p999, double max) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.myapi.cars.loadtest;
+
+import com.myapi.cars.validation.AudienceValidator;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Replaces the Auth0 backed JWT decoder with one trusting a key pair generated for the test run.
+ */
+@TestConfiguration
+public class LocalJwtConfig {
+
+    private final RSAKey rsaKey;
+
+    @Value("${auth0.audience}")
+    private String audience;
+
+    @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}")
+    private String issuer;
+
+    public LocalJwtConfig() throws JOSEException {
+        this.rsaKey = new RSAKeyGenerator(2048).keyID("load-test").generate();
+    }
+
+    @Bean
+    @Primary
+    public JwtDecoder localJwtDecoder() throws JOSEException {
+        NimbusJwtDecoder jwtDecoder = NimbusJwtDecoder.withPublicKey(rsaKey.toRSAPublicKey()).build();
+        jwtDecoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(new AudienceValidator(audience),
+                JwtValidators.createDefaultWithIssuer(issuer)));
+        return jwtDecoder;
+    }
+
+    public String mintToken(Duration validity) {
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder().issuer(issuer).audience(List.of(audience)).subject("load-test")
+                .issuedAt(now).expiresAt(now.plus(validity)).build();
+        JwsHeader header = JwsHeader.with(SignatureAlgorithm.RS256).keyId(rsaKey.getKeyID()).build();
+        return new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(rsaKey)))
+                .encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+    }
+}
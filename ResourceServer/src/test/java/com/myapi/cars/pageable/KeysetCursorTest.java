@@ -0,0 +1,116 @@
+package com.myapi.cars.pageable;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myapi.cars.model.Car;
+import com.myapi.cars.model.Make;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeysetCursorTest {
+
+    @Test
+    public void getOrders_appendsIdTieBreakerWithLastDirection() {
+        List<Sort.Order> orders = KeysetCursor.getOrders(Sort.by(Sort.Direction.DESC, "year"));
+
+        assertEquals(List.of(Sort.Order.desc("year"), Sort.Order.desc("id")), orders);
+    }
+
+    @Test
+    public void getOrders_whenSortedById_doesNotAppendTieBreaker() {
+        List<Sort.Order> orders = KeysetCursor.getOrders(Sort.by(Sort.Direction.ASC, "id"));
+
+        assertEquals(List.of(Sort.Order.asc("id")), orders);
+    }
+
+    @Test
+    public void of_whenSortKeysAreComparable_success() {
+        Car car = Car.builder().id(7L).year(2020).model("Camry").make(new Make(1L, "Toyota")).build();
+        Sort sort = Sort.by(Sort.Direction.ASC, "make.name");
+
+        KeysetCursor cursor = KeysetCursor.of(sort, car).orElseThrow();
+
+        assertEquals(List.of("Toyota", 7L), cursor.getValues());
+    }
+
+    @Test
+    public void of_whenSortKeyIsNotComparable_returnEmpty() {
+        Car car = Car.builder().id(7L).year(2020).model("Camry").make(new Make(1L, "Toyota")).build();
+
+        assertTrue(KeysetCursor.of(Sort.by(Sort.Direction.ASC, "make"), car).isEmpty());
+        assertTrue(KeysetCursor.of(Sort.by(Sort.Direction.ASC, "unknown"), car).isEmpty());
+    }
+
+    @Test
+    public void decode_whenTokenIsEncoded_returnEqualCursor() {
+        Car car = Car.builder().id(7L).year(2020).model("Camry").build();
+        Sort sort = Sort.by(Sort.Direction.DESC, "year");
+        KeysetCursor cursor = KeysetCursor.of(sort, car).orElseThrow();
+
+        KeysetCursor decoded = KeysetCursor.decode(cursor.encode());
+
+        assertEquals(cursor.getSort(), decoded.getSort());
+        assertEquals(List.of(2020, 7), decoded.getValues());
+        assertEquals(KeysetCursor.getOrders(sort), decoded.getOrdersFor(sort));
+    }
+
+    @Test
+    public void decode_whenTokenIsMalformed_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("e30"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(""));
+    }
+
+    @Test
+    public void getOrdersFor_whenSortDiffers_throwIllegalArgumentException() {
+        Car car = Car.builder().id(7L).year(2020).model("Camry").build();
+        KeysetCursor cursor = KeysetCursor.of(Sort.by(Sort.Direction.DESC, "year"), car).orElseThrow();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> cursor.getOrdersFor(Sort.by(Sort.Direction.ASC, "year")));
+    }
+
+    @Test
+    public void getOrdersFor_whenValuesAreOfSortKeyTypes_success() throws JsonProcessingException {
+        Sort sort = Sort.by(Sort.Direction.DESC, "make.id", "year");
+
+        assertEquals(3, KeysetCursor.decode(token("make.id: DESC,year: DESC,id: DESC", 5, 2020, 7L))
+                .getOrdersFor(sort).size());
+        assertEquals(3, KeysetCursor.decode(token("make.id: DESC,year: DESC,id: DESC", 5_000_000_000L, 2020, 7))
+                .getOrdersFor(sort).size());
+    }
+
+    @Test
+    public void getOrdersFor_whenValueDoesNotFitSortKey_throwIllegalArgumentException()
+            throws JsonProcessingException {
+        Sort byYear = Sort.by(Sort.Direction.DESC, "year");
+        Sort byModel = Sort.by(Sort.Direction.ASC, "model");
+
+        assertMalformed(byYear, token("year: DESC,id: DESC", "abc", 7));
+        assertMalformed(byYear, token("year: DESC,id: DESC", null, 7));
+        assertMalformed(byYear, token("year: DESC,id: DESC", 5_000_000_000L, 7));
+        assertMalformed(byYear, token("year: DESC,id: DESC", 2020, 7.5));
+        assertMalformed(byYear, token("year: DESC,id: DESC", 2020, "7"));
+        assertMalformed(byModel, token("model: ASC,id: ASC", 42, 7));
+        assertMalformed(byModel, token("model: ASC,id: ASC", List.of("Camry"), 7));
+    }
+
+    private static void assertMalformed(Sort sort, String token) {
+        KeysetCursor cursor = KeysetCursor.decode(token);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> cursor.getOrdersFor(sort));
+        assertEquals("Cursor is malformed", e.getMessage());
+    }
+
+    private static String token(String sort, Object... values) throws JsonProcessingException {
+        byte[] content = new ObjectMapper().writeValueAsBytes(Map.of("sort", sort, "values", Arrays.asList(values)));
+        return Base64.getUrlEncoder().encodeToString(content);
+    }
+}
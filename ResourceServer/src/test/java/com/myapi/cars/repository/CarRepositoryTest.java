@@ -1,9 +1,20 @@
 package com.myapi.cars.repository;
 
+import com.myapi.cars.dto.CarDTO;
+import com.myapi.cars.dto.CategoryDTO;
+import com.myapi.cars.dto.DTOFacetCount;
+import com.myapi.cars.dto.MakeDTO;
 import com.myapi.cars.model.Car;
 import com.myapi.cars.model.Category;
 import com.myapi.cars.model.Make;
+import com.myapi.cars.pageable.CarFacet;
+import com.myapi.cars.pageable.CarFilter;
+import com.myapi.cars.pageable.CategoryMatch;
+import com.myapi.cars.pageable.KeysetCursor;
 import org.flywaydb.core.Flyway;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,19 +22,31 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 public class CarRepositoryTest {
 
@@ -57,9 +80,25 @@ public class CarRepositoryTest {
     }
 
     @BeforeEach
-    void clearDatabase(@Autowired Flyway flyway) {
-        flyway.clean();
-        flyway.migrate();
+    void clearDatabase(@Autowired Flyway flyway) throws SQLException {
+        // The id generators keep handing out the block of ids they reserved before the clean, so the recreated
+        // sequences continue past that block instead of handing it out again. Read on a connection of its own, as
+        // the test transaction would keep the sequences locked against the clean.
+        try (Connection connection = flyway.getConfiguration().getDataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            Map<String, Long> lastValues = new LinkedHashMap<>();
+            for (String sequence : List.of("car_seq", "category_seq", "make_seq")) {
+                try (ResultSet rs = statement.executeQuery("SELECT last_value FROM " + sequence)) {
+                    rs.next();
+                    lastValues.put(sequence, rs.getLong(1));
+                }
+            }
+            flyway.clean();
+            flyway.migrate();
+            for (Map.Entry<String, Long> lastValue : lastValues.entrySet()) {
+                statement.execute("SELECT setval('" + lastValue.getKey() + "', " + (lastValue.getValue() + 50) + ")");
+            }
+        }
     }
 
     @Test
@@ -82,6 +121,23 @@ public class CarRepositoryTest {
         assertEquals(car.getModel(), carFromDb.getModel());
     }
 
+    @Test
+    public void hashCode_whenPersisted_transientCarIsStillInHashSet() {
+        Make make = new Make("Toyota");
+        Car car = Car.builder().make(make).year(2021).model("Camry").build();
+        Set<Make> makes = new HashSet<>(Set.of(make));
+        Set<Car> cars = new HashSet<>(Set.of(car));
+
+        entityManager.persist(make);
+        entityManager.persistAndFlush(car);
+        entityManager.clear();
+
+        assertNotNull(car.getId());
+        assertTrue(makes.contains(make));
+        assertTrue(cars.contains(car));
+        assertTrue(cars.contains(entityManager.getEntityManager().getReference(Car.class, car.getId())));
+    }
+
     @Test
     public void findById_success() {
         Make make = new Make("Toyota");
@@ -156,12 +212,11 @@ public class CarRepositoryTest {
         entityManager.persist(car2);
         entityManager.persist(car3);
 
-        assertEquals(3,
-                carRepository.findAll(null, null, null, null, null, Pageable.unpaged()).stream().toList().size());
+        assertEquals(3, carRepository.findAllAfter(CarFilter.all(), null, Sort.by("id"), 0, 10).size());
     }
 
     @Test
-    public void findAll_withParams1_success() {
+    public void findAllAfter_withParams1_success() {
         Make make = new Make("Toyota");
         entityManager.persist(make);
 
@@ -178,8 +233,8 @@ public class CarRepositoryTest {
         entityManager.persist(car3);
         entityManager.persist(car4);
 
-        List<Car> foundedCars =
-                carRepository.findAll(null, null, "Corolla", null, null, Pageable.unpaged()).stream().toList();
+        List<Car> foundedCars = carRepository.findAllAfter(CarFilter.builder().models(List.of("Corolla")).build(), null,
+                Sort.by("id"), 0, 10);
 
         assertEquals(2, foundedCars.size());
         assertTrue(foundedCars.contains(car2));
@@ -187,7 +242,7 @@ public class CarRepositoryTest {
     }
 
     @Test
-    public void findAll_withParams2_success() {
+    public void findAllAfter_withParams2_success() {
         Make make = new Make("Toyota");
         entityManager.persist(make);
 
@@ -206,18 +261,18 @@ public class CarRepositoryTest {
         entityManager.persist(car3);
         entityManager.persist(car4);
 
-        List<String> categoryNames = Collections.singletonList(dropTop.getName());
+        List<Long> categoryIds = Collections.singletonList(dropTop.getId());
 
-        List<Car> foundedCars =
-                carRepository.findAll(make.getName(), 2023, "Corolla", categoryNames, categoryNames.size(),
-                        Pageable.unpaged()).stream().toList();
+        List<Car> foundedCars = carRepository.findAllAfter(CarFilter.builder().makeNames(List.of(make.getName()))
+                .yearFrom(2023).yearTo(2023).models(List.of("Corolla")).categoryIds(categoryIds).build(), null,
+                Sort.by("id"), 0, 10);
 
         assertEquals(1, foundedCars.size());
         assertTrue(foundedCars.contains(car3));
     }
 
     @Test
-    public void findAll_whenCategoryNameListIsNotNullAndSizeIsNull_success() {
+    public void findAllAfter_whenCategoryMatchIsAny_matchCarsHavingOneOfTheCategories() {
         Make make = new Make("Toyota");
         entityManager.persist(make);
 
@@ -229,24 +284,57 @@ public class CarRepositoryTest {
         Car car1 = Car.builder().make(make).categories(Set.of(sedan)).year(2021).model("Camry").build();
         Car car2 = Car.builder().make(make).categories(Set.of(sedan)).year(2022).model("Corolla").build();
         Car car3 = Car.builder().make(make).categories(Set.of(dropTop)).year(2023).model("Corolla").build();
-        Car car4 = Car.builder().make(make).categories(Set.of(sedan)).year(2023).model("Land Cruiser").build();
+        Car car4 = Car.builder().make(make).categories(Set.of()).year(2023).model("Land Cruiser").build();
 
         entityManager.persist(car1);
         entityManager.persist(car2);
         entityManager.persist(car3);
         entityManager.persist(car4);
 
-        List<String> categoryNames = Collections.singletonList(dropTop.getName());
+        CarFilter filter = CarFilter.builder().categoryIds(List.of(sedan.getId(), dropTop.getId()))
+                .categoryMatch(CategoryMatch.ANY).build();
 
-        List<Car> foundedCars =
-                carRepository.findAll(make.getName(), 2023, "Corolla", categoryNames, null, Pageable.unpaged()).stream()
-                        .toList();
+        assertEquals(List.of(car1, car2, car3), carRepository.findAllAfter(filter, null, Sort.by("id"), 0, 10));
+        assertEquals(3, carRepository.countAll(filter));
+        assertEquals(List.of(car1.getId(), car2.getId(), car3.getId()), carRepository.findIdsAfter(filter, null, 10));
+        assertEquals(List.of(), carRepository.findAllAfter(CarFilter.builder().categoryIds(List.of())
+                .categoryMatch(CategoryMatch.ANY).build(), null, Sort.by("id"), 0, 10));
+    }
 
-        assertEquals(0, foundedCars.size());
+    @Test
+    public void findAllAfter_whenMakesModelsAndYearRangeAreGiven_matchAnyOfTheValuesWithinTheRange() {
+        Make toyota = new Make("Toyota");
+        Make honda = new Make("Honda");
+        Make ford = new Make("Ford");
+        List.of(toyota, honda, ford).forEach(entityManager::persist);
+
+        Car car1 = Car.builder().make(toyota).categories(Set.of()).year(2019).model("Camry").build();
+        Car car2 = Car.builder().make(toyota).categories(Set.of()).year(2020).model("Camry").build();
+        Car car3 = Car.builder().make(honda).categories(Set.of()).year(2022).model("Civic").build();
+        Car car4 = Car.builder().make(honda).categories(Set.of()).year(2023).model("Civic").build();
+        Car car5 = Car.builder().make(ford).categories(Set.of()).year(2021).model("Focus").build();
+        Car car6 = Car.builder().make(toyota).categories(Set.of()).year(2021).model("Corolla").build();
+        List.of(car1, car2, car3, car4, car5, car6).forEach(entityManager::persist);
+        entityManager.flush();
+
+        CarFilter filter = CarFilter.builder().makeNames(List.of("Toyota", "Honda", "Unknown"))
+                .models(List.of("Camry", "Civic")).yearFrom(2020).yearTo(2022).build();
+        CarFilter fromOnly = CarFilter.builder().yearFrom(2022).build();
+        CarFilter toOnly = CarFilter.builder().yearTo(2019).build();
+
+        assertEquals(List.of(car2, car3), carRepository.findAllAfter(filter, null, Sort.by("id"), 0, 10));
+        assertEquals(2, carRepository.countAll(filter));
+        assertEquals(List.of(car2.getId(), car3.getId()), carRepository.findIdsAfter(filter, null, 10));
+        assertEquals(List.of(car3, car4), carRepository.findAllAfter(fromOnly, null, Sort.by("id"), 0, 10));
+        assertEquals(List.of(car1.getId()), carRepository.findIdsAfter(toOnly, null, 10));
+
+        List<Car> streamed = new ArrayList<>();
+        carRepository.streamAll(filter, streamed::add);
+        assertEquals(List.of(car2, car3), streamed);
     }
 
     @Test
-    public void findAll_whenCategoryNameListHasMultipleElements_success() {
+    public void findAllAfter_whenCategoryIdListHasMultipleElements_success() {
         Make make = new Make("Toyota");
         entityManager.persist(make);
 
@@ -270,14 +358,562 @@ public class CarRepositoryTest {
         entityManager.persist(car4);
         entityManager.persist(car5);
 
-        List<String> categoryNames = Arrays.asList(dropTop.getName(), sedan.getName());
+        List<Long> categoryIds = Arrays.asList(dropTop.getId(), sedan.getId());
 
-        List<Car> foundedCars =
-                carRepository.findAll(make.getName(), 2023, "Corolla", categoryNames, categoryNames.size(),
-                        Pageable.unpaged()).stream().toList();
+        List<Car> foundedCars = carRepository.findAllAfter(CarFilter.builder().makeNames(List.of(make.getName()))
+                .yearFrom(2023).yearTo(2023).models(List.of("Corolla")).categoryIds(categoryIds).build(), null,
+                Sort.by("id"), 0, 10);
 
         assertEquals(2, foundedCars.size());
     }
 
+    @Test
+    public void findAllAfter_walksAllPagesWithoutGapsOrDuplicates() {
+        Make make = new Make("Toyota");
+        entityManager.persist(make);
+
+        List<Car> cars = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Car car = Car.builder().make(make).categories(Set.of()).year(2020 + i % 3).model("Camry").build();
+            entityManager.persist(car);
+            cars.add(car);
+        }
+
+        Sort sort = Sort.by(Sort.Direction.DESC, "year");
+        List<Car> walked = new ArrayList<>();
+        KeysetCursor cursor = null;
+        do {
+            List<Car> page = carRepository.findAllAfter(CarFilter.builder().models(List.of("Camry")).build(), cursor,
+                    sort, 0, 3);
+            walked.addAll(page);
+            cursor = page.size() < 3 ? null : KeysetCursor.of(sort, page.get(page.size() - 1)).orElseThrow();
+        } while (cursor != null);
+
+        List<Car> expected = cars.stream().sorted(Comparator.comparing(Car::getYear).thenComparing(Car::getId)
+                .reversed()).toList();
+        assertEquals(expected, walked);
+    }
+
+    @Test
+    public void findAllProjected_whenSortedByMakeAndModel_walksAllPagesInMakeIdOrder() {
+        Make toyota = new Make("Toyota");
+        entityManager.persist(toyota);
+        Make honda = new Make("Honda");
+        entityManager.persist(honda);
+
+        List<Car> cars = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Car car = Car.builder().make(i % 2 == 0 ? toyota : honda).categories(Set.of()).year(2020)
+                    .model("Model " + i % 3).build();
+            entityManager.persist(car);
+            cars.add(car);
+        }
+        entityManager.flush();
+
+        Sort sort = Sort.by(Sort.Direction.ASC, "make.id", "model", "id");
+        List<CarDTO> walked = new ArrayList<>();
+        KeysetCursor cursor = null;
+        do {
+            List<CarDTO> page = carRepository.findAllProjected(CarFilter.all(), cursor, sort, 0, 3);
+            walked.addAll(page);
+            cursor = page.size() < 3 ? null : KeysetCursor.of(sort, page.get(page.size() - 1)).orElseThrow();
+        } while (cursor != null);
+
+        List<Long> expected = cars.stream().sorted(Comparator.comparing((Car car) -> car.getMake().getId())
+                .thenComparing(Car::getModel).thenComparing(Car::getId)).map(Car::getId).toList();
+        assertEquals(expected, walked.stream().map(CarDTO::getId).toList());
+    }
+
+    @Test
+    public void findAllAfter_whenCategoryIdListIsPresent_success() {
+        Make make = new Make("Toyota");
+        entityManager.persist(make);
+
+        Category sedan = new Category("Sedan");
+        Category dropTop = new Category("Drop-top");
+        entityManager.persist(sedan);
+        entityManager.persist(dropTop);
+
+        Car car1 = Car.builder().make(make).categories(Set.of(sedan)).year(2021).model("Camry").build();
+        Car car2 = Car.builder().make(make).categories(Set.of(dropTop, sedan)).year(2022).model("Corolla").build();
+
+        entityManager.persist(car1);
+        entityManager.persist(car2);
+
+        List<Car> foundedCars = carRepository.findAllAfter(CarFilter.builder().makeNames(List.of(make.getName()))
+                .categoryIds(List.of(sedan.getId(), dropTop.getId())).build(), null, Sort.by("id"), 0, 10);
+
+        assertEquals(List.of(car2), foundedCars);
+    }
+
+    @Test
+    public void findAllAfter_skipsOffsetAndReadsUpToLimit() {
+        Make make = new Make("Toyota");
+        entityManager.persist(make);
+
+        for (int i = 0; i < 3; i++) {
+            entityManager.persist(Car.builder().make(make).categories(Set.of()).year(2020 + i).model("Camry").build());
+        }
+
+        assertEquals(2, carRepository.findAllAfter(CarFilter.all(), null, Sort.by("id"), 0, 2).size());
+        assertEquals(1, carRepository.findAllAfter(CarFilter.all(), null, Sort.by("id"), 2, 2).size());
+    }
+
+    @Test
+    public void findAllProjected_walksAllPagesWithoutGapsOrDuplicates() {
+        Make make = new Make("Toyota");
+        entityManager.persist(make);
+        Category sedan = new Category("Sedan");
+        entityManager.persist(sedan);
+        Category sport = new Category("Sport");
+        entityManager.persist(sport);
+
+        List<Car> cars = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Car car = Car.builder().make(make).categories(i % 2 == 0 ? Set.of(sedan, sport) : Set.of(sedan))
+                    .year(2020 + i % 3).model("Camry").build();
+            entityManager.persist(car);
+            cars.add(car);
+        }
+        entityManager.flush();
+
+        Sort sort = Sort.by(Sort.Direction.DESC, "year");
+        List<CarDTO> walked = new ArrayList<>();
+        KeysetCursor cursor = null;
+        do {
+            List<CarDTO> page = carRepository.findAllProjected(CarFilter.builder().models(List.of("Camry"))
+                    .categoryIds(List.of(sedan.getId())).build(), cursor, sort, 0, 3);
+            walked.addAll(page);
+            cursor = page.size() < 3 ? null : KeysetCursor.of(sort, page.get(page.size() - 1)).orElseThrow();
+        } while (cursor != null);
+
+        List<Car> expected = cars.stream().sorted(Comparator.comparing(Car::getYear).thenComparing(Car::getId)
+                .reversed()).toList();
+        assertEquals(expected.stream().map(Car::getId).toList(), walked.stream().map(CarDTO::getId).toList());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getYear(), walked.get(i).getYear());
+            assertEquals(make.getName(), walked.get(i).getMake().getName());
+            assertEquals(expected.get(i).getCategories().stream().map(Category::getName).collect(Collectors.toSet()),
+                    walked.get(i).getCategories().stream().map(CategoryDTO::getName).collect(Collectors.toSet()));
+        }
+        CarFilter year2022 = CarFilter.builder().yearFrom(2022).yearTo(2022).build();
+        assertEquals(List.of(cars.get(2).getId(), cars.get(5).getId()),
+                carRepository.findAllProjected(year2022, null, Sort.by("id"), 0, 10).stream()
+                        .map(CarDTO::getId).toList());
+        assertEquals(List.of(cars.get(5).getId()),
+                carRepository.findAllProjected(year2022, null, Sort.by("id"), 1, 10).stream()
+                        .map(CarDTO::getId).toList());
+    }
+
+    @Test
+    public void findAllProjected_readsPageInTwoStatementsWithoutManagingEntities() {
+        Make make = new Make("Toyota");
+        entityManager.persist(make);
+        Category category = new Category("Sedan");
+        entityManager.persist(category);
+        for (int i = 0; i < 30; i++) {
+            entityManager.persist(Car.builder().make(make).categories(Set.of(category)).year(2000 + i)
+                    .model("Model " + i).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics =
+                entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+                        .getStatistics();
+        statistics.clear();
+
+        List<CarDTO> page = carRepository.findAllProjected(CarFilter.all(), null, Sort.by("id"), 0, 25);
+
+        assertEquals(25, page.size());
+        page.forEach(carDTO -> {
+            assertEquals(make.getId(), carDTO.getMake().getId());
+            assertEquals(Set.of(CategoryDTO.builder().id(category.getId()).name("Sedan").version(0L).build()),
+                    carDTO.getCategories());
+        });
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
 
+    @Test
+    public void findAllProjectedByIdIn_success() {
+        Make make = new Make("Toyota");
+        entityManager.persist(make);
+        Car car = Car.builder().make(make).categories(Set.of()).year(2021).model("Camry").build();
+        entityManager.persist(car);
+        entityManager.persist(Car.builder().make(make).categories(Set.of()).year(2022).model("Corolla").build());
+        entityManager.flush();
+
+        List<CarDTO> carDTOList = carRepository.findAllProjectedByIdIn(List.of(car.getId(), car.getId() + 1000));
+
+        assertEquals(1, carDTOList.size());
+        assertEquals(CarDTO.builder().id(car.getId()).year(2021).model("Camry").version(0L)
+                .make(MakeDTO.builder().id(make.getId()).name("Toyota").version(0L).build()).categories(Set.of())
+                .build(), carDTOList.get(0));
+        assertEquals(List.of(), carRepository.findAllProjectedByIdIn(List.of()));
+    }
+
+    @Test
+    public void findIdsAfter_walksMatchingIdsInOrder() {
+        Make toyota = new Make("Toyota");
+        entityManager.persist(toyota);
+        Make honda = new Make("Honda");
+        entityManager.persist(honda);
+        List<Long> toyotaIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Car car = Car.builder().make(i == 2 ? honda : toyota).categories(Set.of()).year(2020).model("Camry")
+                    .build();
+            entityManager.persist(car);
+            if (i != 2) {
+                toyotaIds.add(car.getId());
+            }
+        }
+        entityManager.flush();
+
+        CarFilter filter = CarFilter.builder().makeNames(List.of("Toyota")).yearFrom(2020).yearTo(2020).build();
+        List<Long> first = carRepository.findIdsAfter(filter, null, 3);
+        List<Long> rest = carRepository.findIdsAfter(filter, first.get(2), 3);
+
+        assertEquals(toyotaIds.subList(0, 3), first);
+        assertEquals(toyotaIds.subList(3, 4), rest);
+    }
+
+    @Test
+    public void updateAllByIdIn_setsGivenColumnsAndReplacesCategories() {
+        Make toyota = new Make("Toyota");
+        entityManager.persist(toyota);
+        Make honda = new Make("Honda");
+        entityManager.persist(honda);
+        Category sedan = new Category("Sedan");
+        entityManager.persist(sedan);
+        Category sport = new Category("Sport");
+        entityManager.persist(sport);
+        Car car1 = Car.builder().make(toyota).categories(Set.of(sedan)).year(2020).model("Camry").build();
+        entityManager.persist(car1);
+        Car car2 = Car.builder().make(toyota).categories(Set.of()).year(2021).model("Corolla").build();
+        entityManager.persist(car2);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> updatedIds = carRepository.updateAllByIdIn(List.of(car1.getId(), car2.getId(), car2.getId() + 1000),
+                honda.getId(), null, null, List.of(sport.getId()));
+
+        assertEquals(Set.of(car1.getId(), car2.getId()), new HashSet<>(updatedIds));
+        Car carFromDb = carRepository.findById(car1.getId()).orElseThrow();
+        assertEquals(honda, carFromDb.getMake());
+        assertEquals(2020, carFromDb.getYear());
+        assertEquals("Camry", carFromDb.getModel());
+        assertEquals(Set.of(sport), carFromDb.getCategories());
+        assertEquals(1, carFromDb.getVersion());
+        assertEquals(Set.of(sport), carRepository.findById(car2.getId()).orElseThrow().getCategories());
+    }
+
+    @Test
+    public void deleteAllByIdIn_deletesCarsAndTheirCategoryLinks() {
+        Make make = new Make("Toyota");
+        entityManager.persist(make);
+        Category category = new Category("Sedan");
+        entityManager.persist(category);
+        Car car1 = Car.builder().make(make).categories(Set.of(category)).year(2020).model("Camry").build();
+        entityManager.persist(car1);
+        Car car2 = Car.builder().make(make).categories(Set.of(category)).year(2021).model("Corolla").build();
+        entityManager.persist(car2);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(List.of(car1.getId()), carRepository.deleteAllByIdIn(List.of(car1.getId(), car2.getId() + 1000)));
+
+        assertEquals(List.of(car2.getId()), carRepository.findAll().stream().map(Car::getId).toList());
+        assertEquals(1L, entityManager.getEntityManager().createNativeQuery("SELECT count(*) FROM cars_categories")
+                .getSingleResult());
+    }
+
+    @Test
+    public void countAll_success() {
+        Make make = new Make("Toyota");
+        entityManager.persist(make);
+
+        Category sedan = new Category("Sedan");
+        entityManager.persist(sedan);
+
+        entityManager.persist(Car.builder().make(make).categories(Set.of(sedan)).year(2021).model("Camry").build());
+        entityManager.persist(Car.builder().make(make).categories(Set.of()).year(2021).model("Camry").build());
+        entityManager.persist(Car.builder().make(make).categories(Set.of(sedan)).year(2022).model("Camry").build());
+
+        List<Long> categoryIds = List.of(sedan.getId());
+
+        assertEquals(3, carRepository.countAll(CarFilter.all()));
+        assertEquals(1, carRepository.countAll(CarFilter.builder().makeNames(List.of(make.getName())).yearFrom(2021)
+                .yearTo(2021).models(List.of("Camry")).categoryIds(categoryIds).build()));
+    }
+
+    @Test
+    public void estimateCount_returnsPlannerEstimate() {
+        Make make = new Make("Toyota");
+        entityManager.persist(make);
+
+        Category sedan = new Category("Sedan");
+        entityManager.persist(sedan);
+
+        for (int i = 0; i < 10; i++) {
+            entityManager.persist(Car.builder().make(make).categories(Set.of(sedan)).year(2021).model("Camry").build());
+        }
+        entityManager.flush();
+
+        assertTrue(carRepository.estimateCount(CarFilter.all()) > 0);
+        assertTrue(carRepository.estimateCount(CarFilter.builder().makeNames(List.of(make.getName())).yearFrom(2020)
+                .yearTo(2021).models(List.of("Camry")).categoryIds(List.of(sedan.getId())).build()) >= 0);
+    }
+
+    @Test
+    public void countFacets_countsMatchingCarsPerValue() {
+        Make toyota = new Make("Toyota");
+        entityManager.persist(toyota);
+        Make honda = new Make("Honda");
+        entityManager.persist(honda);
+        Category sedan = new Category("Sedan");
+        entityManager.persist(sedan);
+        Category sport = new Category("Sport");
+        entityManager.persist(sport);
+        entityManager.persist(Car.builder().make(toyota).categories(Set.of(sedan, sport)).year(2020).model("Camry")
+                .build());
+        entityManager.persist(Car.builder().make(toyota).categories(Set.of(sedan)).year(2021).model("Camry").build());
+        entityManager.persist(Car.builder().make(honda).categories(Set.of(sedan)).year(2021).model("Civic").build());
+        entityManager.persist(Car.builder().make(honda).categories(Set.of()).year(2019).model("Civic").build());
+        entityManager.flush();
+
+        Map<CarFacet, List<DTOFacetCount>> all = carRepository.countFacets(CarFilter.all(),
+                EnumSet.allOf(CarFacet.class), 2);
+        Map<CarFacet, List<DTOFacetCount>> sedans = carRepository.countFacets(CarFilter.builder()
+                .categoryIds(List.of(sedan.getId())).build(), EnumSet.of(CarFacet.MAKE, CarFacet.CATEGORY), 10);
+
+        assertEquals(List.of(new DTOFacetCount("Honda", 2L), new DTOFacetCount("Toyota", 2L)), all.get(CarFacet.MAKE));
+        assertEquals(List.of(new DTOFacetCount("2021", 2L), new DTOFacetCount("2019", 1L)), all.get(CarFacet.YEAR));
+        assertEquals(List.of(new DTOFacetCount("Sedan", 3L), new DTOFacetCount("Sport", 1L)),
+                all.get(CarFacet.CATEGORY));
+        assertEquals(List.of(new DTOFacetCount("Toyota", 2L), new DTOFacetCount("Honda", 1L)),
+                sedans.get(CarFacet.MAKE));
+        assertEquals(List.of(new DTOFacetCount("Sedan", 3L), new DTOFacetCount("Sport", 1L)),
+                sedans.get(CarFacet.CATEGORY));
+    }
+
+    @Test
+    public void countFacets_whenNothingMatches_returnEmptyCounts() {
+        Map<CarFacet, List<DTOFacetCount>> counts = carRepository.countFacets(CarFilter.builder()
+                .makeNames(List.of("Toyota")).build(), EnumSet.of(CarFacet.YEAR), 10);
+
+        assertEquals(Map.of(CarFacet.YEAR, List.of()), counts);
+    }
+
+    @Test
+    public void findAllAfter_thenFindAllByIdIn_loadsPageWithAssociationsInTwoStatements() {
+        List<Make> makes = List.of(new Make("Toyota"), new Make("Honda"), new Make("Ford"));
+        makes.forEach(entityManager::persist);
+        List<Category> categories = List.of(new Category("Sedan"), new Category("Drop-top"), new Category("Sport"));
+        categories.forEach(entityManager::persist);
+
+        for (int i = 0; i < 30; i++) {
+            entityManager.persist(Car.builder().make(makes.get(i % makes.size()))
+                    .categories(Set.of(categories.get(i % categories.size()), categories.get((i + 1) % 3)))
+                    .year(2000 + i).model("Model " + i).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics =
+                entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+                        .getStatistics();
+        statistics.clear();
+
+        List<Car> page = carRepository.findAllAfter(CarFilter.all(), null, Sort.by("id"), 0, 25);
+        carRepository.findAllByIdIn(page.stream().map(Car::getId).toList());
+        page.forEach(car -> {
+            assertNotNull(car.getMake().getName());
+            car.getCategories().forEach(category -> assertNotNull(category.getName()));
+        });
+
+        assertEquals(25, page.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void findById_loadsAssociationsInOneStatement() {
+        Make make = new Make("Toyota");
+        entityManager.persist(make);
+        Category category = new Category("Sedan");
+        entityManager.persist(category);
+        Car car = Car.builder().make(make).categories(Set.of(category)).year(2021).model("Camry").build();
+        entityManager.persist(car);
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics =
+                entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+                        .getStatistics();
+        statistics.clear();
+
+        Car carFromDb = carRepository.findById(car.getId()).orElseThrow();
+        assertEquals(make.getName(), carFromDb.getMake().getName());
+        assertEquals(1, carFromDb.getCategories().size());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void saveAll_sendsInsertsInBatches() {
+        Make make = new Make("Toyota");
+        Category sedan = new Category("Sedan");
+        entityManager.persist(make);
+        entityManager.persist(sedan);
+        entityManager.flush();
+
+        Statistics statistics =
+                entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+                        .getStatistics();
+        statistics.clear();
+
+        List<Car> cars = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            cars.add(Car.builder().make(make).categories(Set.of(sedan)).year(2000 + i % 20).model("Camry").build());
+        }
+        carRepository.saveAll(cars);
+        entityManager.flush();
+
+        // a couple of nextval calls, then two batches of car rows and two of cars_categories rows
+        assertEquals(100, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 8, () -> statistics.getPrepareStatementCount() + "");
+    }
+
+    @Test
+    public void streamAll_passesEachMatchingCarOnceWithItsCategories() {
+        Make toyota = new Make("Toyota");
+        Make honda = new Make("Honda");
+        entityManager.persist(toyota);
+        entityManager.persist(honda);
+
+        Category sedan = new Category("Sedan");
+        Category sport = new Category("Sport");
+        entityManager.persist(sedan);
+        entityManager.persist(sport);
+
+        Car car1 = Car.builder().make(toyota).categories(Set.of(sedan, sport)).year(2021).model("Camry").build();
+        Car car2 = Car.builder().make(honda).categories(Set.of(sedan)).year(2021).model("Civic").build();
+        Car car3 = Car.builder().make(toyota).categories(Set.of()).year(2022).model("Corolla").build();
+        Car car4 = Car.builder().make(toyota).categories(Set.of(sport)).year(2021).model("Supra").build();
+        List.of(car1, car2, car3, car4).forEach(entityManager::persist);
+        entityManager.flush();
+
+        List<Car> all = new ArrayList<>();
+        carRepository.streamAll(CarFilter.all(), all::add);
+
+        assertEquals(List.of(car1, car2, car3, car4), all);
+        assertEquals(Set.of(sedan, sport), all.get(0).getCategories());
+        assertEquals("Honda", all.get(1).getMake().getName());
+        assertTrue(all.get(2).getCategories().isEmpty());
+
+        List<Car> filtered = new ArrayList<>();
+        carRepository.streamAll(CarFilter.builder().makeNames(List.of("Toyota")).yearFrom(2021).yearTo(2021)
+                .categoryIds(List.of(sport.getId())).build(), filtered::add);
+
+        assertEquals(List.of(car1, car4), filtered);
+        assertEquals(Set.of(sedan, sport), filtered.get(0).getCategories());
+    }
+
+    @Test
+    public void saveAndFlush_incrementsVersion_findVersionsByIdReadsVersionsOfCarMakeAndCategories() {
+        Make make = new Make("Toyota");
+        entityManager.persist(make);
+
+        Category sedan = new Category("Sedan");
+        Category sport = new Category("Sport");
+        entityManager.persist(sedan);
+        entityManager.persist(sport);
+
+        Car car = Car.builder().make(make).categories(new HashSet<>(Set.of(sedan))).year(2021).model("Camry").build();
+        entityManager.persist(car);
+        entityManager.flush();
+        assertEquals(0, car.getVersion());
+
+        car.setModel("Camry Hybrid");
+        carRepository.saveAndFlush(car);
+        assertEquals(1, car.getVersion());
+
+        car.getCategories().add(sport);
+        carRepository.saveAndFlush(car);
+        assertEquals(2, car.getVersion());
+
+        sport.setName("Sports");
+        entityManager.flush();
+
+        CarRepository.CarVersions versions = carRepository.findVersionsById(car.getId()).orElseThrow();
+        assertEquals(2, versions.getVersion());
+        assertEquals(0, versions.getMakeVersion());
+        assertEquals(1, versions.getCategoryVersionSum());
+        assertTrue(carRepository.findVersionsById(car.getId() + 1).isEmpty());
+    }
+
+    @Test
+    public void saveAndFlush_whenCarWasChangedSinceRead_throwObjectOptimisticLockingFailureException() {
+        Make make = new Make("Toyota");
+        entityManager.persist(make);
+        Car car = Car.builder().make(make).categories(Set.of()).year(2021).model("Camry").build();
+        entityManager.persist(car);
+        entityManager.flush();
+
+        entityManager.getEntityManager().createNativeQuery("UPDATE car SET version = version + 1 WHERE car_id = ?1")
+                .setParameter(1, car.getId()).executeUpdate();
+        car.setModel("Corolla");
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> carRepository.saveAndFlush(car));
+    }
+
+    @Test
+    public void deleteByIdReturningCount_deletesCarAndItsCategoryLinksInOneStatement() {
+        Make make = new Make("Toyota");
+        entityManager.persist(make);
+        Category category = new Category("Sedan");
+        entityManager.persist(category);
+        Car car = Car.builder().make(make).categories(Set.of(category)).year(2021).model("Camry").build();
+        entityManager.persist(car);
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics =
+                entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+                        .getStatistics();
+        statistics.clear();
+
+        assertEquals(1, carRepository.deleteByIdReturningCount(car.getId()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        assertEquals(0, carRepository.deleteByIdReturningCount(car.getId()));
+        assertNull(entityManager.find(Car.class, car.getId()));
+        assertEquals(0L, entityManager.getEntityManager()
+                .createNativeQuery("SELECT count(*) FROM cars_categories WHERE car_id = ?1")
+                .setParameter(1, car.getId()).getSingleResult());
+    }
+
+    @Test
+    public void saveAndFlush_whenCarIsNew_issuesOnlyInserts() {
+        Make make = new Make("Toyota");
+        entityManager.persist(make);
+        Category category = new Category("Sedan");
+        entityManager.persist(category);
+        entityManager.persist(
+                Car.builder().make(make).categories(Set.of(category)).year(2020).model("Corolla").build());
+        entityManager.flush();
+
+        Statistics statistics =
+                entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+                        .getStatistics();
+        statistics.clear();
+
+        Car car = Car.builder().make(make).categories(Set.of(category)).year(2021).model("Camry").build();
+        carRepository.saveAndFlush(car);
+
+        assertNotNull(car.getId());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityInsertCount());
+    }
 }
@@ -0,0 +1,185 @@
+package com.myapi.cars.repository;
+
+import com.myapi.cars.model.Car;
+import com.myapi.cars.model.Category;
+import com.myapi.cars.model.Make;
+import com.myapi.cars.pageable.CarFilter;
+import com.myapi.cars.pageable.CategoryMatch;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sequential scans are disabled, so the planner only falls back to one when no index fits.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class CarSearchIndexTest {
+
+    private static final String DATABASE_NAME = "databaseName";
+    private static final String DATABASE_USERNAME = "databaseName";
+    private static final String DATABASE_USER_PASSWORD = "databaseName";
+
+    public static PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:latest").withDatabaseName(DATABASE_NAME).withUsername(DATABASE_USERNAME)
+                    .withPassword(DATABASE_USER_PASSWORD).withReuse(true);
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @BeforeAll
+    static void beforeAll() {
+        postgres.start();
+    }
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        // Postgresql
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+
+        // Flyway
+        registry.add("spring.flyway.cleanDisabled", () -> false);
+    }
+
+    @BeforeEach
+    void setUp(@Autowired Flyway flyway) {
+        flyway.clean();
+        flyway.migrate();
+
+        List<Make> makes = List.of(new Make("Toyota"), new Make("Honda"));
+        makes.forEach(entityManager::persist);
+        List<Category> categories = List.of(new Category("Sedan"), new Category("Sport"));
+        categories.forEach(entityManager::persist);
+        for (int i = 0; i < 200; i++) {
+            entityManager.persist(Car.builder().make(makes.get(i % 2)).categories(Set.of(categories.get(i % 2)))
+                    .year(1990 + i % 30).model("Model " + i / 2 % 40).build());
+        }
+        entityManager.flush();
+
+        jdbcTemplate.execute("ANALYZE");
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+    }
+
+    @Test
+    public void search_byMakeSortedByYear_usesMakeYearIndex() {
+        String plan = explain(new CarFilterSql(CarFilter.builder().makeNames(List.of("Toyota")).build()),
+                "c.year, c.car_id");
+
+        assertTrue(plan.contains("idx_car_make_id_year"), plan);
+    }
+
+    @Test
+    public void search_byMakeSortedByModel_usesMakeModelIndex() {
+        String plan = explain(new CarFilterSql(CarFilter.builder().makeNames(List.of("Toyota")).build()),
+                "c.model, c.car_id");
+
+        assertTrue(plan.contains("idx_car_make_id_model"), plan);
+    }
+
+    @Test
+    public void search_byYear_usesYearIndex() {
+        String plan = explain(new CarFilterSql(CarFilter.builder().yearFrom(2000).yearTo(2000).build()), "c.car_id");
+
+        assertTrue(plan.contains("idx_car_year"), plan);
+    }
+
+    @Test
+    public void search_sortedByMakeAndYear_usesMakeYearIndex() {
+        String plan = explain(new CarFilterSql(CarFilter.all()), "c.make_id, c.year, c.car_id");
+
+        assertTrue(plan.contains("idx_car_make_id_year") && !plan.contains("Sort"), plan);
+    }
+
+    @Test
+    public void search_byModel_usesModelIndex() {
+        String plan = explain(new CarFilterSql(CarFilter.builder().models(List.of("Model 1")).build()), "c.car_id");
+
+        assertTrue(plan.contains("idx_car_model"), plan);
+    }
+
+    @Test
+    public void search_byCategories_intersectsCategoryPostings() {
+        String plan = explain(new CarFilterSql(CarFilter.builder().categoryIds(List.of(1L, 2L)).build()), "c.car_id");
+
+        assertTrue(plan.contains("idx_cars_categories_category_id"), plan);
+    }
+
+    @Test
+    public void search_byYearRange_usesYearIndex() {
+        String plan = explain(new CarFilterSql(CarFilter.builder().yearFrom(2000).yearTo(2003).build()),
+                "c.year, c.car_id");
+
+        assertTrue(plan.contains("idx_car_year"), plan);
+    }
+
+    @Test
+    public void search_byMakes_resolvesMakeIdsBeforeScanningCars() {
+        String plan = explain(new CarFilterSql(CarFilter.builder().makeNames(List.of("Toyota", "Honda"))
+                .yearFrom(2000).build()), "c.car_id");
+
+        assertTrue(plan.contains("InitPlan") && plan.contains("make_id = ANY") && !plan.contains("Join"), plan);
+    }
+
+    @Test
+    public void search_byModels_usesModelIndex() {
+        String plan = explain(new CarFilterSql(CarFilter.builder().models(List.of("Model 1", "Model 2")).build()),
+                "c.car_id");
+
+        assertTrue(plan.contains("idx_car_model"), plan);
+    }
+
+    @Test
+    public void search_byAnyCategory_readsCategoryPostings() {
+        String plan = explain(new CarFilterSql(CarFilter.builder().categoryIds(List.of(1L, 2L))
+                .categoryMatch(CategoryMatch.ANY).build()), "c.car_id");
+
+        assertTrue(plan.contains("idx_cars_categories_category_id"), plan);
+    }
+
+    @Test
+    public void categoryPostings_useCategoryIndex() {
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+                "EXPLAIN SELECT cc.car_id FROM cars_categories cc WHERE cc.category_id = 1", String.class));
+
+        assertTrue(plan.contains("idx_cars_categories_category_id"), plan);
+    }
+
+    @Test
+    public void modelSuggestions_readPrefixRangeOfLowerCaseModelIndex() {
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN SELECT model COLLATE \"C\", count(*) " +
+                "FROM car WHERE lower(model) COLLATE \"C\" LIKE 'model 1%' " +
+                "GROUP BY lower(model) COLLATE \"C\", model COLLATE \"C\" " +
+                "ORDER BY lower(model) COLLATE \"C\", model COLLATE \"C\" LIMIT 10", String.class));
+
+        assertTrue(plan.contains("idx_car_model_lower") && !plan.contains("Sort"), plan);
+    }
+
+    private String explain(CarFilterSql filter, String orderBy) {
+        return String.join("\n", namedParameterJdbcTemplate.queryForList(
+                "EXPLAIN SELECT c.car_id FROM car c" + filter.getWhereClause() + " ORDER BY " + orderBy + " LIMIT 10",
+                filter.getParameters(), String.class));
+    }
+}
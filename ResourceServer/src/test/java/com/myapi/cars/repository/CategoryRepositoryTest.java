@@ -1,7 +1,10 @@
 package com.myapi.cars.repository;
 
+import com.myapi.cars.exception.EntityAlreadyExistsException;
 import com.myapi.cars.model.Category;
+import com.myapi.cars.utility.ConstraintViolationUtils;
 import org.flywaydb.core.Flyway;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,10 +12,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
@@ -89,6 +97,44 @@ public class CategoryRepositoryTest {
         assertEquals(category, categoryFromDB);
     }
 
+    @Test
+    public void findIdsByNameIn_success() {
+        Category sedan = new Category("Sedan");
+        Category sport = new Category("Sport");
+        entityManager.persist(sedan);
+        entityManager.persist(sport);
+        entityManager.persist(new Category("Coupe"));
+
+        List<Long> ids = categoryRepository.findIdsByNameIn(List.of("Sedan", "Sport", "Unknown"));
+
+        assertEquals(Set.of(sedan.getId(), sport.getId()), Set.copyOf(ids));
+    }
+
+    @Test
+    public void hashCode_whenProxy_equalsLoadedCategoryWithoutInitializingIt() {
+        Category category = new Category("Sedan");
+        entityManager.persistAndFlush(category);
+        entityManager.clear();
+
+        Category reference = categoryRepository.getReferenceById(category.getId());
+        Set<Category> categories = new HashSet<>(Set.of(reference));
+
+        assertTrue(categories.contains(category));
+        assertEquals(category.hashCode(), reference.hashCode());
+        assertFalse(Hibernate.isInitialized(reference));
+    }
+
+    @Test
+    public void hashCode_whenPersisted_transientCategoryIsStillInHashSet() {
+        Category category = new Category("Sedan");
+        Set<Category> categories = new HashSet<>(Set.of(category));
+
+        entityManager.persistAndFlush(category);
+
+        assertNotNull(category.getId());
+        assertTrue(categories.contains(category));
+    }
+
     @Test
     public void deleteById_success() {
         Category category = new Category("Sedan");
@@ -115,5 +161,25 @@ public class CategoryRepositoryTest {
         assertEquals(0, categoryRepository.findAll().size());
     }
 
+    @Test
+    public void deleteByIdReturningCount_success() {
+        Category category = new Category("Sedan");
+
+        entityManager.persist(category);
+        entityManager.flush();
+
+        assertEquals(1, categoryRepository.deleteByIdReturningCount(category.getId()));
+        assertEquals(0, categoryRepository.deleteByIdReturningCount(category.getId()));
+        assertEquals(0, categoryRepository.findAll().size());
+    }
+
+    @Test
+    public void saveAndFlush_whenNameIsNotUnique_throwDataIntegrityViolationExceptionTranslatedToAlreadyExists() {
+        entityManager.persist(new Category("Sedan"));
+        entityManager.flush();
 
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class,
+                () -> categoryRepository.saveAndFlush(new Category("Sedan")));
+        assertInstanceOf(EntityAlreadyExistsException.class, ConstraintViolationUtils.translate("Category", exception));
+    }
 }
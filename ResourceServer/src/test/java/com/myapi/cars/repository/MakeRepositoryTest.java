@@ -1,6 +1,8 @@
 package com.myapi.cars.repository;
 
+import com.myapi.cars.exception.EntityAlreadyExistsException;
 import com.myapi.cars.model.Make;
+import com.myapi.cars.utility.ConstraintViolationUtils;
 import org.flywaydb.core.Flyway;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,6 +11,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
@@ -115,5 +118,25 @@ public class MakeRepositoryTest {
         assertEquals(0, makeRepository.findAll().size());
     }
 
+    @Test
+    public void deleteByIdReturningCount_success() {
+        Make make = new Make("Toyota");
+
+        entityManager.persist(make);
+        entityManager.flush();
+
+        assertEquals(1, makeRepository.deleteByIdReturningCount(make.getId()));
+        assertEquals(0, makeRepository.deleteByIdReturningCount(make.getId()));
+        assertEquals(0, makeRepository.findAll().size());
+    }
 
+    @Test
+    public void saveAndFlush_whenNameIsNotUnique_throwDataIntegrityViolationExceptionTranslatedToAlreadyExists() {
+        entityManager.persist(new Make("Toyota"));
+        entityManager.flush();
+
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class,
+                () -> makeRepository.saveAndFlush(new Make("Toyota")));
+        assertInstanceOf(EntityAlreadyExistsException.class, ConstraintViolationUtils.translate("Make", exception));
+    }
 }
@@ -0,0 +1,214 @@
+package com.myapi.cars.service;
+
+import com.myapi.cars.cache.CacheInvalidator;
+import com.myapi.cars.dto.CarDTO;
+import com.myapi.cars.dto.CategoryDTO;
+import com.myapi.cars.dto.DTOBulkReport;
+import com.myapi.cars.dto.MakeDTO;
+import com.myapi.cars.exception.EntityNotFoundException;
+import com.myapi.cars.exception.ValidationException;
+import com.myapi.cars.index.CarBitmapIndex;
+import com.myapi.cars.index.CarSuggestionIndex;
+import com.myapi.cars.model.Car;
+import com.myapi.cars.pageable.CarFilter;
+import com.myapi.cars.repository.CarRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class CarBulkServiceTest {
+
+    private CarBulkService carBulkService;
+
+    @Mock
+    private CarRepository carRepository;
+
+    @Mock
+    private MakeService makeService;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
+    @Mock
+    private CarSuggestionIndex carSuggestionIndex;
+
+    @Mock
+    private CarBitmapIndex carBitmapIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void setUp() {
+        carBulkService = bulkService(Optional.empty(), 2);
+    }
+
+    @Test
+    public void updateAllById_updateInChunksAndReportEveryId() {
+        when(carRepository.updateAllByIdIn(List.of(1L, 2L), null, 2020, null, null)).thenReturn(List.of(1L, 2L));
+        when(carRepository.updateAllByIdIn(List.of(3L), null, 2020, null, null)).thenReturn(List.of());
+
+        DTOBulkReport report =
+                carBulkService.updateAllById(List.of(1L, 2L, 1L, 3L), CarDTO.builder().year(2020).build());
+
+        assertEquals(3, report.getMatched());
+        assertEquals(2, report.getSucceeded());
+        assertEquals(0, report.getFailed());
+        assertEquals(List.of(DTOBulkReport.Status.UPDATED, DTOBulkReport.Status.UPDATED,
+                DTOBulkReport.Status.NOT_FOUND), report.getOutcomes().stream().map(DTOBulkReport.Outcome::getStatus)
+                .toList());
+        assertEquals(List.of(1L, 2L, 3L), report.getOutcomes().stream().map(DTOBulkReport.Outcome::getId).toList());
+        verify(cacheInvalidator).invalidateCars(List.of(1L, 2L));
+        verify(cacheInvalidator).invalidateCars(List.of());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    public void updateAllById_resolveMakeAndCategoriesOnce() {
+        when(makeService.findById(3L)).thenReturn(MakeDTO.builder().id(3L).build());
+        when(categoryService.findById(4L)).thenReturn(CategoryDTO.builder().id(4L).build());
+        when(carRepository.updateAllByIdIn(any(), any(), any(), any(), any())).thenReturn(List.of(1L));
+
+        carBulkService.updateAllById(List.of(1L), CarDTO.builder().make(MakeDTO.builder().id(3L).build())
+                .categories(Set.of(CategoryDTO.builder().id(4L).build())).build());
+
+        verify(carRepository).updateAllByIdIn(List.of(1L), 3L, null, null, List.of(4L));
+    }
+
+    @Test
+    public void updateAllById_whenMakeDoesNotExist_throwEntityNotFoundException() {
+        when(makeService.findById(3L)).thenThrow(new EntityNotFoundException("There is no Make with id = 3"));
+
+        assertThrows(EntityNotFoundException.class, () -> carBulkService.updateAllById(List.of(1L),
+                CarDTO.builder().make(MakeDTO.builder().id(3L).build()).build()));
+
+        verifyNoInteractions(carRepository);
+    }
+
+    @Test
+    public void updateAllById_whenPatchIsNotValid_throwValidationException() {
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> carBulkService.updateAllById(List.of(1L), CarDTO.builder().year(-1).build()));
+
+        assertEquals("year", e.getViolations().get(0).getField());
+        verifyNoInteractions(carRepository);
+    }
+
+    @Test
+    public void updateAllById_whenPatchIsEmpty_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> carBulkService.updateAllById(List.of(1L), new CarDTO()));
+
+        verifyNoInteractions(carRepository);
+    }
+
+    @Test
+    public void updateAllById_whenChunkFails_reportItsIdsAndContinue() {
+        when(carRepository.updateAllByIdIn(eq(List.of(1L, 2L)), any(), any(), any(), any())).thenThrow(
+                new DataIntegrityViolationException("make_id"));
+        when(carRepository.updateAllByIdIn(eq(List.of(3L)), any(), any(), any(), any())).thenReturn(List.of(3L));
+
+        DTOBulkReport report =
+                carBulkService.updateAllById(List.of(1L, 2L, 3L), CarDTO.builder().model("Camry").build());
+
+        assertEquals(2, report.getFailed());
+        assertEquals(1, report.getSucceeded());
+        assertEquals(DTOBulkReport.Status.FAILED, report.getOutcomes().get(0).getStatus());
+        assertEquals(DTOBulkReport.Status.UPDATED, report.getOutcomes().get(2).getStatus());
+    }
+
+    @Test
+    public void updateAllById_whenBitmapIndexIsEnabled_reindexUpdatedCars() {
+        CarBulkService indexedBulkService = bulkService(Optional.of(carBitmapIndex), 2);
+        Car car = Car.builder().id(1L).build();
+        when(carRepository.updateAllByIdIn(any(), any(), any(), any(), any())).thenReturn(List.of(1L));
+        when(carRepository.findAllByIdIn(List.of(1L))).thenReturn(List.of(car));
+
+        indexedBulkService.updateAllById(List.of(1L), CarDTO.builder().year(2020).build());
+
+        verify(carBitmapIndex).put(car);
+        verify(carSuggestionIndex).putAll(List.of(car));
+    }
+
+    @Test
+    public void deleteAll_walkMatchingCarsInChunks() {
+        CarFilter filter = CarFilter.builder().makeNames(List.of("Toyota")).build();
+        when(carRepository.findIdsAfter(filter, null, 2)).thenReturn(List.of(1L, 2L));
+        when(carRepository.findIdsAfter(filter, 2L, 2)).thenReturn(List.of(5L));
+        when(carRepository.deleteAllByIdIn(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        DTOBulkReport report = carBulkService.deleteAll(filter, List.of());
+
+        assertEquals(3, report.getSucceeded());
+        assertEquals(List.of(1L, 2L, 5L), report.getOutcomes().stream().map(DTOBulkReport.Outcome::getId).toList());
+        verify(carRepository).deleteAllByIdIn(List.of(1L, 2L));
+        verify(carRepository).deleteAllByIdIn(List.of(5L));
+        verify(carRepository, times(2)).findIdsAfter(any(), any(), anyInt());
+    }
+
+    @Test
+    public void deleteAll_whenCategoryDoesNotExist_deleteNothing() {
+        when(categoryService.findByName("Sedan")).thenReturn(Optional.empty());
+
+        DTOBulkReport report = carBulkService.deleteAll(CarFilter.all(), List.of("Sedan"));
+
+        assertEquals(0, report.getMatched());
+        verifyNoInteractions(carRepository);
+    }
+
+    @Test
+    public void deleteAll_whenNoFilterIsGiven_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> carBulkService.deleteAll(CarFilter.all(), List.of()));
+
+        verifyNoInteractions(carRepository);
+    }
+
+    @Test
+    public void deleteAllById_whenBitmapIndexIsEnabled_unindexDeletedCars() {
+        CarBulkService indexedBulkService = bulkService(Optional.of(carBitmapIndex), 2);
+        when(carRepository.deleteAllByIdIn(List.of(1L, 2L))).thenReturn(List.of(2L));
+
+        DTOBulkReport report = indexedBulkService.deleteAllById(List.of(1L, 2L));
+
+        assertEquals(DTOBulkReport.Status.NOT_FOUND, report.getOutcomes().get(0).getStatus());
+        assertEquals(DTOBulkReport.Status.DELETED, report.getOutcomes().get(1).getStatus());
+        verify(carBitmapIndex).remove(2L);
+        verify(carSuggestionIndex).removeAll(List.of(2L));
+        verify(cacheInvalidator).invalidateCars(List.of(2L));
+    }
+
+    @Test
+    public void deleteAllById_whenIdsAreEmpty_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> carBulkService.deleteAllById(List.of()));
+    }
+
+    @Test
+    public void constructor_whenChunkSizeIsNotPositive_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> bulkService(Optional.empty(), 0));
+    }
+
+    private CarBulkService bulkService(Optional<CarBitmapIndex> carBitmapIndex, int chunkSize) {
+        return new CarBulkService(carRepository, makeService, categoryService, cacheInvalidator, carBitmapIndex,
+                Optional.of(carSuggestionIndex), Validation.buildDefaultValidatorFactory().getValidator(),
+                transactionManager, chunkSize);
+    }
+}
@@ -0,0 +1,190 @@
+package com.myapi.cars.service;
+
+import com.myapi.cars.dto.DTOImportReport;
+import com.myapi.cars.exception.FieldViolation;
+import com.myapi.cars.exception.ValidationException;
+import com.myapi.cars.importing.CarImportFormat;
+import com.myapi.cars.index.CarSuggestionIndex;
+import com.myapi.cars.model.Car;
+import com.myapi.cars.model.Category;
+import com.myapi.cars.model.Make;
+import com.myapi.cars.repository.CarRepository;
+import com.myapi.cars.repository.CategoryRepository;
+import com.myapi.cars.repository.MakeRepository;
+import com.myapi.cars.validation.CarEntityValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class CarImportServiceTest {
+
+    private static final String HEADER = "make,year,model,categories\n";
+
+    private CarImportService carImportService;
+
+    @Mock
+    private CarRepository carRepository;
+
+    @Mock
+    private MakeRepository makeRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private CarEntityValidator carEntityValidator;
+
+    @Mock
+    private CarSuggestionIndex carSuggestionIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void setUp() {
+        carImportService = importService(2, 10);
+
+        when(makeRepository.findAllByNameIn(anyCollection())).thenReturn(List.of(new Make(1L, "Toyota")));
+        when(categoryRepository.findAllByNameIn(anyCollection())).thenReturn(List.of(new Category(1L, "Sedan")));
+    }
+
+    @Test
+    public void importCars_writeRowsInChunks() {
+        DTOImportReport report = importCsv(HEADER + """
+                Toyota,2020,Camry,Sedan
+                Toyota,2021,Corolla,
+                Toyota,2022,Prius,Sedan
+                """);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Iterable<Car>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(carRepository, times(2)).saveAll(captor.capture());
+        List<List<Car>> chunks = captor.getAllValues().stream().map(cars -> {
+            List<Car> chunk = new ArrayList<>();
+            cars.forEach(chunk::add);
+            return chunk;
+        }).toList();
+        assertEquals(2, chunks.get(0).size());
+        assertEquals(1, chunks.get(1).size());
+        assertEquals("Camry", chunks.get(0).get(0).getModel());
+        assertEquals(1L, chunks.get(0).get(0).getMake().getId());
+        assertEquals(1, chunks.get(0).get(0).getCategories().size());
+
+        assertEquals(3, report.getReceived());
+        assertEquals(3, report.getImported());
+        assertEquals(0, report.getFailed());
+        assertTrue(report.getErrors().isEmpty());
+    }
+
+    @Test
+    public void importCars_resolveEachNameOnce() {
+        importCsv(HEADER + """
+                Toyota,2020,Camry,Sedan
+                Toyota,2021,Corolla,Sedan
+                Toyota,2022,Prius,Sedan
+                Toyota,2023,Yaris,Sedan
+                """);
+
+        verify(makeRepository, times(1)).findAllByNameIn(anyCollection());
+        verify(categoryRepository, times(1)).findAllByNameIn(anyCollection());
+    }
+
+    @Test
+    public void importCars_whenNamesDoNotExist_reportRows() {
+        DTOImportReport report = importCsv(HEADER + """
+                Honda,2020,Civic,
+                Toyota,2020,Camry,Sport
+                Toyota,2021,Corolla,Sedan
+                """);
+
+        assertEquals(3, report.getReceived());
+        assertEquals(1, report.getImported());
+        assertEquals(2, report.getFailed());
+        assertEquals(2, report.getErrors().get(0).getLine());
+        assertEquals("There is no Make with name = Honda", report.getErrors().get(0).getMessage());
+        assertEquals(3, report.getErrors().get(1).getLine());
+        assertEquals("There is no Category with name = Sport", report.getErrors().get(1).getMessage());
+    }
+
+    @Test
+    public void importCars_whenRowIsNotValid_reportRow() {
+        doThrow(new ValidationException("Car is not valid",
+                List.of(FieldViolation.builder().field("model").message("must not be blank").build())))
+                .when(carEntityValidator).validate(argThat(car -> car.getModel() == null));
+
+        DTOImportReport report = importCsv(HEADER + """
+                Toyota,2020,,
+                Toyota,,Camry,
+                Toyota,2021,Corolla,
+                """);
+
+        assertEquals(1, report.getImported());
+        assertEquals(2, report.getFailed());
+        assertEquals("model: must not be blank", report.getErrors().get(0).getMessage());
+        assertEquals("year: Car year must not be null", report.getErrors().get(1).getMessage());
+    }
+
+    @Test
+    public void importCars_whenChunkCanNotBeWritten_reportChunkRowsAndContinue() {
+        when(carRepository.saveAll(any())).thenThrow(new DataIntegrityViolationException("duplicate"))
+                .thenReturn(List.of());
+
+        DTOImportReport report = importCsv(HEADER + """
+                Toyota,2020,Camry,
+                Toyota,2021,Corolla,
+                Toyota,2022,Prius,
+                """);
+
+        assertEquals(3, report.getReceived());
+        assertEquals(1, report.getImported());
+        assertEquals(2, report.getFailed());
+        assertEquals(List.of(2L, 3L), report.getErrors().stream().map(DTOImportReport.RowError::getLine).toList());
+    }
+
+    @Test
+    public void importCars_whenErrorsExceedLimit_truncateErrors() {
+        carImportService = importService(2, 1);
+
+        DTOImportReport report = importCsv(HEADER + """
+                Toyota,new,Camry,
+                Toyota,2020
+                """);
+
+        assertEquals(2, report.getFailed());
+        assertEquals(1, report.getErrors().size());
+        assertTrue(report.getErrorsTruncated());
+        verifyNoInteractions(carRepository);
+    }
+
+    @Test
+    public void constructor_whenChunkSizeIsNotPositive_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> importService(0, 10));
+    }
+
+    private CarImportService importService(int chunkSize, int maxReportedErrors) {
+        return new CarImportService(carRepository, makeRepository, categoryRepository, carEntityValidator,
+                Optional.empty(), Optional.of(carSuggestionIndex), transactionManager, chunkSize, maxReportedErrors);
+    }
+
+    private DTOImportReport importCsv(String body) {
+        return carImportService.importCars(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                CarImportFormat.CSV, StandardCharsets.UTF_8);
+    }
+}
@@ -1,13 +1,32 @@
 package com.myapi.cars.service;
 
+import com.myapi.cars.cache.CacheInvalidator;
+import com.myapi.cars.config.CarReadModelProperties;
+import com.myapi.cars.config.CarReadModelProperties.ReadModel;
 import com.myapi.cars.converter.CarFromCarDTOUpdater;
 import com.myapi.cars.converter.CarFromCarDTOUpdaterTest;
 import com.myapi.cars.dto.CarDTO;
+import com.myapi.cars.dto.CategoryDTO;
+import com.myapi.cars.dto.DTOBatchResponse;
+import com.myapi.cars.dto.DTOFacetCount;
+import com.myapi.cars.dto.DTOSearchResponse;
+import com.myapi.cars.dto.MakeDTO;
 import com.myapi.cars.exception.EntityAlreadyExistsException;
 import com.myapi.cars.exception.EntityNotFoundException;
+import com.myapi.cars.exception.EntityVersionConflictException;
+import com.myapi.cars.exception.PreconditionFailedException;
 import com.myapi.cars.exception.ServiceException;
 import com.myapi.cars.exception.ValidationException;
+import com.myapi.cars.index.CarBitmapIndex;
+import com.myapi.cars.index.CarIdMatch;
+import com.myapi.cars.index.CarSuggestionIndex;
 import com.myapi.cars.model.Car;
+import com.myapi.cars.pageable.CarFacet;
+import com.myapi.cars.pageable.CarFilter;
+import com.myapi.cars.pageable.CategoryMatch;
+import com.myapi.cars.pageable.KeysetCursor;
+import com.myapi.cars.pageable.OffsetBasedPageRequest;
+import com.myapi.cars.pageable.TotalMode;
 import com.myapi.cars.repository.CarRepository;
 import com.myapi.cars.validation.CarEntityValidator;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,26 +35,58 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullSource;
 import org.mockito.Mock;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.query.BadJpqlGrammarException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(SpringExtension.class)
 public class CarServiceTest {
 
+    private static final CarReadModelProperties ENTITY_READ_MODEL =
+            new CarReadModelProperties(ReadModel.ENTITY, ReadModel.ENTITY);
+
+    private static final CarReadModelProperties PROJECTION_READ_MODEL =
+            new CarReadModelProperties(ReadModel.PROJECTION, ReadModel.PROJECTION);
+
+    private static final CarFilter MAKE_FILTER = CarFilter.builder().makeNames(List.of("make")).build();
+
+    private static final CarFilter YEAR_FILTER = CarFilter.builder().yearFrom(2020).yearTo(2020).build();
+
     private CarService carService;
 
     @Mock
     private CarRepository carRepository;
 
+    @Mock
+    private CategoryService categoryService;
+
+    @Mock
+    private MakeService makeService;
+
+    @Mock
+    private CarBitmapIndex carBitmapIndex;
+
     @Mock
     private CarEntityValidator carEntityValidator;
 
@@ -45,9 +96,17 @@ public class CarServiceTest {
     @Mock
     private CarFromCarDTOUpdater carFromCarDTOUpdater;
 
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
+    @Mock
+    private CarSuggestionIndex carSuggestionIndex;
+
     @BeforeEach
     public void setUp() {
-        carService = new CarService(carRepository, carEntityValidator, converterService, carFromCarDTOUpdater);
+        carService = new CarService(carRepository, categoryService, makeService, Optional.empty(), carEntityValidator,
+                converterService, carFromCarDTOUpdater, cacheInvalidator, ENTITY_READ_MODEL,
+                Optional.of(carSuggestionIndex));
     }
 
     @ParameterizedTest
@@ -61,7 +120,7 @@ public class CarServiceTest {
 
     @Test
     public void create_whenRepositoryThrowsExceptionExtendsDataAccessException_throwServiceException() {
-        doThrow(BadJpqlGrammarException.class).when(carRepository).existsById(any());
+        doThrow(BadJpqlGrammarException.class).when(carRepository).saveAndFlush(any());
 
         CarDTO carDTO = CarDTO.builder().id(1L).build();
         Car car = Car.builder().id(1L).build();
@@ -71,7 +130,7 @@ public class CarServiceTest {
         assertThrows(ServiceException.class, () -> carService.create(carDTO));
 
         verify(carEntityValidator).validate(any());
-        verify(carRepository).existsById(any());
+        verify(carRepository).saveAndFlush(any());
         verifyNoMoreInteractions(carRepository);
     }
 
@@ -85,8 +144,10 @@ public class CarServiceTest {
     }
 
     @Test
-    public void create_whenEntityAlreadyExists_throwEntityAlreadyExistsException() {
-        when(carRepository.existsById(any())).thenReturn(true);
+    public void create_whenUniqueConstraintIsViolated_throwEntityAlreadyExistsException() {
+        doThrow(new DataIntegrityViolationException("duplicate key",
+                new SQLException("duplicate key value violates unique constraint", "23505")))
+                .when(carRepository).saveAndFlush(any());
 
         CarDTO carDTO = CarDTO.builder().id(1L).build();
         Car car = Car.builder().id(1L).build();
@@ -96,6 +157,7 @@ public class CarServiceTest {
         assertThrows(EntityAlreadyExistsException.class, () -> carService.create(carDTO));
 
         verify(carEntityValidator).validate(any());
+        verifyNoInteractions(cacheInvalidator);
     }
 
     @Test
@@ -104,14 +166,13 @@ public class CarServiceTest {
         Car car = Car.builder().id(1L).build();
 
         when(converterService.convert(carDTO, Car.class)).thenReturn(car);
-        when(carRepository.save(any())).thenReturn(car);
-        when(carRepository.existsById(any())).thenReturn(false);
+        when(carRepository.saveAndFlush(any())).thenReturn(Car.builder().id(2L).build());
 
-        assertEquals(carDTO.getId(), carService.create(carDTO));
+        assertEquals(2L, carService.create(carDTO));
 
-        verify(carRepository).save(car);
-        verify(carRepository).existsById(any());
+        verify(carRepository).saveAndFlush(car);
         verifyNoMoreInteractions(carRepository);
+        assertNull(car.getId());
 
         verify(carEntityValidator).validate(car);
         verifyNoMoreInteractions(carEntityValidator);
@@ -123,7 +184,7 @@ public class CarServiceTest {
     @ParameterizedTest
     @NullSource
     public void update_whenEntityIsNull_throwIllegalArgumentException(CarDTO nullCarDTO) {
-        assertThrows(IllegalArgumentException.class, () -> carService.update(nullCarDTO, 1L));
+        assertThrows(IllegalArgumentException.class, () -> carService.update(nullCarDTO, 1L, null));
 
         verifyNoInteractions(carRepository);
         verifyNoInteractions(carEntityValidator);
@@ -135,7 +196,7 @@ public class CarServiceTest {
 
         CarDTO carDTO = CarDTO.builder().id(1L).build();
 
-        assertThrows(ServiceException.class, () -> carService.update(carDTO, 1L));
+        assertThrows(ServiceException.class, () -> carService.update(carDTO, 1L, null));
 
         verify(carRepository).findById(any());
         verifyNoMoreInteractions(carRepository);
@@ -149,7 +210,7 @@ public class CarServiceTest {
         when(carRepository.findById(any())).thenReturn(Optional.ofNullable(car));
         doThrow(ValidationException.class).when(carEntityValidator).validate(any());
 
-        assertThrows(ValidationException.class, () -> carService.update(carDTO, 1L));
+        assertThrows(ValidationException.class, () -> carService.update(carDTO, 1L, null));
 
         verify(carEntityValidator).validate(any());
 
@@ -166,7 +227,7 @@ public class CarServiceTest {
     public void update_whenEntityDoesNotExists_throwEntityNotFoundException() {
         when(carRepository.findById(any())).thenReturn(Optional.empty());
 
-        assertThrows(EntityNotFoundException.class, () -> carService.update(new CarDTO(), 1L));
+        assertThrows(EntityNotFoundException.class, () -> carService.update(new CarDTO(), 1L, null));
 
         verify(carRepository).findById(any());
         verifyNoMoreInteractions(carRepository);
@@ -182,13 +243,13 @@ public class CarServiceTest {
         Car car = Car.builder().id(1L).build();
 
         when(carRepository.findById(any())).thenReturn(Optional.ofNullable(car));
-        when(carRepository.save(any())).thenReturn(car);
+        when(carRepository.saveAndFlush(any())).thenReturn(car);
         when(converterService.convert(car, CarDTO.class)).thenReturn(carDTO);
 
-        assertEquals(carDTO, carService.update(carDTO, 1L));
+        assertEquals(carDTO, carService.update(carDTO, 1L, null));
 
         verify(carRepository).findById(any());
-        verify(carRepository).save(car);
+        verify(carRepository).saveAndFlush(car);
         verifyNoMoreInteractions(carRepository);
 
         verify(carEntityValidator).validate(car);
@@ -199,24 +260,72 @@ public class CarServiceTest {
 
         verify(converterService).convert(car, CarDTO.class);
         verifyNoMoreInteractions(converterService);
+
+        verify(cacheInvalidator).invalidateCar(1L);
+    }
+
+    @Test
+    public void update_whenIfMatchIsNotCurrent_throwPreconditionFailedException() {
+        CarDTO carDTO = CarDTO.builder().id(1L).build();
+        Car car = Car.builder().id(1L).version(3L).build();
+
+        when(carRepository.findById(any())).thenReturn(Optional.of(car));
+        when(converterService.convert(car, CarDTO.class)).thenReturn(CarDTO.builder().id(1L).version(3L).build());
+
+        assertThrows(PreconditionFailedException.class, () -> carService.update(carDTO, 1L, "\"2.0.0\""));
+
+        verify(carRepository).findById(any());
+        verifyNoMoreInteractions(carRepository);
+        verifyNoInteractions(carFromCarDTOUpdater);
+        verifyNoInteractions(cacheInvalidator);
+    }
+
+    @Test
+    public void update_whenIfMatchIsCurrent_success() {
+        CarDTO carDTO = CarDTO.builder().id(1L).build();
+        Car car = Car.builder().id(1L).version(3L).build();
+
+        when(carRepository.findById(any())).thenReturn(Optional.of(car));
+        when(carRepository.saveAndFlush(any())).thenReturn(car);
+        when(converterService.convert(car, CarDTO.class)).thenReturn(CarDTO.builder().id(1L).version(3L).build());
+
+        carService.update(carDTO, 1L, "\"2.0.0\", \"3.0.0\"");
+
+        verify(carRepository).saveAndFlush(car);
+        verify(cacheInvalidator).invalidateCar(1L);
+    }
+
+    @Test
+    public void update_whenCarWasChangedConcurrently_throwEntityVersionConflictException() {
+        CarDTO carDTO = CarDTO.builder().id(1L).build();
+        Car car = Car.builder().id(1L).build();
+
+        when(carRepository.findById(any())).thenReturn(Optional.of(car));
+        doThrow(ObjectOptimisticLockingFailureException.class).when(carRepository).saveAndFlush(any());
+
+        assertThrows(EntityVersionConflictException.class, () -> carService.update(carDTO, 1L, null));
+
+        verifyNoInteractions(cacheInvalidator);
     }
 
     @Test
     public void deleteById_whenRepositoryThrowsExceptionExtendsDataAccessException_throwServiceException() {
-        doThrow(BadJpqlGrammarException.class).when(carRepository).deleteById(any());
+        doThrow(BadJpqlGrammarException.class).when(carRepository).deleteByIdReturningCount(any());
 
         assertThrows(ServiceException.class, () -> carService.deleteById(1L));
 
-        verify(carRepository).existsById(any());
+        verify(carRepository).deleteByIdReturningCount(any());
     }
 
     @Test
     public void deleteById_whenEntityDoesNotExists_throwEntityDoesNotExistsException() {
-        when(carRepository.existsById(any())).thenReturn(false);
+        when(carRepository.deleteByIdReturningCount(any())).thenReturn(0);
 
         assertThrows(EntityNotFoundException.class, () -> carService.deleteById(1L));
 
-        verify(carRepository).existsById(any());
+        verify(carRepository).deleteByIdReturningCount(any());
+        verifyNoMoreInteractions(carRepository);
+        verifyNoInteractions(cacheInvalidator);
     }
 
     @ParameterizedTest
@@ -229,11 +338,14 @@ public class CarServiceTest {
 
     @Test
     public void deleteById_success() {
-        when(carRepository.existsById(any())).thenReturn(true);
+        when(carRepository.deleteByIdReturningCount(any())).thenReturn(1);
 
         carService.deleteById(1L);
 
-        verify(carRepository).deleteById(any());
+        verify(carRepository).deleteByIdReturningCount(1L);
+        verifyNoMoreInteractions(carRepository);
+
+        verify(cacheInvalidator).invalidateCar(1L);
     }
 
     @ParameterizedTest
@@ -268,22 +380,130 @@ public class CarServiceTest {
         verifyNoMoreInteractions(converterService);
     }
 
+    @Test
+    public void findAllById_returnCarsInIdOrderAndMissingIds() {
+        Car car1 = Car.builder().id(1L).build();
+        Car car3 = Car.builder().id(3L).build();
+        when(carRepository.findAllByIdIn(List.of(3L, 2L, 1L))).thenReturn(List.of(car1, car3));
+        when(converterService.convert(any(Car.class), eq(CarDTO.class))).thenAnswer(
+                invocation -> CarDTO.builder().id(invocation.<Car>getArgument(0).getId()).build());
+
+        DTOBatchResponse response = carService.findAllById(List.of(3L, 2L, 1L, 3L));
+
+        List<Long> ids = new ArrayList<>();
+        response.getData().forEach(dto -> ids.add(((CarDTO) dto).getId()));
+        assertEquals(List.of(3L, 1L), ids);
+        assertEquals(List.of(2L), response.getMissingIds());
+        verify(carRepository).findAllByIdIn(List.of(3L, 2L, 1L));
+        verifyNoMoreInteractions(carRepository);
+    }
+
+    @Test
+    public void findAllById_whenReadModelIsProjection_searchProjectedWithoutConverting() {
+        CarService projectingCarService = newProjectingCarService();
+        CarDTO carDTO = CarDTO.builder().id(2L).build();
+        when(carRepository.findAllProjectedByIdIn(List.of(1L, 2L))).thenReturn(List.of(carDTO));
+
+        DTOBatchResponse response = projectingCarService.findAllById(List.of(1L, 2L));
+
+        assertEquals(List.of(carDTO), response.getData());
+        assertEquals(List.of(1L), response.getMissingIds());
+        verifyNoInteractions(converterService);
+    }
+
+    @Test
+    public void findAllById_whenTooManyIds_throwIllegalArgumentException() {
+        List<Long> ids = LongStream.rangeClosed(1, CarService.MAX_BATCH_SIZE + 1).boxed().toList();
+
+        assertThrows(IllegalArgumentException.class, () -> carService.findAllById(ids));
+        assertThrows(IllegalArgumentException.class, () -> carService.findAllById(List.of()));
+
+        verifyNoInteractions(carRepository);
+    }
+
+    @Test
+    public void findAllById_whenIdIsNull_throwIllegalArgumentException() {
+        List<Long> ids = new ArrayList<>();
+        ids.add(null);
+
+        assertThrows(IllegalArgumentException.class, () -> carService.findAllById(ids));
+
+        verifyNoInteractions(carRepository);
+    }
+
+    @Test
+    public void findETagById_success() {
+        CarRepository.CarVersions versions = mock(CarRepository.CarVersions.class);
+        when(versions.getVersion()).thenReturn(3L);
+        when(versions.getMakeVersion()).thenReturn(1L);
+        when(versions.getCategoryVersionSum()).thenReturn(4L);
+        when(carRepository.findVersionsById(1L)).thenReturn(Optional.of(versions));
+
+        assertEquals("\"3.1.4\"", carService.findETagById(1L));
+
+        verify(carRepository).findVersionsById(1L);
+        verifyNoMoreInteractions(carRepository);
+        verifyNoInteractions(converterService);
+    }
+
+    @Test
+    public void findETagById_whenEntityDoesNotExists_throwEntityNotFoundException() {
+        when(carRepository.findVersionsById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> carService.findETagById(1L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void exportAll_passesConvertedCarsToConsumer() {
+        Car car = Car.builder().id(1L).build();
+        CarDTO carDTO = CarDTO.builder().id(1L).build();
+        CarFilter filter = CarFilter.builder().makeNames(List.of("Toyota")).yearFrom(2020).yearTo(2020).build();
+        when(categoryService.findByName("Sedan")).thenReturn(Optional.of(CategoryDTO.builder().id(1L).name("Sedan").build()));
+        doAnswer(invocation -> {
+            invocation.<Consumer<Car>>getArgument(1).accept(car);
+            return null;
+        }).when(carRepository).streamAll(eq(filter.withCategoryIds(List.of(1L))), any());
+        when(converterService.convert(car, CarDTO.class)).thenReturn(carDTO);
+
+        List<CarDTO> exported = new ArrayList<>();
+        carService.exportAll(filter, List.of("Sedan"), exported::add);
+
+        assertEquals(List.of(carDTO), exported);
+    }
+
+    @Test
+    public void exportAll_whenCategoryDoesNotExist_exportNothing() {
+        when(categoryService.findByName(any())).thenReturn(Optional.empty());
+
+        carService.exportAll(CarFilter.all(), List.of("Sedan"), carDTO -> fail());
+
+        verifyNoInteractions(carRepository);
+    }
+
+    @Test
+    public void exportAll_whenRepositoryThrowsExceptionExtendsDataAccessException_throwServiceException() {
+        doThrow(BadJpqlGrammarException.class).when(carRepository).streamAll(any(), any());
+
+        assertThrows(ServiceException.class, () -> carService.exportAll(CarFilter.all(), List.of(), carDTO -> {}));
+    }
+
     @Test
     public void findAll_whenRepositoryThrowsExceptionExtendsDataAccessException_throwServiceException() {
-        when(carRepository.findAll(any(), any(), any(), any(), any(), any(Pageable.class))).thenThrow(
+        when(carRepository.findAllAfter(any(), any(), any(), anyLong(), anyInt())).thenThrow(
                 BadJpqlGrammarException.class);
 
         assertThrows(ServiceException.class,
-                () -> carService.findAll("make", 1000, "model", List.of(), Pageable.unpaged()));
+                () -> carService.findAll(MAKE_FILTER, List.of(), OffsetBasedPageRequest.of(10, 0), TotalMode.NONE));
 
-        verify(carRepository).findAll(any(), any(), any(), any(), any(), any(Pageable.class));
+        verify(carRepository).findAllAfter(any(), any(), any(), anyLong(), anyInt());
     }
 
     @ParameterizedTest
     @NullSource
     public void findAll_whenListInNull_throwIllegalArgumentException(List<String> nullList) {
         assertThrows(IllegalArgumentException.class,
-                () -> carService.findAll("make", 1000, "model", nullList, Pageable.unpaged()));
+                () -> carService.findAll(MAKE_FILTER, nullList, Pageable.unpaged(), TotalMode.NONE));
 
         verifyNoInteractions(carRepository);
     }
@@ -292,21 +512,505 @@ public class CarServiceTest {
     @NullSource
     public void findAll_whenPageableIsNull_throwIllegalArgumentException(Pageable nullPageable) {
         assertThrows(IllegalArgumentException.class,
-                () -> carService.findAll("make", 1000, "model", List.of(), nullPageable));
+                () -> carService.findAll(MAKE_FILTER, List.of(), nullPageable, TotalMode.NONE));
+
+        verifyNoInteractions(carRepository);
+    }
+
+    @ParameterizedTest
+    @NullSource
+    public void findAll_whenTotalModeIsNull_throwIllegalArgumentException(TotalMode nullTotalMode) {
+        assertThrows(IllegalArgumentException.class,
+                () -> carService.findAll(MAKE_FILTER, List.of(), Pageable.unpaged(), nullTotalMode));
 
         verifyNoInteractions(carRepository);
     }
 
     @Test
     public void findAll_success() {
-        when(carRepository.findAll(any(), any(), any(), any(), any(), any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+        when(carRepository.findAllAfter(any(), any(), any(), anyLong(), anyInt())).thenReturn(
+                List.of());
 
         Pageable pageable = mock(Pageable.class);
         when(pageable.getSort()).thenReturn(mock(org.springframework.data.domain.Sort.class));
 
-        assertDoesNotThrow(() -> carService.findAll("make", 1000, "model", List.of(), pageable));
+        assertDoesNotThrow(() -> carService.findAll(MAKE_FILTER, List.of(), pageable, TotalMode.NONE));
 
-        verify(carRepository).findAll(any(), any(), any(), any(), any(), any(Pageable.class));
+        verify(carRepository).findAllAfter(any(), any(), any(), anyLong(), anyInt());
+        verifyNoMoreInteractions(carRepository);
     }
-}
 
+    @Test
+    public void findAll_whenTotalModeIsNone_doesNotCount() {
+        Pageable pageable = OffsetBasedPageRequest.of(10, 0, Sort.by("id"));
+        when(carRepository.findAllAfter(any(), any(), any(), anyLong(), anyInt())).thenReturn(
+                List.of());
+
+        DTOSearchResponse response = carService.findAll(CarFilter.all(), List.of(), pageable, TotalMode.NONE);
+
+        assertNull(response.getTotal());
+        assertFalse(response.getHasNext());
+        verify(carRepository).findAllAfter(CarFilter.all(), null, pageable.getSort(), 0, 11);
+        verifyNoMoreInteractions(carRepository);
+    }
+
+    @Test
+    public void findAll_whenTotalModeIsExact_returnCount() {
+        Pageable pageable = OffsetBasedPageRequest.of(10, 0, Sort.by("id"));
+        when(carRepository.findAllAfter(any(), any(), any(), anyLong(), anyInt())).thenReturn(
+                List.of());
+        when(carRepository.countAll(MAKE_FILTER)).thenReturn(42L);
+
+        DTOSearchResponse response = carService.findAll(MAKE_FILTER, List.of(), pageable, TotalMode.EXACT);
+
+        assertEquals(42, response.getTotal());
+        verify(carRepository).countAll(MAKE_FILTER);
+        verify(carRepository, never()).estimateCount(any());
+    }
+
+    @Test
+    public void findAll_whenTotalModeIsEstimated_returnEstimate() {
+        Pageable pageable = OffsetBasedPageRequest.of(10, 0, Sort.by("id"));
+        when(carRepository.findAllAfter(any(), any(), any(), anyLong(), anyInt())).thenReturn(
+                List.of());
+        when(carRepository.estimateCount(MAKE_FILTER)).thenReturn(40L);
+
+        DTOSearchResponse response =
+                carService.findAll(MAKE_FILTER, List.of(), pageable, TotalMode.ESTIMATED);
+
+        assertEquals(40, response.getTotal());
+        verify(carRepository).estimateCount(MAKE_FILTER);
+        verify(carRepository, never()).countAll(any());
+    }
+
+    @Test
+    public void findAll_whenNextPageExists_returnNextCursor() {
+        Car car = Car.builder().id(5L).year(2020).build();
+        Pageable pageable = OffsetBasedPageRequest.of(1, 0, Sort.by("year"));
+        when(carRepository.findAllAfter(any(), any(), any(), anyLong(), anyInt())).thenReturn(
+                List.of(car, Car.builder().id(6L).year(2021).build()));
+
+        DTOSearchResponse response = carService.findAll(CarFilter.all(), List.of(), pageable, TotalMode.NONE);
+
+        assertTrue(response.getHasNext());
+        KeysetCursor cursor = KeysetCursor.decode(response.getNextCursor());
+        assertEquals(List.of(2020, 5), cursor.getValues());
+    }
+
+    @Test
+    public void findAll_loadsCategoriesOfTheWholePageAtOnce() {
+        Car car1 = Car.builder().id(5L).build();
+        Car car2 = Car.builder().id(6L).build();
+        Pageable pageable = OffsetBasedPageRequest.of(2, 0, Sort.by("id"));
+        when(carRepository.findAllAfter(any(), any(), any(), anyLong(), anyInt())).thenReturn(
+                List.of(car1, car2));
+
+        carService.findAll(CarFilter.all(), List.of(), pageable, TotalMode.NONE);
+
+        verify(carRepository).findAllAfter(CarFilter.all(), null, pageable.getSort(), 0, 3);
+        verify(carRepository).findAllByIdIn(List.of(5L, 6L));
+        verifyNoMoreInteractions(carRepository);
+    }
+
+    @Test
+    public void findAll_whenCategoriesAreSearched_searchByCategoryIds() {
+        Pageable pageable = OffsetBasedPageRequest.of(10, 0, Sort.by("id"));
+        when(categoryService.findByName("Sedan")).thenReturn(Optional.of(CategoryDTO.builder().id(1L).name("Sedan").build()));
+        when(categoryService.findByName("Sport")).thenReturn(Optional.of(CategoryDTO.builder().id(2L).name("Sport").build()));
+        when(carRepository.findAllAfter(any(), any(), any(), anyLong(), anyInt())).thenReturn(
+                List.of());
+
+        carService.findAll(CarFilter.all(), List.of("Sedan", "Sport", "Sedan"), pageable, TotalMode.NONE);
+
+        verify(categoryService).findByName("Sedan");
+        verify(categoryService).findByName("Sport");
+        verifyNoMoreInteractions(categoryService);
+        verify(carRepository).findAllAfter(CarFilter.builder().categoryIds(List.of(1L, 2L)).build(), null,
+                pageable.getSort(), 0, 11);
+    }
+
+    @Test
+    public void findAll_whenCategoryDoesNotExist_returnEmptyWithoutSearching() {
+        Pageable pageable = OffsetBasedPageRequest.of(10, 0, Sort.by("id"));
+        when(categoryService.findByName("Sedan")).thenReturn(Optional.of(CategoryDTO.builder().id(1L).name("Sedan").build()));
+        when(categoryService.findByName("Unknown")).thenReturn(Optional.empty());
+
+        DTOSearchResponse response =
+                carService.findAll(CarFilter.all(), List.of("Sedan", "Unknown"), pageable, TotalMode.EXACT);
+
+        assertFalse(response.getData().iterator().hasNext());
+        assertEquals(0, response.getTotal());
+        assertFalse(response.getHasNext());
+        verifyNoInteractions(carRepository);
+    }
+
+    @Test
+    public void findAll_whenAnyCategoryIsSearched_leaveOutCategoriesThatDoNotExist() {
+        Pageable pageable = OffsetBasedPageRequest.of(10, 0, Sort.by("id"));
+        CarFilter filter = CarFilter.builder().categoryMatch(CategoryMatch.ANY).build();
+        when(categoryService.findByName("Sedan")).thenReturn(Optional.of(CategoryDTO.builder().id(1L).name("Sedan").build()));
+        when(categoryService.findByName("Unknown")).thenReturn(Optional.empty());
+        when(carRepository.findAllAfter(any(), any(), any(), anyLong(), anyInt())).thenReturn(List.of());
+
+        carService.findAll(filter, List.of("Unknown", "Sedan"), pageable, TotalMode.NONE);
+        DTOSearchResponse response = carService.findAll(filter, List.of("Unknown"), pageable, TotalMode.EXACT);
+
+        verify(carRepository).findAllAfter(filter.withCategoryIds(List.of(1L)), null, pageable.getSort(), 0, 11);
+        verifyNoMoreInteractions(carRepository);
+        assertEquals(0, response.getTotal());
+    }
+
+    @Test
+    public void findAll_whenBitmapIndexCoversRangeAndMultiValueSearch_searchIndexByMakeIds() {
+        CarService indexedCarService = newIndexedCarService();
+        Pageable pageable = OffsetBasedPageRequest.of(10, 0, Sort.by("id"));
+        CarFilter filter = CarFilter.builder().makeNames(List.of("Toyota", "Unknown", "Honda")).yearFrom(2018)
+                .build();
+        when(makeService.findByName("Toyota")).thenReturn(Optional.of(MakeDTO.builder().id(1L).build()));
+        when(makeService.findByName("Unknown")).thenReturn(Optional.empty());
+        when(makeService.findByName("Honda")).thenReturn(Optional.of(MakeDTO.builder().id(2L).build()));
+        when(carBitmapIndex.search(any(), any(), any(), any(), any())).thenReturn(Optional.of(CarIdMatch.empty()));
+
+        indexedCarService.findAll(filter, List.of(), pageable, TotalMode.NONE);
+
+        verify(carBitmapIndex).search(List.of(1L, 2L), 2018, null, null, CategoryMatch.ALL);
+        verifyNoInteractions(carRepository);
+    }
+
+    @Test
+    public void findAll_whenNextPageDoesNotExist_returnNoCursor() {
+        Car car = Car.builder().id(5L).year(2020).build();
+        Pageable pageable = OffsetBasedPageRequest.of(1, 0, Sort.by("year"));
+        when(carRepository.findAllAfter(any(), any(), any(), anyLong(), anyInt())).thenReturn(
+                List.of(car));
+
+        DTOSearchResponse response = carService.findAll(CarFilter.all(), List.of(), pageable, TotalMode.NONE);
+
+        assertNull(response.getNextCursor());
+    }
+
+    @Test
+    public void findAllAfterCursor_success() {
+        Sort sort = Sort.by("year");
+        KeysetCursor cursor = KeysetCursor.of(sort, Car.builder().id(5L).year(2020).build()).orElseThrow();
+        Car car1 = Car.builder().id(6L).year(2021).build();
+        Car car2 = Car.builder().id(7L).year(2022).build();
+        CarDTO carDTO = CarDTO.builder().id(6L).build();
+
+        when(carRepository.findAllAfter(any(), any(), any(), anyLong(), anyInt())).thenReturn(
+                List.of(car1, car2));
+        when(converterService.convert(car1, CarDTO.class)).thenReturn(carDTO);
+
+        DTOSearchResponse response =
+                carService.findAll(MAKE_FILTER, List.of(), cursor.encode(), 1, sort, TotalMode.NONE);
+
+        assertEquals(List.of(carDTO), response.getData());
+        assertTrue(response.getHasNext());
+        assertEquals(List.of(2021, 6), KeysetCursor.decode(response.getNextCursor()).getValues());
+        verify(carRepository).findAllAfter(MAKE_FILTER, KeysetCursor.decode(cursor.encode()), sort, 0, 2);
+        verify(carRepository).findAllByIdIn(List.of(6L));
+        verifyNoMoreInteractions(carRepository);
+    }
+
+    @Test
+    public void findAllAfterCursor_whenLastPage_returnNoCursor() {
+        Sort sort = Sort.by("year");
+        KeysetCursor cursor = KeysetCursor.of(sort, Car.builder().id(5L).year(2020).build()).orElseThrow();
+
+        when(carRepository.findAllAfter(any(), any(), any(), anyLong(), anyInt())).thenReturn(
+                List.of(Car.builder().id(6L).year(2021).build()));
+        when(carRepository.countAll(any())).thenReturn(2L);
+
+        DTOSearchResponse response =
+                carService.findAll(CarFilter.all(), List.of(), cursor.encode(), 1, sort, TotalMode.EXACT);
+
+        assertFalse(response.getHasNext());
+        assertNull(response.getNextCursor());
+        assertEquals(2, response.getTotal());
+    }
+
+    @Test
+    public void findAllAfterCursor_whenCursorIsMalformed_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> carService.findAll(CarFilter.all(), List.of(), "malformed", 10, Sort.by("id"),
+                        TotalMode.NONE));
+
+        verifyNoInteractions(carRepository);
+    }
+
+    @Test
+    public void findAllAfterCursor_whenCursorValueDoesNotFitSortKey_throwIllegalArgumentException() {
+        String cursor = Base64.getUrlEncoder().encodeToString(
+                "{\"sort\":\"year: DESC,id: DESC\",\"values\":[\"abc\",7]}".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IllegalArgumentException.class, () -> carService.findAll(CarFilter.all(), List.of(), cursor, 10,
+                Sort.by(Sort.Direction.DESC, "year"), TotalMode.NONE));
+
+        verifyNoInteractions(carRepository);
+    }
+
+    @Test
+    public void findAllAfterCursor_whenRepositoryThrowsExceptionExtendsDataAccessException_throwServiceException() {
+        String cursor = KeysetCursor.of(Sort.by("id"), Car.builder().id(5L).build()).orElseThrow().encode();
+        when(carRepository.findAllAfter(any(), any(), any(), anyLong(), anyInt())).thenThrow(
+                BadJpqlGrammarException.class);
+
+        assertThrows(ServiceException.class,
+                () -> carService.findAll(CarFilter.all(), List.of(), cursor, 10, Sort.by("id"), TotalMode.NONE));
+    }
+
+    @Test
+    public void findAll_whenBitmapIndexCoversSearch_loadOnlyThePage() {
+        CarService indexedCarService = newIndexedCarService();
+        Pageable pageable = OffsetBasedPageRequest.of(2, 1, Sort.by(Sort.Direction.DESC, "id"));
+        CarIdMatch match = mock(CarIdMatch.class);
+        when(makeService.findByName("make")).thenReturn(Optional.of(MakeDTO.builder().id(3L).name("make").build()));
+        when(carBitmapIndex.search(List.of(3L), 2020, 2020, null, CategoryMatch.ALL)).thenReturn(Optional.of(match));
+        when(match.getPage(Sort.Direction.DESC, null, 1, 3)).thenReturn(List.of(9L, 7L, 4L));
+        when(match.size()).thenReturn(4L);
+        when(carRepository.findAllByIdIn(List.of(9L, 7L))).thenReturn(
+                List.of(Car.builder().id(7L).build(), Car.builder().id(9L).build()));
+        when(converterService.convert(any(Car.class), eq(CarDTO.class))).thenAnswer(
+                invocation -> CarDTO.builder().id(invocation.<Car>getArgument(0).getId()).build());
+
+        DTOSearchResponse response =
+                indexedCarService.findAll(MAKE_FILTER.toBuilder().yearFrom(2020).yearTo(2020).build(), List.of(),
+                        pageable, TotalMode.EXACT);
+
+        List<Long> ids = new ArrayList<>();
+        response.getData().forEach(dto -> ids.add(((CarDTO) dto).getId()));
+        assertEquals(List.of(9L, 7L), ids);
+        assertEquals(4, response.getTotal());
+        assertTrue(response.getHasNext());
+        verify(carRepository).findAllByIdIn(List.of(9L, 7L));
+        verifyNoMoreInteractions(carRepository);
+    }
+
+    @Test
+    public void findAll_whenBitmapIndexDoesNotCoverSearch_searchInSql() {
+        CarService indexedCarService = newIndexedCarService();
+        Pageable byId = OffsetBasedPageRequest.of(10, 0, Sort.by("id"));
+        Pageable byYear = OffsetBasedPageRequest.of(10, 0, Sort.by("year"));
+        when(carRepository.findAllAfter(any(), any(), any(), anyLong(), anyInt())).thenReturn(
+                List.of());
+
+        indexedCarService.findAll(CarFilter.builder().models(List.of("model")).build(), List.of(), byId,
+                TotalMode.NONE);
+        indexedCarService.findAll(CarFilter.all(), List.of(), byYear, TotalMode.NONE);
+
+        verifyNoInteractions(carBitmapIndex);
+        verify(carRepository, times(2)).findAllAfter(any(), any(), any(), anyLong(), anyInt());
+    }
+
+    @Test
+    public void findAll_whenBitmapIndexIsNotBuilt_searchInSql() {
+        CarService indexedCarService = newIndexedCarService();
+        Pageable pageable = OffsetBasedPageRequest.of(10, 0, Sort.by("id"));
+        when(carBitmapIndex.search(any(), any(), any(), any(), any())).thenReturn(Optional.empty());
+        when(carRepository.findAllAfter(any(), any(), any(), anyLong(), anyInt())).thenReturn(
+                List.of());
+
+        indexedCarService.findAll(YEAR_FILTER, List.of(), pageable, TotalMode.NONE);
+
+        verify(carRepository).findAllAfter(YEAR_FILTER, null, pageable.getSort(), 0, 11);
+    }
+
+    @Test
+    public void countFacets_countInOneGroupedQuery() {
+        Map<CarFacet, List<DTOFacetCount>> counts = Map.of(CarFacet.MAKE, List.of(new DTOFacetCount("Toyota", 3L)),
+                CarFacet.YEAR, List.of(new DTOFacetCount("2020", 2L), new DTOFacetCount("2019", 1L)));
+        CarFilter filter = CarFilter.builder().makeNames(List.of("Toyota")).build();
+        when(carRepository.countFacets(filter, Set.of(CarFacet.MAKE, CarFacet.YEAR), 5)).thenReturn(counts);
+
+        Map<String, List<DTOFacetCount>> facets =
+                carService.countFacets(filter, List.of(), Set.of(CarFacet.MAKE, CarFacet.YEAR), 5);
+
+        assertEquals(List.of("make", "year"), List.copyOf(facets.keySet()));
+        assertEquals(counts.get(CarFacet.YEAR), facets.get("year"));
+        verify(carRepository).countFacets(any(), any(), anyInt());
+        verifyNoMoreInteractions(carRepository);
+    }
+
+    @Test
+    public void countFacets_whenCategoryDoesNotExist_returnEmptyCountsWithoutCounting() {
+        when(categoryService.findByName("Sedan")).thenReturn(Optional.empty());
+
+        Map<String, List<DTOFacetCount>> facets =
+                carService.countFacets(CarFilter.all(), List.of("Sedan"), Set.of(CarFacet.CATEGORY), 5);
+
+        assertEquals(Map.of("category", List.of()), facets);
+        verifyNoInteractions(carRepository);
+    }
+
+    @Test
+    public void countFacets_whenLimitIsOutOfRange_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> carService.countFacets(CarFilter.all(), List.of(), Set.of(CarFacet.YEAR), 0));
+        assertThrows(IllegalArgumentException.class, () -> carService.countFacets(CarFilter.all(), List.of(),
+                Set.of(CarFacet.YEAR), CarService.MAX_FACET_LIMIT + 1));
+
+        verifyNoInteractions(carRepository);
+    }
+
+    @Test
+    public void countFacets_whenBitmapIndexCoversSearch_countFromIndexOrderedByCountAndName() {
+        CarService indexedCarService = newIndexedCarService();
+        CarIdMatch match = mock(CarIdMatch.class);
+        when(carBitmapIndex.search(null, 2020, 2020, null, CategoryMatch.ALL)).thenReturn(Optional.of(match));
+        when(carBitmapIndex.count(match, CarFacet.MAKE)).thenReturn(Optional.of(Map.of(1L, 2L, 2L, 5L, 3L, 2L)));
+        when(makeService.findById(1L)).thenReturn(MakeDTO.builder().id(1L).name("Toyota").build());
+        when(makeService.findById(2L)).thenReturn(MakeDTO.builder().id(2L).name("Audi").build());
+        when(makeService.findById(3L)).thenReturn(MakeDTO.builder().id(3L).name("BMW").build());
+
+        Map<String, List<DTOFacetCount>> facets =
+                indexedCarService.countFacets(YEAR_FILTER, List.of(), Set.of(CarFacet.MAKE), 2);
+
+        assertEquals(List.of(new DTOFacetCount("Audi", 5L), new DTOFacetCount("BMW", 2L)), facets.get("make"));
+        verifyNoInteractions(carRepository);
+    }
+
+    @Test
+    public void countFacets_whenBitmapIndexDoesNotCoverSearch_countInSql() {
+        CarService indexedCarService = newIndexedCarService();
+        when(carRepository.countFacets(any(), any(), anyInt())).thenReturn(Map.of());
+
+        CarFilter filter = CarFilter.builder().models(List.of("Camry")).build();
+
+        indexedCarService.countFacets(filter, List.of(), Set.of(CarFacet.YEAR), 10);
+
+        verifyNoInteractions(carBitmapIndex);
+        verify(carRepository).countFacets(filter, Set.of(CarFacet.YEAR), 10);
+    }
+
+    @Test
+    public void findAllAfterCursor_whenBitmapIndexCoversSearch_seekPastCursorId() {
+        CarService indexedCarService = newIndexedCarService();
+        Sort sort = Sort.by("id");
+        KeysetCursor cursor = KeysetCursor.of(sort, Car.builder().id(5L).build()).orElseThrow();
+        CarIdMatch match = mock(CarIdMatch.class);
+        when(carBitmapIndex.search(null, null, null, null, CategoryMatch.ALL)).thenReturn(Optional.of(match));
+        when(match.getPage(Sort.Direction.ASC, 5L, 0, 2)).thenReturn(List.of(6L));
+        when(carRepository.findAllByIdIn(List.of(6L))).thenReturn(List.of(Car.builder().id(6L).build()));
+
+        DTOSearchResponse response =
+                indexedCarService.findAll(CarFilter.all(), List.of(), cursor.encode(), 1, sort, TotalMode.NONE);
+
+        assertFalse(response.getHasNext());
+        assertNull(response.getTotal());
+        verify(carRepository, never()).findAllAfter(any(), any(), any(), anyLong(), anyInt());
+    }
+
+    @Test
+    public void findAllAfterCursor_whenBitmapIndexCoversSearchAndCursorIdIsOutOfRange_throwIllegalArgumentException() {
+        CarService indexedCarService = newIndexedCarService();
+        Sort sort = Sort.by("id");
+        when(carBitmapIndex.search(null, null, null, null, CategoryMatch.ALL)).thenReturn(Optional.of(
+                mock(CarIdMatch.class)));
+
+        for (long id : List.of(Integer.MAX_VALUE + 1L, Long.MAX_VALUE, 0L, -5L)) {
+            String cursor = KeysetCursor.of(sort, Car.builder().id(id).build()).orElseThrow().encode();
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> indexedCarService.findAll(CarFilter.all(), List.of(), cursor, 1, sort, TotalMode.NONE));
+        }
+        verifyNoInteractions(carRepository);
+    }
+
+    @Test
+    public void create_whenBitmapIndexIsEnabled_indexCar() {
+        CarService indexedCarService = newIndexedCarService();
+        CarDTO carDTO = CarDTO.builder().build();
+        Car car = Car.builder().id(1L).build();
+        when(converterService.convert(carDTO, Car.class)).thenReturn(car);
+        when(carRepository.saveAndFlush(car)).thenReturn(car);
+
+        indexedCarService.create(carDTO);
+
+        verify(carBitmapIndex).put(car);
+        verify(carSuggestionIndex).put(car);
+    }
+
+    @Test
+    public void deleteById_whenBitmapIndexIsEnabled_unindexCar() {
+        CarService indexedCarService = newIndexedCarService();
+        when(carRepository.deleteByIdReturningCount(1L)).thenReturn(1);
+
+        indexedCarService.deleteById(1L);
+
+        verify(carBitmapIndex).remove(1L);
+        verify(carSuggestionIndex).remove(1L);
+    }
+
+    @Test
+    public void findAll_whenReadModelIsProjection_searchProjectedWithoutConverting() {
+        CarService projectingCarService = newProjectingCarService();
+        Pageable pageable = OffsetBasedPageRequest.of(2, 4, Sort.by("year"));
+        CarDTO carDTO1 = CarDTO.builder().id(5L).year(2020).build();
+        CarDTO carDTO2 = CarDTO.builder().id(6L).year(2021).build();
+        when(carRepository.findAllProjected(any(), any(), any(), anyLong(), anyInt())).thenReturn(
+                List.of(carDTO1, carDTO2, CarDTO.builder().id(7L).year(2022).build()));
+
+        DTOSearchResponse response =
+                projectingCarService.findAll(MAKE_FILTER, List.of(), pageable, TotalMode.NONE);
+
+        assertEquals(List.of(carDTO1, carDTO2), response.getData());
+        assertTrue(response.getHasNext());
+        assertEquals(List.of(2021, 6), KeysetCursor.decode(response.getNextCursor()).getValues());
+        verify(carRepository).findAllProjected(MAKE_FILTER, null, pageable.getSort(), 4, 3);
+        verifyNoMoreInteractions(carRepository);
+        verifyNoInteractions(converterService);
+    }
+
+    @Test
+    public void findAllAfterCursor_whenReadModelIsProjection_searchProjectedPastCursor() {
+        CarService projectingCarService = newProjectingCarService();
+        Sort sort = Sort.by("year");
+        KeysetCursor cursor = KeysetCursor.of(sort, CarDTO.builder().id(5L).year(2020).build()).orElseThrow();
+        CarDTO carDTO = CarDTO.builder().id(6L).year(2021).build();
+        when(carRepository.findAllProjected(any(), any(), any(), anyLong(), anyInt())).thenReturn(
+                List.of(carDTO));
+
+        DTOSearchResponse response =
+                projectingCarService.findAll(CarFilter.all(), List.of(), cursor.encode(), 1, sort, TotalMode.NONE);
+
+        assertEquals(List.of(carDTO), response.getData());
+        assertFalse(response.getHasNext());
+        assertNull(response.getNextCursor());
+        verify(carRepository).findAllProjected(CarFilter.all(), KeysetCursor.decode(cursor.encode()), sort, 0, 2);
+        verifyNoMoreInteractions(carRepository);
+        verifyNoInteractions(converterService);
+    }
+
+    @Test
+    public void findById_whenReadModelIsProjection_success() {
+        CarService projectingCarService = newProjectingCarService();
+        CarDTO carDTO = CarDTO.builder().id(1L).build();
+        when(carRepository.findAllProjectedByIdIn(List.of(1L))).thenReturn(List.of(carDTO));
+
+        assertEquals(carDTO, projectingCarService.findById(1L));
+
+        verify(carRepository).findAllProjectedByIdIn(List.of(1L));
+        verifyNoMoreInteractions(carRepository);
+        verifyNoInteractions(converterService);
+    }
+
+    @Test
+    public void findById_whenReadModelIsProjectionAndEntityDoesNotExist_throwEntityNotFoundException() {
+        CarService projectingCarService = newProjectingCarService();
+        when(carRepository.findAllProjectedByIdIn(List.of(1L))).thenReturn(List.of());
+
+        assertThrows(EntityNotFoundException.class, () -> projectingCarService.findById(1L));
+    }
+
+    private CarService newIndexedCarService() {
+        return new CarService(carRepository, categoryService, makeService, Optional.of(carBitmapIndex),
+                carEntityValidator, converterService, carFromCarDTOUpdater, cacheInvalidator, ENTITY_READ_MODEL,
+                Optional.of(carSuggestionIndex));
+    }
+
+    private CarService newProjectingCarService() {
+        return new CarService(carRepository, categoryService, makeService, Optional.empty(), carEntityValidator,
+                converterService, carFromCarDTOUpdater, cacheInvalidator, PROJECTION_READ_MODEL,
+                Optional.of(carSuggestionIndex));
+    }
+}
@@ -1,11 +1,17 @@
 package com.myapi.cars.service;
 
+import com.myapi.cars.cache.ReferenceData;
+import com.myapi.cars.cache.CacheInvalidator;
+import com.myapi.cars.cache.ReferenceDataCache;
 import com.myapi.cars.converter.CategoryFromCategoryDTOUpdater;
 import com.myapi.cars.dto.CategoryDTO;
 import com.myapi.cars.exception.EntityAlreadyExistsException;
 import com.myapi.cars.exception.EntityNotFoundException;
+import com.myapi.cars.exception.EntityVersionConflictException;
+import com.myapi.cars.exception.PreconditionFailedException;
 import com.myapi.cars.exception.ServiceException;
 import com.myapi.cars.exception.ValidationException;
+import com.myapi.cars.index.CarSuggestionIndex;
 import com.myapi.cars.model.Category;
 import com.myapi.cars.repository.CategoryRepository;
 import com.myapi.cars.validation.CategoryEntityValidator;
@@ -16,10 +22,14 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullSource;
 import org.mockito.Mock;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.query.BadJpqlGrammarException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
 
@@ -44,10 +54,17 @@ public class CategoryServiceTest {
     @Mock
     private CategoryFromCategoryDTOUpdater categoryFromCategoryDTOUpdater;
 
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
+    @Mock
+    private CarSuggestionIndex carSuggestionIndex;
+
     @BeforeEach
     public void setUp() {
         categoryService = new CategoryService(categoryRepository, categoryEntityValidator, converterService,
-                categoryFromCategoryDTOUpdater);
+                categoryFromCategoryDTOUpdater, cacheInvalidator, new ReferenceDataCache(new NoOpCacheManager()),
+                Optional.of(carSuggestionIndex));
     }
 
     @ParameterizedTest
@@ -61,7 +78,7 @@ public class CategoryServiceTest {
 
     @Test
     public void create_whenRepositoryThrowsExceptionExtendsDataAccessException_throwServiceException() {
-        doThrow(BadJpqlGrammarException.class).when(categoryRepository).existsById(any());
+        doThrow(BadJpqlGrammarException.class).when(categoryRepository).saveAndFlush(any());
 
         CategoryDTO categoryDTO = CategoryDTO.builder().id(1L).build();
         Category category = Category.builder().id(1L).build();
@@ -71,7 +88,7 @@ public class CategoryServiceTest {
         assertThrows(ServiceException.class, () -> categoryService.create(categoryDTO));
 
         verify(categoryEntityValidator).validate(any());
-        verify(categoryRepository).existsById(any());
+        verify(categoryRepository).saveAndFlush(any());
         verifyNoMoreInteractions(categoryRepository);
     }
 
@@ -85,8 +102,10 @@ public class CategoryServiceTest {
     }
 
     @Test
-    public void create_whenEntityAlreadyExists_throwEntityAlreadyExistsException() {
-        when(categoryRepository.existsById(any())).thenReturn(true);
+    public void create_whenUniqueConstraintIsViolated_throwEntityAlreadyExistsException() {
+        doThrow(new DataIntegrityViolationException("duplicate key",
+                new SQLException("duplicate key value violates unique constraint", "23505")))
+                .when(categoryRepository).saveAndFlush(any());
 
         CategoryDTO categoryDTO = CategoryDTO.builder().id(1L).build();
         Category category = Category.builder().id(1L).build();
@@ -96,6 +115,7 @@ public class CategoryServiceTest {
         assertThrows(EntityAlreadyExistsException.class, () -> categoryService.create(categoryDTO));
 
         verify(categoryEntityValidator).validate(any());
+        verifyNoInteractions(cacheInvalidator);
     }
 
     @Test
@@ -104,26 +124,26 @@ public class CategoryServiceTest {
         Category category = Category.builder().id(1L).build();
 
         when(converterService.convert(categoryDTO, Category.class)).thenReturn(category);
-        when(categoryRepository.save(any())).thenReturn(category);
-        when(categoryRepository.existsById(any())).thenReturn(false);
+        when(categoryRepository.saveAndFlush(any())).thenReturn(Category.builder().id(2L).build());
 
-        assertEquals(categoryDTO.getId(), categoryService.create(categoryDTO));
+        assertEquals(2L, categoryService.create(categoryDTO));
 
-        verify(categoryRepository).save(category);
-        verify(categoryRepository).existsById(any());
+        verify(categoryRepository).saveAndFlush(category);
         verifyNoMoreInteractions(categoryRepository);
+        assertNull(category.getId());
 
         verify(categoryEntityValidator).validate(category);
         verifyNoMoreInteractions(categoryEntityValidator);
 
         verify(converterService).convert(categoryDTO, Category.class);
         verifyNoMoreInteractions(converterService);
+        verify(cacheInvalidator).invalidate(ReferenceData.CATEGORY);
     }
 
     @ParameterizedTest
     @NullSource
     public void update_whenEntityIsNull_throwIllegalArgumentException(CategoryDTO nullCategoryDTO) {
-        assertThrows(IllegalArgumentException.class, () -> categoryService.update(nullCategoryDTO, 1L));
+        assertThrows(IllegalArgumentException.class, () -> categoryService.update(nullCategoryDTO, 1L, null));
 
         verifyNoInteractions(categoryRepository);
         verifyNoInteractions(categoryEntityValidator);
@@ -135,7 +155,7 @@ public class CategoryServiceTest {
 
         CategoryDTO categoryDTO = CategoryDTO.builder().id(1L).build();
 
-        assertThrows(ServiceException.class, () -> categoryService.update(categoryDTO, 1L));
+        assertThrows(ServiceException.class, () -> categoryService.update(categoryDTO, 1L, null));
 
         verify(categoryRepository).findById(any());
         verifyNoMoreInteractions(categoryRepository);
@@ -149,7 +169,7 @@ public class CategoryServiceTest {
         when(categoryRepository.findById(any())).thenReturn(Optional.ofNullable(category));
         doThrow(ValidationException.class).when(categoryEntityValidator).validate(any());
 
-        assertThrows(ValidationException.class, () -> categoryService.update(categoryDTO, 1L));
+        assertThrows(ValidationException.class, () -> categoryService.update(categoryDTO, 1L, null));
 
         verify(categoryEntityValidator).validate(any());
 
@@ -166,7 +186,7 @@ public class CategoryServiceTest {
     public void update_whenEntityDoesNotExists_throwEntityNotFoundException() {
         when(categoryRepository.findById(any())).thenReturn(Optional.empty());
 
-        assertThrows(EntityNotFoundException.class, () -> categoryService.update(new CategoryDTO(), 1L));
+        assertThrows(EntityNotFoundException.class, () -> categoryService.update(new CategoryDTO(), 1L, null));
 
         verify(categoryRepository).findById(any());
         verifyNoMoreInteractions(categoryRepository);
@@ -182,13 +202,13 @@ public class CategoryServiceTest {
         Category category = Category.builder().id(1L).build();
 
         when(categoryRepository.findById(any())).thenReturn(Optional.ofNullable(category));
-        when(categoryRepository.save(any())).thenReturn(category);
+        when(categoryRepository.saveAndFlush(any())).thenReturn(category);
         when(converterService.convert(category, CategoryDTO.class)).thenReturn(categoryDTO);
 
-        assertEquals(categoryDTO, categoryService.update(categoryDTO, 1L));
+        assertEquals(categoryDTO, categoryService.update(categoryDTO, 1L, null));
 
         verify(categoryRepository).findById(any());
-        verify(categoryRepository).save(category);
+        verify(categoryRepository).saveAndFlush(category);
         verifyNoMoreInteractions(categoryRepository);
 
         verify(categoryEntityValidator).validate(category);
@@ -199,24 +219,55 @@ public class CategoryServiceTest {
 
         verify(converterService).convert(category, CategoryDTO.class);
         verifyNoMoreInteractions(converterService);
+        verify(cacheInvalidator).invalidate(ReferenceData.CATEGORY);
+    }
+
+    @Test
+    public void update_whenIfMatchIsNotCurrent_throwPreconditionFailedException() {
+        Category category = Category.builder().id(1L).version(3L).build();
+
+        when(categoryRepository.findById(any())).thenReturn(Optional.of(category));
+
+        assertThrows(PreconditionFailedException.class,
+                () -> categoryService.update(CategoryDTO.builder().id(1L).build(), 1L, "\"2\""));
+
+        verify(categoryRepository).findById(any());
+        verifyNoMoreInteractions(categoryRepository);
+        verifyNoInteractions(categoryFromCategoryDTOUpdater);
+        verifyNoInteractions(cacheInvalidator);
+    }
+
+    @Test
+    public void update_whenCategoryWasChangedConcurrently_throwEntityVersionConflictException() {
+        Category category = Category.builder().id(1L).build();
+
+        when(categoryRepository.findById(any())).thenReturn(Optional.of(category));
+        doThrow(ObjectOptimisticLockingFailureException.class).when(categoryRepository).saveAndFlush(any());
+
+        assertThrows(EntityVersionConflictException.class,
+                () -> categoryService.update(CategoryDTO.builder().id(1L).build(), 1L, "\"0\""));
+
+        verifyNoInteractions(cacheInvalidator);
     }
 
     @Test
     public void deleteById_whenRepositoryThrowsExceptionExtendsDataAccessException_throwServiceException() {
-        doThrow(BadJpqlGrammarException.class).when(categoryRepository).deleteById(any());
+        doThrow(BadJpqlGrammarException.class).when(categoryRepository).deleteByIdReturningCount(any());
 
         assertThrows(ServiceException.class, () -> categoryService.deleteById(1L));
 
-        verify(categoryRepository).existsById(any());
+        verify(categoryRepository).deleteByIdReturningCount(any());
     }
 
     @Test
     public void deleteById_whenEntityDoesNotExists_throwEntityDoesNotExistsException() {
-        when(categoryRepository.existsById(any())).thenReturn(false);
+        when(categoryRepository.deleteByIdReturningCount(any())).thenReturn(0);
 
         assertThrows(EntityNotFoundException.class, () -> categoryService.deleteById(1L));
 
-        verify(categoryRepository).existsById(any());
+        verify(categoryRepository).deleteByIdReturningCount(any());
+        verifyNoMoreInteractions(categoryRepository);
+        verifyNoInteractions(cacheInvalidator);
     }
 
     @ParameterizedTest
@@ -229,11 +280,15 @@ public class CategoryServiceTest {
 
     @Test
     public void deleteById_success() {
-        when(categoryRepository.existsById(any())).thenReturn(true);
+        when(categoryRepository.deleteByIdReturningCount(any())).thenReturn(1);
 
         categoryService.deleteById(1L);
 
-        verify(categoryRepository).deleteById(any());
+        verify(categoryRepository).deleteByIdReturningCount(1L);
+        verifyNoMoreInteractions(categoryRepository);
+
+        verify(cacheInvalidator).invalidate(ReferenceData.CATEGORY);
+        verify(carSuggestionIndex).removeCategory(1L);
     }
 
     @ParameterizedTest
@@ -296,4 +351,24 @@ public class CategoryServiceTest {
         verify(converterService).convert(category, CategoryDTO.class);
         verifyNoMoreInteractions(converterService);
     }
+
+    @Test
+    public void findByName_success() {
+        Category category = Category.builder().id(1L).name("Sedan").build();
+        CategoryDTO categoryDTO = CategoryDTO.builder().id(1L).name("Sedan").build();
+
+        when(categoryRepository.findByName("Sedan")).thenReturn(Optional.of(category));
+        when(converterService.convert(category, CategoryDTO.class)).thenReturn(categoryDTO);
+
+        assertEquals(Optional.of(categoryDTO), categoryService.findByName("Sedan"));
+    }
+
+    @Test
+    public void findByName_whenNameDoesNotExist_returnEmpty() {
+        when(categoryRepository.findByName(any())).thenReturn(Optional.empty());
+
+        assertTrue(categoryService.findByName("Sedan").isEmpty());
+
+        verifyNoInteractions(converterService);
+    }
 }
@@ -1,11 +1,17 @@
 package com.myapi.cars.service;
 
+import com.myapi.cars.cache.ReferenceData;
+import com.myapi.cars.cache.CacheInvalidator;
+import com.myapi.cars.cache.ReferenceDataCache;
 import com.myapi.cars.converter.MakeFromMakeDTOUpdater;
 import com.myapi.cars.dto.MakeDTO;
 import com.myapi.cars.exception.EntityAlreadyExistsException;
 import com.myapi.cars.exception.EntityNotFoundException;
+import com.myapi.cars.exception.EntityVersionConflictException;
+import com.myapi.cars.exception.PreconditionFailedException;
 import com.myapi.cars.exception.ServiceException;
 import com.myapi.cars.exception.ValidationException;
+import com.myapi.cars.index.CarSuggestionIndex;
 import com.myapi.cars.model.Make;
 import com.myapi.cars.repository.MakeRepository;
 import com.myapi.cars.validation.MakeEntityValidator;
@@ -16,10 +22,14 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullSource;
 import org.mockito.Mock;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.query.BadJpqlGrammarException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
 
@@ -44,9 +54,16 @@ public class MakeServiceTest {
     @Mock
     private MakeFromMakeDTOUpdater makeFromMakeDTOUpdater;
 
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
+    @Mock
+    private CarSuggestionIndex carSuggestionIndex;
+
     @BeforeEach
     public void setUp() {
-        makeService = new MakeService(makeRepository, makeEntityValidator, converterService, makeFromMakeDTOUpdater);
+        makeService = new MakeService(makeRepository, makeEntityValidator, converterService, makeFromMakeDTOUpdater,
+                cacheInvalidator, new ReferenceDataCache(new NoOpCacheManager()), Optional.of(carSuggestionIndex));
     }
 
     @ParameterizedTest
@@ -60,7 +77,7 @@ public class MakeServiceTest {
 
     @Test
     public void create_whenRepositoryThrowsExceptionExtendsDataAccessException_throwServiceException() {
-        doThrow(BadJpqlGrammarException.class).when(makeRepository).existsById(any());
+        doThrow(BadJpqlGrammarException.class).when(makeRepository).saveAndFlush(any());
 
         MakeDTO makeDTO = MakeDTO.builder().id(1L).build();
         Make make = Make.builder().id(1L).build();
@@ -70,7 +87,7 @@ public class MakeServiceTest {
         assertThrows(ServiceException.class, () -> makeService.create(makeDTO));
 
         verify(makeEntityValidator).validate(any());
-        verify(makeRepository).existsById(any());
+        verify(makeRepository).saveAndFlush(any());
         verifyNoMoreInteractions(makeRepository);
     }
 
@@ -84,8 +101,10 @@ public class MakeServiceTest {
     }
 
     @Test
-    public void create_whenEntityAlreadyExists_throwEntityAlreadyExistsException() {
-        when(makeRepository.existsById(any())).thenReturn(true);
+    public void create_whenUniqueConstraintIsViolated_throwEntityAlreadyExistsException() {
+        doThrow(new DataIntegrityViolationException("duplicate key",
+                new SQLException("duplicate key value violates unique constraint", "23505")))
+                .when(makeRepository).saveAndFlush(any());
 
         MakeDTO makeDTO = MakeDTO.builder().id(1L).build();
         Make make = Make.builder().id(1L).build();
@@ -95,6 +114,7 @@ public class MakeServiceTest {
         assertThrows(EntityAlreadyExistsException.class, () -> makeService.create(makeDTO));
 
         verify(makeEntityValidator).validate(any());
+        verifyNoInteractions(cacheInvalidator);
     }
 
     @Test
@@ -103,26 +123,27 @@ public class MakeServiceTest {
         Make make = Make.builder().id(1L).build();
 
         when(converterService.convert(makeDTO, Make.class)).thenReturn(make);
-        when(makeRepository.save(any())).thenReturn(make);
-        when(makeRepository.existsById(any())).thenReturn(false);
+        when(makeRepository.saveAndFlush(any())).thenReturn(Make.builder().id(2L).build());
 
-        assertEquals(makeDTO.getId(), makeService.create(makeDTO));
+        assertEquals(2L, makeService.create(makeDTO));
 
-        verify(makeRepository).save(make);
-        verify(makeRepository).existsById(any());
+        verify(makeRepository).saveAndFlush(make);
         verifyNoMoreInteractions(makeRepository);
+        assertNull(make.getId());
 
         verify(makeEntityValidator).validate(make);
         verifyNoMoreInteractions(makeEntityValidator);
 
         verify(converterService).convert(makeDTO, Make.class);
         verifyNoMoreInteractions(converterService);
+        verify(cacheInvalidator).invalidate(ReferenceData.MAKE);
+        verify(carSuggestionIndex).putMake(2L, null);
     }
 
     @ParameterizedTest
     @NullSource
     public void update_whenEntityIsNull_throwIllegalArgumentException(MakeDTO nullMakeDTO) {
-        assertThrows(IllegalArgumentException.class, () -> makeService.update(nullMakeDTO, 1L));
+        assertThrows(IllegalArgumentException.class, () -> makeService.update(nullMakeDTO, 1L, null));
 
         verifyNoInteractions(makeRepository);
         verifyNoInteractions(makeEntityValidator);
@@ -134,7 +155,7 @@ public class MakeServiceTest {
 
         MakeDTO makeDTO = MakeDTO.builder().id(1L).build();
 
-        assertThrows(ServiceException.class, () -> makeService.update(makeDTO, 1L));
+        assertThrows(ServiceException.class, () -> makeService.update(makeDTO, 1L, null));
 
         verify(makeRepository).findById(any());
         verifyNoMoreInteractions(makeRepository);
@@ -148,7 +169,7 @@ public class MakeServiceTest {
         when(makeRepository.findById(any())).thenReturn(Optional.ofNullable(make));
         doThrow(ValidationException.class).when(makeEntityValidator).validate(any());
 
-        assertThrows(ValidationException.class, () -> makeService.update(makeDTO, 1L));
+        assertThrows(ValidationException.class, () -> makeService.update(makeDTO, 1L, null));
 
         verify(makeEntityValidator).validate(any());
 
@@ -165,7 +186,7 @@ public class MakeServiceTest {
     public void update_whenEntityDoesNotExists_throwEntityNotFoundException() {
         when(makeRepository.findById(any())).thenReturn(Optional.empty());
 
-        assertThrows(EntityNotFoundException.class, () -> makeService.update(new MakeDTO(), 1L));
+        assertThrows(EntityNotFoundException.class, () -> makeService.update(new MakeDTO(), 1L, null));
 
         verify(makeRepository).findById(any());
         verifyNoMoreInteractions(makeRepository);
@@ -181,13 +202,13 @@ public class MakeServiceTest {
         Make make = Make.builder().id(1L).build();
 
         when(makeRepository.findById(any())).thenReturn(Optional.ofNullable(make));
-        when(makeRepository.save(any())).thenReturn(make);
+        when(makeRepository.saveAndFlush(any())).thenReturn(make);
         when(converterService.convert(make, MakeDTO.class)).thenReturn(makeDTO);
 
-        assertEquals(makeDTO, makeService.update(makeDTO, 1L));
+        assertEquals(makeDTO, makeService.update(makeDTO, 1L, null));
 
         verify(makeRepository).findById(any());
-        verify(makeRepository).save(make);
+        verify(makeRepository).saveAndFlush(make);
         verifyNoMoreInteractions(makeRepository);
 
         verify(makeEntityValidator).validate(make);
@@ -198,24 +219,55 @@ public class MakeServiceTest {
 
         verify(converterService).convert(make, MakeDTO.class);
         verifyNoMoreInteractions(converterService);
+        verify(cacheInvalidator).invalidate(ReferenceData.MAKE);
+    }
+
+    @Test
+    public void update_whenIfMatchIsNotCurrent_throwPreconditionFailedException() {
+        Make make = Make.builder().id(1L).version(3L).build();
+
+        when(makeRepository.findById(any())).thenReturn(Optional.of(make));
+
+        assertThrows(PreconditionFailedException.class,
+                () -> makeService.update(MakeDTO.builder().id(1L).build(), 1L, "\"2\""));
+
+        verify(makeRepository).findById(any());
+        verifyNoMoreInteractions(makeRepository);
+        verifyNoInteractions(makeFromMakeDTOUpdater);
+        verifyNoInteractions(cacheInvalidator);
+    }
+
+    @Test
+    public void update_whenMakeWasChangedConcurrently_throwEntityVersionConflictException() {
+        Make make = Make.builder().id(1L).build();
+
+        when(makeRepository.findById(any())).thenReturn(Optional.of(make));
+        doThrow(ObjectOptimisticLockingFailureException.class).when(makeRepository).saveAndFlush(any());
+
+        assertThrows(EntityVersionConflictException.class,
+                () -> makeService.update(MakeDTO.builder().id(1L).build(), 1L, "\"0\""));
+
+        verifyNoInteractions(cacheInvalidator);
     }
 
     @Test
     public void deleteById_whenRepositoryThrowsExceptionExtendsDataAccessException_throwServiceException() {
-        doThrow(BadJpqlGrammarException.class).when(makeRepository).deleteById(any());
+        doThrow(BadJpqlGrammarException.class).when(makeRepository).deleteByIdReturningCount(any());
 
         assertThrows(ServiceException.class, () -> makeService.deleteById(1L));
 
-        verify(makeRepository).existsById(any());
+        verify(makeRepository).deleteByIdReturningCount(any());
     }
 
     @Test
     public void deleteById_whenEntityDoesNotExists_throwEntityDoesNotExistsException() {
-        when(makeRepository.existsById(any())).thenReturn(false);
+        when(makeRepository.deleteByIdReturningCount(any())).thenReturn(0);
 
         assertThrows(EntityNotFoundException.class, () -> makeService.deleteById(1L));
 
-        verify(makeRepository).existsById(any());
+        verify(makeRepository).deleteByIdReturningCount(any());
+        verifyNoMoreInteractions(makeRepository);
+        verifyNoInteractions(cacheInvalidator);
     }
 
     @ParameterizedTest
@@ -228,11 +280,15 @@ public class MakeServiceTest {
 
     @Test
     public void deleteById_success() {
-        when(makeRepository.existsById(any())).thenReturn(true);
+        when(makeRepository.deleteByIdReturningCount(any())).thenReturn(1);
 
         makeService.deleteById(1L);
 
-        verify(makeRepository).deleteById(any());
+        verify(makeRepository).deleteByIdReturningCount(1L);
+        verifyNoMoreInteractions(makeRepository);
+
+        verify(cacheInvalidator).invalidate(ReferenceData.MAKE);
+        verify(carSuggestionIndex).removeMake(1L);
     }
 
     @ParameterizedTest
@@ -295,4 +351,24 @@ public class MakeServiceTest {
         verify(converterService).convert(make, MakeDTO.class);
         verifyNoMoreInteractions(converterService);
     }
+
+    @Test
+    public void findByName_success() {
+        Make make = Make.builder().id(1L).name("Toyota").build();
+        MakeDTO makeDTO = MakeDTO.builder().id(1L).name("Toyota").build();
+
+        when(makeRepository.findByName("Toyota")).thenReturn(Optional.of(make));
+        when(converterService.convert(make, MakeDTO.class)).thenReturn(makeDTO);
+
+        assertEquals(Optional.of(makeDTO), makeService.findByName("Toyota"));
+    }
+
+    @Test
+    public void findByName_whenNameDoesNotExist_returnEmpty() {
+        when(makeRepository.findByName(any())).thenReturn(Optional.empty());
+
+        assertTrue(makeService.findByName("Toyota").isEmpty());
+
+        verifyNoInteractions(converterService);
+    }
 }
@@ -0,0 +1,94 @@
+package com.myapi.cars.service;
+
+import com.myapi.cars.dto.DTOSuggestion;
+import com.myapi.cars.exception.ServiceException;
+import com.myapi.cars.index.CarSuggestionIndex;
+import com.myapi.cars.index.SuggestionType;
+import com.myapi.cars.repository.CarRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class SuggestionServiceTest {
+
+    private SuggestionService suggestionService;
+
+    @Mock
+    private CarRepository carRepository;
+
+    @Mock
+    private CarSuggestionIndex carSuggestionIndex;
+
+    @BeforeEach
+    public void setUp() {
+        suggestionService = new SuggestionService(carRepository, Optional.of(carSuggestionIndex));
+    }
+
+    @Test
+    public void suggest_whenNoTypeIsGiven_suggestEveryType() {
+        List<DTOSuggestion> suggestions = List.of(new DTOSuggestion("model", "Camry", 3L));
+        when(carSuggestionIndex.suggest("Ca", EnumSet.allOf(SuggestionType.class), SuggestionService.CANDIDATES, 5))
+                .thenReturn(Optional.of(suggestions));
+
+        assertEquals(suggestions, suggestionService.suggest(" Ca", Set.of(), 5));
+        verifyNoInteractions(carRepository);
+    }
+
+    @Test
+    public void suggest_whenIndexIsNotAvailable_queryDatabase() {
+        List<DTOSuggestion> suggestions = List.of(new DTOSuggestion("make", "Cadillac", 2L));
+        when(carSuggestionIndex.suggest("Ca", Set.of(SuggestionType.MAKE), SuggestionService.CANDIDATES, 5))
+                .thenReturn(Optional.empty());
+        when(carRepository.suggest("Ca", Set.of(SuggestionType.MAKE), SuggestionService.CANDIDATES, 5))
+                .thenReturn(suggestions);
+
+        assertEquals(suggestions, suggestionService.suggest("Ca", Set.of(SuggestionType.MAKE), 5));
+    }
+
+    @Test
+    public void suggest_whenIndexIsDisabled_queryDatabase() {
+        suggestionService = new SuggestionService(carRepository, Optional.empty());
+        List<DTOSuggestion> suggestions = List.of(new DTOSuggestion("model", "Camry", 3L));
+        when(carRepository.suggest("Ca", EnumSet.allOf(SuggestionType.class), SuggestionService.CANDIDATES, 5))
+                .thenReturn(suggestions);
+
+        assertEquals(suggestions, suggestionService.suggest("Ca", Set.of(), 5));
+    }
+
+    @Test
+    public void suggest_whenQueryFails_throwServiceException() {
+        suggestionService = new SuggestionService(carRepository, Optional.empty());
+        when(carRepository.suggest("Ca", EnumSet.allOf(SuggestionType.class), SuggestionService.CANDIDATES, 5))
+                .thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThrows(ServiceException.class, () -> suggestionService.suggest("Ca", Set.of(), 5));
+    }
+
+    @Test
+    public void suggest_whenPrefixIsBlank_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> suggestionService.suggest(" ", Set.of(), 5));
+
+        verifyNoInteractions(carSuggestionIndex);
+    }
+
+    @Test
+    public void suggest_whenLimitIsOutOfRange_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> suggestionService.suggest("Ca", Set.of(), 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> suggestionService.suggest("Ca", Set.of(), SuggestionService.MAX_LIMIT + 1));
+
+        verifyNoInteractions(carSuggestionIndex);
+    }
+}
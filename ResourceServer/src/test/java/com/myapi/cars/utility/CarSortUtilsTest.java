@@ -0,0 +1,92 @@
+package com.myapi.cars.utility;
+
+import com.myapi.cars.pageable.OffsetBasedPageRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CarSortUtilsTest {
+
+    @Test
+    public void getSort_whenSortIsById_returnIdOrder() {
+        assertEquals(Sort.by(Sort.Direction.ASC, "id"), CarSortUtils.getSort(new String[]{"id", "asc"}));
+    }
+
+    @Test
+    public void getSort_whenSortIsByYear_appendIdTieBreaker() {
+        assertEquals(Sort.by(Sort.Direction.DESC, "year", "id"), CarSortUtils.getSort(new String[]{"year", "desc"}));
+    }
+
+    @Test
+    public void getSort_whenIdTieBreakerIsGiven_keepItLast() {
+        assertEquals(Sort.by(Sort.Direction.ASC, "model", "id"),
+                CarSortUtils.getSort(new String[]{"model", "id", "asc"}));
+    }
+
+    @Test
+    public void getSort_whenSortIsByMakeAndModel_orderByMakeIdModelAndId() {
+        assertEquals(Sort.by(Sort.Direction.ASC, "make.id", "model", "id"),
+                CarSortUtils.getSort(new String[]{"make", "model", "asc"}));
+    }
+
+    @Test
+    public void getSort_whenSortParametersAreRepeated_splitEachOfThem() {
+        assertEquals(Sort.by(Sort.Direction.DESC, "make.id", "year", "id"),
+                CarSortUtils.getSort(new String[]{"make,desc", "year,desc"}));
+    }
+
+    @Test
+    public void getSort_whenDirectionIsNotLowerCase_ignoreCase() {
+        assertEquals(Sort.by(Sort.Direction.DESC, "make.id", "year", "id"),
+                CarSortUtils.getSort(new String[]{"make", "year", " DESC"}));
+        assertEquals(Sort.by(Sort.Direction.ASC, "model", "id"), CarSortUtils.getSort(new String[]{"model", "Asc"}));
+    }
+
+    @Test
+    public void getSort_whenSortIsNullOrEmpty_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> CarSortUtils.getSort(null));
+        assertThrows(IllegalArgumentException.class, () -> CarSortUtils.getSort(new String[]{}));
+        assertThrows(IllegalArgumentException.class, () -> CarSortUtils.getSort(new String[]{","}));
+        assertThrows(IllegalArgumentException.class, () -> CarSortUtils.getSort(new String[]{null, "asc"}));
+    }
+
+    @Test
+    public void getSort_whenDirectionIsMissing_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> CarSortUtils.getSort(new String[]{"year"}));
+        assertThrows(IllegalArgumentException.class, () -> CarSortUtils.getSort(new String[]{"asc"}));
+        assertThrows(IllegalArgumentException.class, () -> CarSortUtils.getSort(new String[]{"make", "asc", "year"}));
+    }
+
+    @Test
+    public void getSort_whenKeyIsUnknown_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> CarSortUtils.getSort(new String[]{"make.name", "asc"}));
+        assertThrows(IllegalArgumentException.class, () -> CarSortUtils.getSort(new String[]{"version", "asc"}));
+    }
+
+    @Test
+    public void getSort_whenNoIndexServesTheOrder_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> CarSortUtils.getSort(new String[]{"make", "asc"}));
+        assertThrows(IllegalArgumentException.class, () -> CarSortUtils.getSort(new String[]{"year", "model", "asc"}));
+        assertThrows(IllegalArgumentException.class, () -> CarSortUtils.getSort(new String[]{"year", "make", "asc"}));
+        assertThrows(IllegalArgumentException.class, () -> CarSortUtils.getSort(new String[]{"id", "year", "asc"}));
+    }
+
+    @Test
+    public void getSort_whenDirectionsDiffer_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CarSortUtils.getSort(new String[]{"make", "asc", "year", "desc"}));
+    }
+
+    @Test
+    public void getPageable_whenSortIsValid_returnOffsetBasedPageRequest() {
+        Pageable pageable = CarSortUtils.getPageable(10, 20, new String[]{"year", "asc"});
+
+        assertEquals(OffsetBasedPageRequest.class, pageable.getClass());
+        assertEquals(20, pageable.getOffset());
+        assertEquals(10, pageable.getPageSize());
+        assertEquals(Sort.by(Sort.Direction.ASC, "year", "id"), pageable.getSort());
+    }
+}
@@ -49,4 +49,16 @@ public class PaginationSortingUtilsTest {
         assertEquals(pageable.getSort().getOrderFor("name").getProperty(), "name");
         assertEquals(pageable.getClass(), OffsetBasedPageRequest.class);
     }
+
+    @Test
+    public void getSort_whenSortDirectionIsDesc_returnDescendingSort() {
+        Sort sort = PaginationSortingUtils.getSort(new String[]{"year", "desc"});
+
+        assertEquals(sort.getOrderFor("year").getDirection(), Sort.Direction.DESC);
+    }
+
+    @Test
+    public void getSort_whenSortIsNull_throwIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> PaginationSortingUtils.getSort(null));
+    }
 }